@@ -0,0 +1,104 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * Keeps the substrings found by a MatchCursor by the position they end at, so
+ * that popping a character drops the substrings ending at it. The matchers only
+ * advance their own state one character at a time (see advance).
+ * 
+ * @author luant
+ *
+ */
+abstract class AbstractMatchCursor implements MatchCursor {
+
+	private int depth;
+
+	/**
+	 * The number of substrings ending before each position
+	 */
+	private int[] matchesBefore = new int[16];
+
+	private int noOfMatches;
+	private int[] matchStarts = new int[16];
+	private int[] matchEnds = new int[16];
+	private String[] matchValues = new String[16];
+
+	@Override
+	public final void push(char c) {
+		if (depth == matchesBefore.length) {
+			matchesBefore = Arrays.copyOf(matchesBefore, depth * 2);
+		}
+		matchesBefore[depth] = noOfMatches;
+		advance(depth, c);
+		depth++;
+	}
+
+	@Override
+	public final void pop() {
+		if (depth == 0) {
+			throw new IllegalStateException("No character to pop");
+		}
+		depth--;
+		noOfMatches = matchesBefore[depth];
+	}
+
+	@Override
+	public final int depth() {
+		return depth;
+	}
+
+	@Override
+	public List<SubString> getSubStrings(String phoneNumber) {
+		List<SubString> result = new ArrayList<>(noOfMatches);
+		for (int i = 0; i < noOfMatches; i++) {
+			result.add(new SubString(phoneNumber, matchValues[i], matchStarts[i], matchEnds[i]));
+		}
+		result.sort(SubStringMatcher.LENGTH_THEN_START);
+		return result;
+	}
+
+	@Override
+	public List<SubString> getLastSubStrings(String phoneNumber) {
+		int from = depth > 0 ? matchesBefore[depth - 1] : 0;
+		List<SubString> result = new ArrayList<>(noOfMatches - from);
+		for (int i = from; i < noOfMatches; i++) {
+			result.add(new SubString(phoneNumber, matchValues[i], matchStarts[i], matchEnds[i]));
+		}
+		result.sort(SubStringMatcher.LENGTH_THEN_START);
+		return result;
+	}
+
+	/**
+	 * Move the state of the matcher past the character at the given position,
+	 * the state of the positions before it is the one left by the previous call
+	 * for position - 1
+	 * 
+	 * @param position
+	 * @param c
+	 */
+	protected abstract void advance(int position, char c);
+
+	/**
+	 * Report an encoded number ending at the position being advanced
+	 * 
+	 * @param start
+	 * @param end
+	 * @param encodedNumber
+	 */
+	protected final void addMatch(int start, int end, String encodedNumber) {
+		if (noOfMatches == matchStarts.length) {
+			matchStarts = Arrays.copyOf(matchStarts, noOfMatches * 2);
+			matchEnds = Arrays.copyOf(matchEnds, noOfMatches * 2);
+			matchValues = Arrays.copyOf(matchValues, noOfMatches * 2);
+		}
+		matchStarts[noOfMatches] = start;
+		matchEnds[noOfMatches] = end;
+		matchValues[noOfMatches] = encodedNumber;
+		noOfMatches++;
+	}
+}
@@ -0,0 +1,253 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * An Aho-Corasick automaton over the encoded numbers of the dictionary.
+ *
+ * <p>
+ * The phone number is scanned once from left to right; each digit costs a
+ * single transition, and every encoded number ending at the current digit is
+ * reported through the output links. The time per phone number is linear in
+ * its length plus the number of matches, regardless of how many different
+ * word lengths the dictionary holds.
+ * </p>
+ *
+ * <p>
+ * The automaton is (re)built lazily on the first lookup after encoded numbers
+ * were added.
+ * </p>
+ *
+ * @author luant
+ *
+ */
+public class AhoCorasickMatcher implements SubStringMatcher {
+
+	private static final int RADIX = 10;
+
+	private static final int ROOT = 0;
+
+	private static final int NONE = -1;
+
+	/**
+	 * The trie edges, RADIX entries per state, NONE if there is no edge
+	 */
+	private int[] children;
+
+	/**
+	 * The encoded number spelled by the path to a state, null if the state is not
+	 * the end of an encoded number
+	 */
+	private String[] encodedNumbers;
+
+	private int noOfStates;
+
+	/**
+	 * Number of encoded numbers in the automaton
+	 */
+	private int size = 0;
+
+	/*
+	 * Built by build()
+	 */
+	/**
+	 * Complete transition table, RADIX entries per state
+	 */
+	private int[] transitions;
+
+	/**
+	 * The nearest state along the failure links which ends an encoded number
+	 */
+	private int[] outputLinks;
+
+	private volatile boolean built = false;
+
+	public AhoCorasickMatcher() {
+		children = new int[16 * RADIX];
+		Arrays.fill(children, NONE);
+		encodedNumbers = new String[16];
+		noOfStates = 1;
+	}
+
+	@Override
+	public boolean add(String encodedNumber) {
+		int state = ROOT;
+		for (int i = 0; i < encodedNumber.length(); i++) {
+			int digit = DigitTrie.toDigit(encodedNumber.charAt(i));
+			if (digit < 0) {
+				String errMsg = String.format("Cannot add [%s] into the automaton - [%c] is not a digit",
+						encodedNumber, encodedNumber.charAt(i));
+				throw new IllegalArgumentException(errMsg);
+			}
+			int next = children[state * RADIX + digit];
+			if (next == NONE) {
+				next = newState();
+				children[state * RADIX + digit] = next;
+			}
+			state = next;
+		}
+
+		if (encodedNumbers[state] != null) {
+			return false;
+		}
+		encodedNumbers[state] = encodedNumber;
+		size++;
+		built = false;
+		return true;
+	}
+
+	@Override
+	public boolean contains(String encodedNumber) {
+		int state = ROOT;
+		for (int i = 0; i < encodedNumber.length() && state != NONE; i++) {
+			int digit = DigitTrie.toDigit(encodedNumber.charAt(i));
+			state = digit < 0 ? NONE : children[state * RADIX + digit];
+		}
+		return state != NONE && encodedNumbers[state] != null;
+	}
+
+	@Override
+	public List<SubString> findAllSubStrings(String phoneNumber) {
+		ensureBuilt();
+
+		List<SubString> result = new ArrayList<>();
+		int state = ROOT;
+		for (int end = 0; end < phoneNumber.length(); end++) {
+			int digit = DigitTrie.toDigit(phoneNumber.charAt(end));
+			if (digit < 0) {
+				// no encoded number contains a non digit character
+				state = ROOT;
+				continue;
+			}
+			state = transitions[state * RADIX + digit];
+
+			/*
+			 * Report every encoded number ending at this digit
+			 */
+			int output = encodedNumbers[state] != null ? state : outputLinks[state];
+			while (output != NONE) {
+				String encodedNumber = encodedNumbers[output];
+				int start = end - encodedNumber.length() + 1;
+				result.add(new SubString(phoneNumber, encodedNumber, start, end));
+				output = outputLinks[output];
+			}
+		}
+
+		result.sort(LENGTH_THEN_START);
+		return result;
+	}
+
+	/**
+	 * The automaton has a single state per position, pushing a digit is a single
+	 * transition from the state of the previous position
+	 */
+	@Override
+	public MatchCursor newMatchCursor() {
+		ensureBuilt();
+		return new Cursor();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The state of the automaton after each position
+	 */
+	private class Cursor extends AbstractMatchCursor {
+
+		private int[] states = new int[16];
+
+		@Override
+		protected void advance(int position, char c) {
+			if (position == states.length) {
+				states = Arrays.copyOf(states, position * 2);
+			}
+			int digit = DigitTrie.toDigit(c);
+			if (digit < 0) {
+				// no encoded number contains a non digit character
+				states[position] = ROOT;
+				return;
+			}
+			int state = transitions[(position > 0 ? states[position - 1] : ROOT) * RADIX + digit];
+			states[position] = state;
+
+			int output = encodedNumbers[state] != null ? state : outputLinks[state];
+			while (output != NONE) {
+				String encodedNumber = encodedNumbers[output];
+				addMatch(position - encodedNumber.length() + 1, position, encodedNumber);
+				output = outputLinks[output];
+			}
+		}
+	}
+
+	private void ensureBuilt() {
+		if (!built) {
+			synchronized (this) {
+				if (!built) {
+					build();
+					built = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the failure links breadth first, and turn the trie into a complete
+	 * transition table.
+	 */
+	private void build() {
+		int[] newTransitions = Arrays.copyOf(children, noOfStates * RADIX);
+		int[] failureLinks = new int[noOfStates];
+		int[] newOutputLinks = new int[noOfStates];
+		newOutputLinks[ROOT] = NONE;
+
+		int[] queue = new int[noOfStates];
+		int head = 0;
+		int tail = 0;
+		for (int digit = 0; digit < RADIX; digit++) {
+			int child = newTransitions[ROOT * RADIX + digit];
+			if (child == NONE) {
+				newTransitions[ROOT * RADIX + digit] = ROOT;
+			} else {
+				failureLinks[child] = ROOT;
+				newOutputLinks[child] = NONE;
+				queue[tail++] = child;
+			}
+		}
+
+		while (head < tail) {
+			int state = queue[head++];
+			for (int digit = 0; digit < RADIX; digit++) {
+				int child = newTransitions[state * RADIX + digit];
+				int fallback = newTransitions[failureLinks[state] * RADIX + digit];
+				if (child == NONE) {
+					newTransitions[state * RADIX + digit] = fallback;
+				} else {
+					failureLinks[child] = fallback;
+					newOutputLinks[child] = encodedNumbers[fallback] != null ? fallback : newOutputLinks[fallback];
+					queue[tail++] = child;
+				}
+			}
+		}
+
+		transitions = newTransitions;
+		outputLinks = newOutputLinks;
+	}
+
+	private int newState() {
+		if (noOfStates == encodedNumbers.length) {
+			int capacity = encodedNumbers.length * 2;
+			encodedNumbers = Arrays.copyOf(encodedNumbers, capacity);
+			int oldLength = children.length;
+			children = Arrays.copyOf(children, capacity * RADIX);
+			Arrays.fill(children, oldLength, children.length, NONE);
+		}
+		return noOfStates++;
+	}
+}
@@ -0,0 +1,268 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * @formatter:off
+ *
+ * Finds the most natural phrases of a phone number, the phonewords whose
+ * sequence of words scores the highest in a BigramModel, by a beam search over
+ * the DAG of its patterns (see PatternSegmenter).
+ *
+ * The positions are visited from left to right; a phrase reaching a position
+ * either leaves its character uncovered or goes on with each word of each
+ * substring starting there. Only the beamWidth best phrases reaching a
+ * position go on, so the work per position is bounded by
+ * beamWidth * (number of words of the substrings starting there), whatever the
+ * number of combinations of the patterns.
+ *
+ * An uncovered character ends a phrase: the word after it scores as the first
+ * word of a new one.
+ *
+ * The search is approximate: a phrase pruned early can't be found even though
+ * it would have scored the best at the end. A wider beam finds more of them.
+ * Phrases of the same score keep the order they were found in.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+class BeamPhonewordSearch {
+
+	private static final Comparator<Phrase> BEST_FIRST = Comparator.comparingDouble((Phrase phrase) -> phrase.score)
+			.reversed();
+
+	private final String phoneNumber;
+
+	/**
+	 * Whether two uncovered digits may follow each other, when they may the
+	 * caller checks the syntax of the phonewords found
+	 */
+	private final boolean consecutiveDigitsAllowed;
+
+	private final WordScores wordScores;
+
+	private final BigramModel bigramModel;
+
+	/**
+	 * The substrings grouped by their start position, as in PatternSegmenter,
+	 * with their words
+	 */
+	private final int[] edgeStarts;
+	private final int[] edgeEnds;
+	private final List<String>[] edgeWords;
+	private final int[] edgeOffsets;
+
+	/**
+	 * @param phoneNumber
+	 * @param subStrings
+	 *            the substrings of the phone number which are in the dictionary,
+	 *            in any order
+	 * @param words
+	 *            the words of each substring, in the same order
+	 * @param wordScores
+	 * @param bigramModel
+	 * @param consecutiveDigitsAllowed
+	 *            false to follow the rule of PhonewordSyntaxChecker
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	BeamPhonewordSearch(String phoneNumber, List<SubString> subStrings, List<List<String>> words,
+			WordScores wordScores, BigramModel bigramModel, boolean consecutiveDigitsAllowed) {
+		this.phoneNumber = phoneNumber;
+		this.consecutiveDigitsAllowed = consecutiveDigitsAllowed;
+		this.wordScores = wordScores;
+		this.bigramModel = bigramModel;
+		int length = phoneNumber.length();
+
+		/*
+		 * Counting sort of the substrings by their start
+		 */
+		edgeOffsets = new int[length + 2];
+		for (SubString subString : subStrings) {
+			edgeOffsets[subString.getStart() + 1]++;
+		}
+		for (int i = 1; i < edgeOffsets.length; i++) {
+			edgeOffsets[i] += edgeOffsets[i - 1];
+		}
+		edgeStarts = new int[subStrings.size()];
+		edgeEnds = new int[subStrings.size()];
+		edgeWords = new List[subStrings.size()];
+		int[] next = new int[length + 1];
+		System.arraycopy(edgeOffsets, 0, next, 0, length + 1);
+		for (int i = 0; i < subStrings.size(); i++) {
+			SubString subString = subStrings.get(i);
+			int edge = next[subString.getStart()]++;
+			edgeStarts[edge] = subString.getStart();
+			edgeEnds[edge] = subString.getEnd();
+			edgeWords[edge] = words.get(i);
+		}
+	}
+
+	/**
+	 * @param k
+	 * @param beamWidth
+	 *            the number of phrases kept at each position
+	 * @param accept
+	 *            checks the syntax of the phonewords found, when consecutive
+	 *            digits are allowed
+	 * @return at most k accepted phrases, and no more than beamWidth, by
+	 *         descending score
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	List<ScoredPhoneword> findTop(int k, int beamWidth, Predicate<ScoredPhoneword> accept) {
+		List<ScoredPhoneword> results = new ArrayList<>(Math.min(k, beamWidth));
+		int length = phoneNumber.length();
+		if (k <= 0 || edgeWords.length == 0) {
+			return results;
+		}
+
+		/*
+		 * The phrases reaching each position, filled in by the positions before it
+		 */
+		List<Phrase>[] reaching = new List[length + 1];
+		reaching[0] = new ArrayList<>();
+		reaching[0].add(new Phrase(null, false, false, 0, null, -1));
+
+		for (int position = 0; position < length; position++) {
+			List<Phrase> beam = prune(reaching[position], beamWidth);
+			// the phrases are not needed anymore once they have gone on
+			reaching[position] = null;
+
+			boolean digit = isDigit(position);
+			for (Phrase phrase : beam) {
+				// leave the character as it is
+				if (consecutiveDigitsAllowed || !digit || !phrase.afterDigit) {
+					add(reaching, position + 1, new Phrase(phrase, digit, phrase.covered, phrase.score, null, -1));
+				}
+
+				// or go on with each word of each substring starting at it
+				for (int edge = edgeOffsets[position]; edge < edgeOffsets[position + 1]; edge++) {
+					for (String word : edgeWords[edge]) {
+						double score = phrase.score + bigramModel.getScore(phrase.lastWord, word, wordScores);
+						add(reaching, edgeEnds[edge] + 1, new Phrase(phrase, false, true, score, word, edge));
+					}
+				}
+			}
+		}
+
+		for (Phrase phrase : prune(reaching[length], beamWidth)) {
+			if (results.size() == k) {
+				break;
+			}
+			if (phrase.covered) {
+				ScoredPhoneword result = toResult(phrase);
+				if (accept.test(result)) {
+					results.add(result);
+				}
+			}
+		}
+		return results;
+	}
+
+	private static void add(List<Phrase>[] reaching, int position, Phrase phrase) {
+		if (reaching[position] == null) {
+			reaching[position] = new ArrayList<>();
+		}
+		reaching[position].add(phrase);
+	}
+
+	/**
+	 * Keep the best phrases, plus the one without any word yet: there is at most
+	 * one of them, and it must not crowd out the phrases it would fall behind
+	 * once it picks a word
+	 * 
+	 * @param phrases
+	 * @param beamWidth
+	 * @return
+	 */
+	private static List<Phrase> prune(List<Phrase> phrases, int beamWidth) {
+		if (phrases == null) {
+			return new ArrayList<>();
+		}
+		List<Phrase> beam = new ArrayList<>(Math.min(phrases.size(), beamWidth + 1));
+		Phrase uncovered = null;
+		// a stable sort keeps the order the phrases were found in
+		phrases.sort(BEST_FIRST);
+		for (Phrase phrase : phrases) {
+			if (!phrase.covered) {
+				uncovered = phrase;
+			} else if (beam.size() < beamWidth) {
+				beam.add(phrase);
+			}
+		}
+		if (uncovered != null) {
+			beam.add(uncovered);
+		}
+		return beam;
+	}
+
+	/**
+	 * Walk back from a complete phrase to write its words into the phone number
+	 * 
+	 * @param phrase
+	 * @return
+	 */
+	private ScoredPhoneword toResult(Phrase phrase) {
+		char[] phoneword = phoneNumber.toCharArray();
+		int[] intervals = new int[phoneNumber.length()];
+		int noOfWords = 0;
+		for (Phrase p = phrase; p != null; p = p.parent) {
+			if (p.edge >= 0) {
+				p.lastWord.getChars(0, p.lastWord.length(), phoneword, edgeStarts[p.edge]);
+				intervals[noOfWords++] = Pattern.pack(edgeStarts[p.edge], edgeEnds[p.edge]);
+			}
+		}
+		Pattern pattern = new Pattern(phoneNumber, Arrays.copyOf(intervals, noOfWords));
+		return new ScoredPhoneword(new String(phoneword), pattern, phrase.score);
+	}
+
+	private boolean isDigit(int position) {
+		char c = phoneNumber.charAt(position);
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * A phrase constructed up to a position
+	 */
+	private static final class Phrase {
+		/**
+		 * The phrase before the last step
+		 */
+		final Phrase parent;
+		/**
+		 * Whether the last step left an uncovered digit
+		 */
+		final boolean afterDigit;
+		/**
+		 * Whether a word was picked so far
+		 */
+		final boolean covered;
+		final double score;
+		/**
+		 * The word of the last step, null if the last step left a character
+		 * uncovered
+		 */
+		final String lastWord;
+		/**
+		 * The substring of the last step, -1 if the last step left a character
+		 * uncovered
+		 */
+		final int edge;
+
+		Phrase(Phrase parent, boolean afterDigit, boolean covered, double score, String lastWord, int edge) {
+			this.parent = parent;
+			this.afterDigit = afterDigit;
+			this.covered = covered;
+			this.score = score;
+			this.lastWord = lastWord;
+			this.edge = edge;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package bgl.challenge.phoneword.components;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @formatter:off
+ *
+ * The scores of pairs of words following each other in a phrase, e.g. the log
+ * of the probability of the second word given the first one, loaded from a
+ * text file next to the dictionary. Each line holds a pair and its score,
+ * separated by spaces or tabs:
+ *
+ * CALL NOW -0.5
+ *
+ * The score of a word after another one is the score of the pair if the model
+ * has it; otherwise the model backs off to the score of the word alone (see
+ * WordScores) plus the backoff weight. The first word of a phrase always
+ * scores as a word alone.
+ *
+ * The model never changes once created.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public final class BigramModel {
+
+	/**
+	 * The backoff weight of a loaded model, the log of the usual "stupid
+	 * backoff" factor 0.4
+	 */
+	public static final double DEFAULT_BACKOFF_WEIGHT = Math.log(0.4);
+
+	/**
+	 * No pairs and no backoff weight: phrases score as the sum of the scores of
+	 * their words
+	 */
+	public static final BigramModel EMPTY = new BigramModel(Collections.emptyMap(), 0);
+
+	/**
+	 * The score of each pair, by first word then second word, in upper case
+	 */
+	private final Map<String, Map<String, Double>> scores;
+
+	private final double backoffWeight;
+
+	private final int size;
+
+	private BigramModel(Map<String, Map<String, Double>> scores, double backoffWeight) {
+		this.scores = scores;
+		this.backoffWeight = backoffWeight;
+		this.size = scores.values().stream().mapToInt(Map::size).sum();
+	}
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @param pairScores
+	 *            the score of each pair, by first word then second word
+	 * @param backoffWeight
+	 * @return
+	 */
+	public static BigramModel getInstance(Map<String, Map<String, Double>> pairScores, double backoffWeight) {
+		Map<String, Map<String, Double>> scores = new HashMap<>();
+		pairScores.forEach((first, seconds) -> seconds
+				.forEach((second, score) -> put(scores, first.toUpperCase(), second.toUpperCase(), score)));
+		return new BigramModel(scores, backoffWeight);
+	}
+
+	/**
+	 * Load a model from a text file, the malformed lines are reported and skipped
+	 * 
+	 * @param f
+	 * @return
+	 * @throws IOException
+	 */
+	public static BigramModel read(File f) throws IOException {
+		if (!f.exists()) {
+			String errMsg = String.format(
+					"Error: failed to load the bigram model file - File not found - [%s] doesn't exist",
+					f.getAbsoluteFile());
+			throw new FileNotFoundException(errMsg);
+		}
+
+		Map<String, Map<String, Double>> scores = new HashMap<>();
+		try (BufferedReader reader = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String trimmed = line.trim();
+				if (trimmed.isEmpty()) {
+					continue;
+				}
+				String[] fields = trimmed.split("[ \t]+");
+				Double score = fields.length == 3 ? parseScore(fields[2]) : null;
+				if (score == null) {
+					String warnMsg = String.format("Warning - Cannot add word pair [%s] into the bigram model", line);
+					System.out.println(warnMsg);
+					continue;
+				}
+				// the last score of a pair wins
+				put(scores, fields[0].toUpperCase(), fields[1].toUpperCase(), score);
+			}
+		}
+		return new BigramModel(scores, DEFAULT_BACKOFF_WEIGHT);
+	}
+
+	/**
+	 * @param previous
+	 *            the word before, in upper case, null at the start of a phrase
+	 * @param word
+	 *            in upper case, as stored in the dictionary
+	 * @param wordScores
+	 *            the scores of the words alone
+	 * @return the score of the word following the previous one
+	 */
+	public double getScore(String previous, String word, WordScores wordScores) {
+		if (previous != null) {
+			Map<String, Double> followers = scores.get(previous);
+			Double score = followers == null ? null : followers.get(word);
+			if (score != null) {
+				return score;
+			}
+			return backoffWeight + wordScores.getScore(word);
+		}
+		return wordScores.getScore(word);
+	}
+
+	/**
+	 * @return the number of pairs
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private static void put(Map<String, Map<String, Double>> scores, String first, String second, double score) {
+		scores.computeIfAbsent(first, key -> new HashMap<>()).put(second, score);
+	}
+
+	private static Double parseScore(String field) {
+		try {
+			double score = Double.parseDouble(field);
+			return Double.isNaN(score) || Double.isInfinite(score) ? null : score;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,338 @@
+package bgl.challenge.phoneword.components;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
+import bgl.challenge.phoneword.utils.StringUtils;
+
+/**
+ * @formatter:off
+ *
+ * Remembers the phonewords of the numbers looked up recently, in front of
+ * another dictionary (decorator pattern): a number looked up again is served
+ * from memory instead of running the pattern search again.
+ *
+ * - the numbers are keyed once normalized by
+ *   StringUtils.removeSpacesAndPunctuations, "2255-669" and "2255 669" share
+ *   their entry
+ * - the cache is bounded by the estimated size of the phonewords it holds in
+ *   bytes, the least recently used numbers are evicted first; the phonewords of
+ *   a number larger than the whole cache are not kept
+ * - the entries belong to a version of the dictionary (see getVersion): once
+ *   the version changes, the cache is emptied by the next lookup
+ *
+ * findPhonewords, their pages, streams and counts are served from the cache;
+ * a number whose phonewords are not cached yet is looked up in full by
+ * findPhonewords and findPhonewordsBatch only. The other methods are passed on as they are.
+ *
+ * It is thread safe as long as the dictionary is.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class CachingPhoneWordDictionary implements PhoneWordDictionary {
+
+	public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+	/**
+	 * The estimated size of a String besides its characters, and of a reference
+	 * to it in the list of phonewords
+	 */
+	static final int STRING_OVERHEAD_BYTES = 48;
+
+	private final PhoneWordDictionary dictionary;
+
+	private final long maxBytes;
+
+	/**
+	 * The phonewords by normalized number, in access order, the least recently
+	 * used first. Guarded by this.
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+	private long version = Long.MIN_VALUE;
+
+	private long bytes;
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * @param dictionary
+	 *            the dictionary whose lookups are cached
+	 * @param maxBytes
+	 *            the estimated size of the phonewords kept
+	 */
+	public CachingPhoneWordDictionary(PhoneWordDictionary dictionary, long maxBytes) {
+		if (maxBytes < 0) {
+			String errMsg = String.format("Invalid cache size [%d]", maxBytes);
+			throw new IllegalArgumentException(errMsg);
+		}
+		this.dictionary = dictionary;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @param dictionary
+	 * @return a cache of DEFAULT_MAX_BYTES in front of the dictionary
+	 */
+	public static CachingPhoneWordDictionary getInstance(PhoneWordDictionary dictionary) {
+		return new CachingPhoneWordDictionary(dictionary, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * @return the phonewords of the number, which must not be modified
+	 */
+	@Override
+	public List<String> findPhonewords(String phoneNumber) {
+		String key = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		/*
+		 * The version is read before the lookup: if the dictionary changes meanwhile,
+		 * the phonewords are put under the older version and dropped by the next
+		 * lookup, they are never served as the phonewords of the newer one
+		 */
+		long lookupVersion = dictionary.getVersion();
+		List<String> phonewords = get(lookupVersion, key);
+		if (phonewords == null) {
+			phonewords = Collections.unmodifiableList(new ArrayList<>(dictionary.findPhonewords(key)));
+			put(lookupVersion, key, phonewords);
+		}
+		return phonewords;
+	}
+
+	/**
+	 * The numbers not cached yet are looked up by a single batch of the
+	 * dictionary, and cached
+	 */
+	@Override
+	public List<List<String>> findPhonewordsBatch(Collection<String> phoneNumbers) {
+		long lookupVersion = dictionary.getVersion();
+		List<List<String>> results = new ArrayList<>(phoneNumbers.size());
+		List<String> missingKeys = new ArrayList<>();
+		List<Integer> missingIndexes = new ArrayList<>();
+		for (String phoneNumber : phoneNumbers) {
+			String key = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+			List<String> phonewords = get(lookupVersion, key);
+			if (phonewords == null) {
+				missingKeys.add(key);
+				missingIndexes.add(results.size());
+			}
+			results.add(phonewords);
+		}
+
+		if (!missingKeys.isEmpty()) {
+			List<List<String>> found = dictionary.findPhonewordsBatch(missingKeys);
+			for (int i = 0; i < missingKeys.size(); i++) {
+				List<String> phonewords = Collections.unmodifiableList(new ArrayList<>(found.get(i)));
+				put(lookupVersion, missingKeys.get(i), phonewords);
+				results.set(missingIndexes.get(i), phonewords);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * The blocks are not cached, their numbers are seldom looked up again one by
+	 * one
+	 */
+	@Override
+	public Map<String, List<String>> findPhonewordsInRange(String firstNumber, String lastNumber) {
+		return dictionary.findPhonewordsInRange(firstNumber, lastNumber);
+	}
+
+	@Override
+	public List<String> findPhonewords(String phoneNumber, long offset, int limit) {
+		List<String> phonewords = getCached(phoneNumber);
+		if (phonewords == null) {
+			return dictionary.findPhonewords(phoneNumber, offset, limit);
+		}
+		if (offset < 0 || limit < 0) {
+			String errMsg = String.format("Invalid page - offset [%d], limit [%d]", offset, limit);
+			throw new IllegalArgumentException(errMsg);
+		}
+		int from = (int) Math.min(offset, phonewords.size());
+		int to = (int) Math.min((long) from + limit, phonewords.size());
+		return new ArrayList<>(phonewords.subList(from, to));
+	}
+
+	/**
+	 * A cached result is complete: it is cut to the maximum number of results, the
+	 * time budget and the cancellation have nothing left to stop
+	 */
+	@Override
+	public QueryResult findPhonewords(String phoneNumber, QueryOptions options) {
+		List<String> phonewords = getCached(phoneNumber);
+		if (phonewords == null) {
+			return dictionary.findPhonewords(phoneNumber, options);
+		}
+		if (phonewords.size() > options.getMaxResults()) {
+			return new QueryResult(new ArrayList<>(phonewords.subList(0, options.getMaxResults())),
+					QueryResult.Status.MAX_RESULTS_REACHED);
+		}
+		return new QueryResult(new ArrayList<>(phonewords), QueryResult.Status.COMPLETE);
+	}
+
+	@Override
+	public Stream<String> streamPhonewords(String phoneNumber) {
+		List<String> phonewords = getCached(phoneNumber);
+		return phonewords != null ? phonewords.stream() : dictionary.streamPhonewords(phoneNumber);
+	}
+
+	@Override
+	public BigInteger countPhonewords(String phoneNumber) {
+		List<String> phonewords = getCached(phoneNumber);
+		return phonewords != null ? BigInteger.valueOf(phonewords.size()) : dictionary.countPhonewords(phoneNumber);
+	}
+
+	@Override
+	public List<String> findTopPhonewords(String phoneNumber, int k) {
+		return dictionary.findTopPhonewords(phoneNumber, k);
+	}
+
+	@Override
+	public List<String> findTopPhrases(String phoneNumber, int k, int beamWidth) {
+		return dictionary.findTopPhrases(phoneNumber, k, beamWidth);
+	}
+
+	/**
+	 * The sessions are not cached, each keystroke only costs the new character
+	 */
+	@Override
+	public PhonewordSession newSession() {
+		return dictionary.newSession();
+	}
+
+	@Override
+	public void importFromFile(File f) throws IOException {
+		dictionary.importFromFile(f);
+	}
+
+	@Override
+	public long getVersion() {
+		return dictionary.getVersion();
+	}
+
+	@Override
+	public void compileToFile(File f) throws IOException {
+		dictionary.compileToFile(f);
+	}
+
+	/**
+	 * @return the number of lookups served from the cache
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups passed on to the dictionary
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the estimated size of the phonewords held
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * @param phoneNumber
+	 * @return the cached phonewords of the number, null if they are not cached
+	 */
+	private List<String> getCached(String phoneNumber) {
+		return get(dictionary.getVersion(), StringUtils.removeSpacesAndPunctuations(phoneNumber));
+	}
+
+	private synchronized List<String> get(long lookupVersion, String key) {
+		if (!checkVersion(lookupVersion)) {
+			return null;
+		}
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.phonewords;
+	}
+
+	private synchronized void put(long lookupVersion, String key, List<String> phonewords) {
+		long entryBytes = estimateBytes(key, phonewords);
+		if (!checkVersion(lookupVersion) || entryBytes > maxBytes) {
+			return;
+		}
+		Entry previous = entries.put(key, new Entry(phonewords, entryBytes));
+		bytes += entryBytes - (previous == null ? 0 : previous.bytes);
+
+		Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+		while (bytes > maxBytes && leastRecentlyUsed.hasNext()) {
+			bytes -= leastRecentlyUsed.next().bytes;
+			leastRecentlyUsed.remove();
+		}
+	}
+
+	/**
+	 * Must be called holding the lock of this. The entries of an older version of
+	 * the dictionary are dropped, a lookup of an older version bypasses the cache.
+	 * 
+	 * @param lookupVersion
+	 * @return false if the version is older than the one of the entries
+	 */
+	private boolean checkVersion(long lookupVersion) {
+		if (lookupVersion > version) {
+			clear();
+			version = lookupVersion;
+		}
+		return lookupVersion == version;
+	}
+
+	/**
+	 * @param key
+	 * @param phonewords
+	 * @return the estimated size of an entry, 2 bytes per character
+	 */
+	static long estimateBytes(String key, List<String> phonewords) {
+		long size = STRING_OVERHEAD_BYTES + 2L * key.length();
+		for (String phoneword : phonewords) {
+			size += STRING_OVERHEAD_BYTES + 2L * phoneword.length();
+		}
+		return size;
+	}
+
+	private static final class Entry {
+		final List<String> phonewords;
+		final long bytes;
+
+		Entry(List<String> phonewords, long bytes) {
+			this.phonewords = phonewords;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -0,0 +1,520 @@
+package bgl.challenge.phoneword.components;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * @formatter:off
+ *
+ * Reads and writes the binary form of a dictionary, so that a word list only
+ * needs to be parsed and encoded once (see the -compile command line option).
+ *
+ * Layout, big endian:
+ *
+ * header (HEADER_SIZE bytes)
+ *   int    MAGIC
+ *   int    FORMAT_VERSION
+ *   int    shortest word length
+ *   int    number of packed keys
+ *   int    number of unpackable keys
+ *   int    number of words
+ *   int    size of the word blob in bytes
+ *   int    size of the unpackable keys section in bytes
+ *   long   CRC32 of everything after the header
+ *   byte[26] keypad layout, the digit of each letter from 'a' to 'z'
+ * body
+ *   long[] packed keys, sorted ascending
+ *   byte[] unpackable keys, each one a short length followed by its digits,
+ *          padded to a multiple of 4 bytes
+ *   int[]  the first word id of each key (packed keys first), followed by the
+ *          number of words
+ *   int[]  the offset of each word in the blob, followed by the blob size
+ *   byte[] the words, UTF-8
+ *
+ * Every section has a fixed width per entry, so the file can also be served
+ * straight from a memory mapping (see MappedWordIndex). Each section is
+ * limited to 2GB, the whole file is not.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class CompiledDictionaryFormat {
+
+	/**
+	 * "PWDC"
+	 */
+	public static final int MAGIC = 0x50574443;
+
+	public static final int FORMAT_VERSION = 1;
+
+	public static final int HEADER_SIZE = 72;
+
+	private static final int KEYPAD_LAYOUT_OFFSET = 40;
+
+	private static final int KEYPAD_LAYOUT_SIZE = 26;
+
+	/**
+	 * Checking whether a file is a compiled dictionary rather than a word list
+	 *
+	 * @param f
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean isCompiledDictionary(File f) throws IOException {
+		if (f.length() < HEADER_SIZE) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+				// keep reading until the magic number is complete
+			}
+			magic.flip();
+			return magic.remaining() == 4 && magic.getInt() == MAGIC;
+		}
+	}
+
+	/**
+	 * Write a dictionary into a file
+	 *
+	 * @param f
+	 * @param index
+	 *            the words of the dictionary
+	 * @param shortestWordLength
+	 * @param keypadLayout
+	 *            the digit of each letter from 'a' to 'z'
+	 * @throws IOException
+	 */
+	public static void write(File f, WordIndex index, int shortestWordLength, byte[] keypadLayout)
+			throws IOException {
+		/*
+		 * Sort the buckets: packed keys ascending, then unpackable keys
+		 */
+		int noOfBuckets = index.getNoOfBuckets();
+		Integer[] buckets = new Integer[noOfBuckets];
+		int noOfPackedKeys = 0;
+		for (int bucket = 0; bucket < noOfBuckets; bucket++) {
+			buckets[bucket] = bucket;
+			if (index.getKey(bucket) != PackedDigits.NOT_PACKABLE) {
+				noOfPackedKeys++;
+			}
+		}
+		Arrays.sort(buckets, (bucket1, bucket2) -> {
+			long key1 = index.getKey(bucket1);
+			long key2 = index.getKey(bucket2);
+			boolean unpackable1 = key1 == PackedDigits.NOT_PACKABLE;
+			boolean unpackable2 = key2 == PackedDigits.NOT_PACKABLE;
+			if (unpackable1 != unpackable2) {
+				return unpackable1 ? 1 : -1;
+			}
+			if (unpackable1) {
+				return index.getEncodedNumber(bucket1).compareTo(index.getEncodedNumber(bucket2));
+			}
+			return Long.compare(key1, key2);
+		});
+		int noOfUnpackableKeys = noOfBuckets - noOfPackedKeys;
+
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			/*
+			 * Stream the body section by section after room for the header; the header
+			 * is written last, once the sizes and the checksum are known
+			 */
+			SectionWriter body = new SectionWriter(channel, HEADER_SIZE);
+			for (int i = 0; i < noOfPackedKeys; i++) {
+				body.putLong(index.getKey(buckets[i]));
+			}
+
+			long unpackableKeysStart = body.getPosition();
+			for (int i = noOfPackedKeys; i < noOfBuckets; i++) {
+				byte[] digits = index.getEncodedNumber(buckets[i]).getBytes(StandardCharsets.US_ASCII);
+				body.putShort((short) digits.length);
+				body.put(digits);
+			}
+			while ((body.getPosition() - unpackableKeysStart) % 4 != 0) {
+				body.put(new byte[] { 0 });
+			}
+			long unpackableKeysSize = body.getPosition() - unpackableKeysStart;
+
+			int firstWordId = 0;
+			for (Integer bucket : buckets) {
+				body.putInt(firstWordId);
+				firstWordId += index.getBucketSize(bucket);
+			}
+			body.putInt(firstWordId);
+			int noOfWords = firstWordId;
+
+			long wordOffset = 0;
+			for (Integer bucket : buckets) {
+				for (int i = 0; i < index.getBucketSize(bucket); i++) {
+					body.putInt((int) wordOffset);
+					wordOffset += utf8Length(index.getWord(bucket, i));
+					if (wordOffset > Integer.MAX_VALUE) {
+						throw new IOException("Error: the words of the dictionary are too large to be compiled");
+					}
+				}
+			}
+			body.putInt((int) wordOffset);
+			int blobSize = (int) wordOffset;
+
+			for (Integer bucket : buckets) {
+				for (int i = 0; i < index.getBucketSize(bucket); i++) {
+					body.put(index.getWord(bucket, i).getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			body.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(FORMAT_VERSION);
+			header.putInt(shortestWordLength);
+			header.putInt(noOfPackedKeys);
+			header.putInt(noOfUnpackableKeys);
+			header.putInt(noOfWords);
+			header.putInt(blobSize);
+			header.putInt((int) unpackableKeysSize);
+			header.putLong(body.getChecksum());
+			header.put(keypadLayout, 0, KEYPAD_LAYOUT_SIZE);
+			header.position(HEADER_SIZE);
+			header.flip();
+			long position = 0;
+			while (header.hasRemaining()) {
+				position += channel.write(header, position);
+			}
+		}
+	}
+
+	/**
+	 * Read a dictionary written by {@link #write}
+	 *
+	 * @param f
+	 * @param expectedKeypadLayout
+	 *            the keypad layout of the encoder which is going to use the
+	 *            dictionary
+	 * @return
+	 * @throws IOException
+	 *             if the file is not a compiled dictionary, was written by
+	 *             another version or for another keypad layout, or is corrupted
+	 */
+	public static Contents read(File f, byte[] expectedKeypadLayout) throws IOException {
+		if (!f.exists()) {
+			String errMsg = String.format(
+					"Error: failed to load the compiled dictionary - File not found - [%s] doesn't exist",
+					f.getAbsoluteFile());
+			throw new FileNotFoundException(errMsg);
+		}
+
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(
+						String.format("Error: the compiled dictionary [%s] is too large to be read", f.getName()));
+			}
+			// one bulk read of the whole file
+			buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// keep reading until the whole file is in the buffer
+			}
+			buffer.flip();
+		}
+
+		Header header = Header.read(buffer, f.getName(), expectedKeypadLayout);
+		if (buffer.limit() != header.getFileSize()) {
+			throw new IOException(String.format("Error: the compiled dictionary [%s] is truncated", f.getName()));
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), HEADER_SIZE, buffer.limit() - HEADER_SIZE);
+		if (crc.getValue() != header.checksum) {
+			throw new IOException(String.format("Error: the compiled dictionary [%s] is corrupted", f.getName()));
+		}
+
+		/*
+		 * Bulk read each section
+		 */
+		int noOfKeys = header.noOfPackedKeys + header.noOfUnpackableKeys;
+		long[] keys = new long[noOfKeys];
+		buffer.position((int) header.getPackedKeysOffset());
+		buffer.asLongBuffer().get(keys, 0, header.noOfPackedKeys);
+
+		String[] unpackableNumbers = new String[noOfKeys];
+		buffer.position((int) header.getUnpackableKeysOffset());
+		for (int i = header.noOfPackedKeys; i < noOfKeys; i++) {
+			keys[i] = PackedDigits.NOT_PACKABLE;
+			unpackableNumbers[i] = readUnpackableKey(buffer);
+		}
+
+		int[] bucketWordOffsets = new int[noOfKeys + 1];
+		buffer.position((int) header.getBucketWordOffsetsOffset());
+		buffer.asIntBuffer().get(bucketWordOffsets);
+
+		int[] wordOffsets = new int[header.noOfWords + 1];
+		buffer.position((int) header.getWordOffsetsOffset());
+		buffer.asIntBuffer().get(wordOffsets);
+
+		String[] words = new String[header.noOfWords];
+		int blobOffset = (int) header.getBlobOffset();
+		for (int i = 0; i < header.noOfWords; i++) {
+			words[i] = new String(buffer.array(), blobOffset + wordOffsets[i], wordOffsets[i + 1] - wordOffsets[i],
+					StandardCharsets.UTF_8);
+		}
+
+		PackedWordIndex index = PackedWordIndex.fromBuckets(keys, unpackableNumbers, bucketWordOffsets, words);
+		return new Contents(index, header.shortestWordLength);
+	}
+
+	/**
+	 * Read and validate the header of a compiled dictionary, without reading the
+	 * body
+	 *
+	 * @param channel
+	 * @param fileName
+	 * @param expectedKeypadLayout
+	 * @return
+	 * @throws IOException
+	 */
+	static Header readHeader(FileChannel channel, String fileName, byte[] expectedKeypadLayout) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+		long position = 0;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				break;
+			}
+			position += read;
+		}
+		buffer.flip();
+		Header header = Header.read(buffer, fileName, expectedKeypadLayout);
+		if (channel.size() != header.getFileSize()) {
+			throw new IOException(String.format("Error: the compiled dictionary [%s] is truncated", fileName));
+		}
+		return header;
+	}
+
+	/**
+	 * Compute the checksum of the body by streaming it, and compare it with the
+	 * one in the header
+	 *
+	 * @param channel
+	 * @param header
+	 * @param fileName
+	 * @throws IOException
+	 */
+	static void verifyChecksum(FileChannel channel, Header header, String fileName) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocate(SectionWriter.BUFFER_SIZE);
+		long position = HEADER_SIZE;
+		while (position < header.getFileSize()) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				break;
+			}
+			crc.update(buffer.array(), 0, read);
+			position += read;
+		}
+		if (crc.getValue() != header.checksum) {
+			throw new IOException(String.format("Error: the compiled dictionary [%s] is corrupted", fileName));
+		}
+	}
+
+	/**
+	 * Read one entry of the unpackable keys section at the position of the buffer
+	 *
+	 * @param buffer
+	 * @return the encoded number
+	 */
+	static String readUnpackableKey(ByteBuffer buffer) {
+		byte[] digits = new byte[buffer.getShort()];
+		buffer.get(digits);
+		return new String(digits, StandardCharsets.US_ASCII);
+	}
+
+	private static int utf8Length(String word) {
+		int length = 0;
+		for (int i = 0; i < word.length(); i++) {
+			char c = word.charAt(i);
+			if (c < 0x80) {
+				length += 1;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c)) {
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the body through a small buffer, keeping the checksum up to date
+	 */
+	static class SectionWriter {
+		static final int BUFFER_SIZE = 64 * 1024;
+
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		private CRC32 crc = new CRC32();
+		private long position;
+
+		SectionWriter(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		void putLong(long value) throws IOException {
+			ensureRemaining(8);
+			buffer.putLong(value);
+		}
+
+		void putInt(int value) throws IOException {
+			ensureRemaining(4);
+			buffer.putInt(value);
+		}
+
+		void putShort(short value) throws IOException {
+			ensureRemaining(2);
+			buffer.putShort(value);
+		}
+
+		void put(byte[] bytes) throws IOException {
+			int offset = 0;
+			while (offset < bytes.length) {
+				ensureRemaining(1);
+				int length = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, length);
+				offset += length;
+			}
+		}
+
+		/**
+		 * @return the position in the file of the next byte written
+		 */
+		long getPosition() {
+			return position + buffer.position();
+		}
+
+		long getChecksum() {
+			return crc.getValue();
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.array(), 0, buffer.limit());
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			buffer.clear();
+		}
+
+		private void ensureRemaining(int size) throws IOException {
+			if (buffer.remaining() < size) {
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * The fixed size part of a compiled dictionary, and the offsets of the
+	 * sections derived from it
+	 */
+	static class Header {
+		int shortestWordLength;
+		int noOfPackedKeys;
+		int noOfUnpackableKeys;
+		int noOfWords;
+		int blobSize;
+		int unpackableKeysSize;
+		long checksum;
+
+		/**
+		 * Read and validate the header at the beginning of the buffer
+		 */
+		static Header read(ByteBuffer buffer, String fileName, byte[] expectedKeypadLayout) throws IOException {
+			if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+				throw new IOException(String.format("Error: [%s] is not a compiled dictionary", fileName));
+			}
+			int version = buffer.getInt(4);
+			if (version != FORMAT_VERSION) {
+				throw new IOException(String.format(
+						"Error: the compiled dictionary [%s] has version %d, expected version %d - please compile it again",
+						fileName, version, FORMAT_VERSION));
+			}
+			byte[] keypadLayout = new byte[KEYPAD_LAYOUT_SIZE];
+			for (int i = 0; i < KEYPAD_LAYOUT_SIZE; i++) {
+				keypadLayout[i] = buffer.get(KEYPAD_LAYOUT_OFFSET + i);
+			}
+			if (!Arrays.equals(keypadLayout, expectedKeypadLayout)) {
+				throw new IOException(String.format(
+						"Error: the compiled dictionary [%s] was compiled for another keypad layout", fileName));
+			}
+
+			Header header = new Header();
+			header.shortestWordLength = buffer.getInt(8);
+			header.noOfPackedKeys = buffer.getInt(12);
+			header.noOfUnpackableKeys = buffer.getInt(16);
+			header.noOfWords = buffer.getInt(20);
+			header.blobSize = buffer.getInt(24);
+			header.unpackableKeysSize = buffer.getInt(28);
+			header.checksum = buffer.getLong(32);
+			return header;
+		}
+
+		long getPackedKeysOffset() {
+			return HEADER_SIZE;
+		}
+
+		long getUnpackableKeysOffset() {
+			return getPackedKeysOffset() + 8L * noOfPackedKeys;
+		}
+
+		long getBucketWordOffsetsOffset() {
+			return getUnpackableKeysOffset() + unpackableKeysSize;
+		}
+
+		long getWordOffsetsOffset() {
+			return getBucketWordOffsetsOffset() + 4L * (noOfPackedKeys + noOfUnpackableKeys + 1);
+		}
+
+		long getBlobOffset() {
+			return getWordOffsetsOffset() + 4L * (noOfWords + 1);
+		}
+
+		long getFileSize() {
+			return getBlobOffset() + blobSize;
+		}
+	}
+
+	/**
+	 * What a compiled dictionary holds
+	 */
+	public static class Contents {
+		private PackedWordIndex index;
+		private int shortestWordLength;
+
+		public Contents(PackedWordIndex index, int shortestWordLength) {
+			this.index = index;
+			this.shortestWordLength = shortestWordLength;
+		}
+
+		public PackedWordIndex getIndex() {
+			return index;
+		}
+
+		public int getShortestWordLength() {
+			return shortestWordLength;
+		}
+	}
+}
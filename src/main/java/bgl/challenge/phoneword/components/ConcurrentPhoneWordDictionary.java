@@ -0,0 +1,226 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * A dictionary accepting words from many threads at once.
+ * 
+ * <p>
+ * The words are staged in a StripedWordIndexBuilder: the writers only share a
+ * read lock and the lock of the stripe of their encoded number, so they add
+ * words in parallel. Publishing a snapshot takes the write lock, which waits
+ * for the writers in progress; a lookup never waits for it though, nor
+ * publishes anything: while words are being added it keeps using the snapshot
+ * already published.
+ * </p>
+ * 
+ * <p>
+ * The staged words are published as the delta of the snapshot (see
+ * DictionarySnapshot), so publishing them builds the delta only, never the
+ * whole index. A word added alone is published by its writer unless other
+ * writers are still adding words, the last of them publishes them all.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public class ConcurrentPhoneWordDictionary extends DefaultPhoneWordDictionary {
+
+	/**
+	 * The writers share its read lock, publishing the staged words takes its
+	 * write lock
+	 */
+	final ReentrantReadWriteLock stagingLock = new ReentrantReadWriteLock();
+
+	/**
+	 * The delta of the snapshot plus the words added since it was published,
+	 * null if there is none
+	 */
+	volatile StripedWordIndexBuilder concurrentStaging;
+
+	/**
+	 * The scores set since the snapshot was published, created along with
+	 * concurrentStaging
+	 */
+	volatile Map<String, Double> concurrentStagingScores;
+
+	public ConcurrentPhoneWordDictionary(WordEncoder wordEncoder, SyntaxChecker phonewordSyntaxChecker,
+			PhonewordFormatter phonewordFormatter) {
+		super(wordEncoder, phonewordSyntaxChecker, phonewordFormatter);
+	}
+
+	public ConcurrentPhoneWordDictionary(WordEncoder wordEncoder, SyntaxChecker phonewordSyntaxChecker,
+			PhonewordFormatter phonewordFormatter, Supplier<SubStringMatcher> subStringMatcherFactory) {
+		super(wordEncoder, phonewordSyntaxChecker, phonewordFormatter, subStringMatcherFactory);
+	}
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @return
+	 */
+	public static ConcurrentPhoneWordDictionary getInstance() {
+		WordEncoder wordEncoder = new PhoneWordEncoder();
+		SyntaxChecker phonewordSyntaxChecker = new PhonewordSyntaxChecker();
+		PhonewordFormatter phonewordFormatter = new DefaultPhonewordFormatter();
+		ConcurrentPhoneWordDictionary instance = new ConcurrentPhoneWordDictionary(wordEncoder,
+				phonewordSyntaxChecker, phonewordFormatter);
+		return instance;
+	}
+
+	@Override
+	void stageWord(String encodedNumber, String word) {
+		stagingLock.readLock().lock();
+		try {
+			concurrentStagingBuilder().add(encodedNumber, word);
+		} finally {
+			stagingLock.readLock().unlock();
+		}
+		tryFlush();
+	}
+
+	@Override
+	void stageScoredWord(String encodedNumber, String word, double score) {
+		stagingLock.readLock().lock();
+		try {
+			concurrentStagingBuilder().add(encodedNumber, word);
+			concurrentStagingScores.put(word, score);
+		} finally {
+			stagingLock.readLock().unlock();
+		}
+		tryFlush();
+	}
+
+	/**
+	 * The words are published together: no snapshot is published while the batch
+	 * is being added
+	 */
+	@Override
+	public int addNewWords(Collection<String> words) {
+		int noOfWordsAdded = 0;
+		stagingLock.readLock().lock();
+		try {
+			for (String word : words) {
+				if (addNewWord(word)) {
+					noOfWordsAdded++;
+				}
+			}
+		} finally {
+			stagingLock.readLock().unlock();
+		}
+		flush();
+		return noOfWordsAdded;
+	}
+
+	@Override
+	void publishDelta(WordIndex delta, Map<String, Double> deltaScores) {
+		stagingLock.readLock().lock();
+		try {
+			concurrentStagingBuilder().addAll(delta);
+			concurrentStagingScores.putAll(deltaScores);
+		} finally {
+			stagingLock.readLock().unlock();
+		}
+		flush();
+	}
+
+	/**
+	 * Publish the words added so far, after waiting for the writers in progress
+	 */
+	public void flush() {
+		stagingLock.writeLock().lock();
+		try {
+			publishConcurrentStaging();
+		} finally {
+			stagingLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Publish the words added so far unless writers are still adding words, the
+	 * last of them publishes them. A batch in progress (see addNewWords) always
+	 * publishes its words itself.
+	 */
+	private void tryFlush() {
+		if (stagingLock.writeLock().tryLock()) {
+			try {
+				publishConcurrentStaging();
+			} finally {
+				stagingLock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Replacing all words also discards the words staged meanwhile
+	 */
+	@Override
+	void publish(WordIndex index, SubStringMatcher subStringMatcher, BitSet wordLengths, WordScores wordScores) {
+		stagingLock.writeLock().lock();
+		try {
+			concurrentStaging = null;
+			concurrentStagingScores = null;
+			super.publish(index, subStringMatcher, wordLengths, wordScores);
+		} finally {
+			stagingLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Must be called holding the write lock of stagingLock
+	 */
+	private void publishConcurrentStaging() {
+		StripedWordIndexBuilder builder = concurrentStaging;
+		if (builder == null) {
+			return;
+		}
+		writeLock.lock();
+		try {
+			PackedWordIndex delta = builder.build();
+			DictionarySnapshot current = snapshot.get();
+			WordScores deltaScores = current.getDeltaScores().with(concurrentStagingScores);
+			concurrentStaging = null;
+			concurrentStagingScores = null;
+			// the index of the current snapshot is shared, not copied
+			snapshot.set(mergeDeltaIfTooLarge(current.withDelta(delta,
+					DictionarySnapshot.newSubStringMatcher(delta, subStringMatcherFactory), builder.getWordLengths(),
+					deltaScores, current.getVersion() + 1)));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Must be called holding the read lock of stagingLock
+	 * 
+	 * @return the builder of the next snapshot, starting from a copy of the delta
+	 *         of the current one
+	 */
+	private StripedWordIndexBuilder concurrentStagingBuilder() {
+		StripedWordIndexBuilder builder = concurrentStaging;
+		if (builder == null) {
+			writeLock.lock();
+			try {
+				builder = concurrentStaging;
+				if (builder == null) {
+					builder = new StripedWordIndexBuilder();
+					WordIndex delta = snapshot.get().getDeltaIndex();
+					if (delta != null) {
+						builder.addAll(delta);
+					}
+					// visible to the writers before the builder is
+					concurrentStagingScores = new ConcurrentHashMap<>();
+					concurrentStaging = builder;
+				}
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		return builder;
+	}
+}
@@ -1,23 +1,34 @@
 package bgl.challenge.phoneword.components;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import bgl.challenge.phoneword.exception.UnknownCharacterException;
 import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
 import bgl.challenge.phoneword.models.SubString;
 import bgl.challenge.phoneword.utils.StringUtils;
 
@@ -30,21 +41,71 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	PhonewordFormatter phonewordFormatter;
 
 	/**
-	 * Key is the encoded number, value is the corresponding words in dictionary
+	 * The words served to the lookups: the encoded numbers and their words, the
+	 * matcher discovering the encoded numbers within a phone number, and the
+	 * shortest word length. A lookup reads it once and finishes with the same
+	 * snapshot, whatever is loaded meanwhile.
 	 */
-	Map<String, List<String>> dictionary;
+	final AtomicReference<DictionarySnapshot> snapshot = new AtomicReference<>();
 
 	/**
-	 * A pivotal recording the shortest word length
+	 * The delta of the batch of words being added (see addNewWords), null
+	 * outside of a batch. A word added alone is published right away, on top of
+	 * the index of the current snapshot. Guarded by writeLock.
 	 */
-	int shortestWordLength = 0;
+	DictionarySnapshot.Builder staging;
+
+	/**
+	 * The least number of words of a delta merged into the index (see
+	 * maxDeltaWords)
+	 */
+	static final int MIN_MAX_DELTA_WORDS = 256;
+
+	/**
+	 * Serializes the changes of the dictionary. The lookups never wait for it: if
+	 * a change is in progress they use the snapshot already published.
+	 */
+	final ReentrantLock writeLock = new ReentrantLock();
+
+	/**
+	 * Creates an empty matcher whenever the dictionary is (re)loaded
+	 */
+	Supplier<SubStringMatcher> subStringMatcherFactory;
+
+	/**
+	 * The segmentations of the suffixes of the numbers looked up, shared by the
+	 * lookups of numbers ending the same way
+	 */
+	final SegmentationCache segmentationCache = SegmentationCache.getInstance();
+
+	/**
+	 * The number of sorted numbers of a batch looked up by the same MatchCursor
+	 */
+	static final int BATCH_RUN_SIZE = 4096;
+
+	/**
+	 * Notified of the progress of importFromFile, null if nobody listens
+	 */
+	ImportProgressListener importProgressListener;
 
 	public DefaultPhoneWordDictionary(WordEncoder wordEncoder, SyntaxChecker phonewordSyntaxChecker,
 			PhonewordFormatter phonewordFormatter) {
+		this(wordEncoder, phonewordSyntaxChecker, phonewordFormatter, DigitTrie::new);
+	}
+
+	/**
+	 * @param subStringMatcherFactory
+	 *            selects the engine used to discover the substrings of a phone
+	 *            number which exist in the dictionary, e.g. DigitTrie::new or
+	 *            AhoCorasickMatcher::new
+	 */
+	public DefaultPhoneWordDictionary(WordEncoder wordEncoder, SyntaxChecker phonewordSyntaxChecker,
+			PhonewordFormatter phonewordFormatter, Supplier<SubStringMatcher> subStringMatcherFactory) {
 		this.wordEncoder = wordEncoder;
 		this.phonewordSyntaxChecker = phonewordSyntaxChecker;
 		this.phonewordFormatter = phonewordFormatter;
-		dictionary = new HashMap<>();
+		this.subStringMatcherFactory = subStringMatcherFactory;
+		snapshot.set(DictionarySnapshot.empty(subStringMatcherFactory));
 	}
 
 	/**
@@ -53,11 +114,22 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 * @return
 	 */
 	public static DefaultPhoneWordDictionary getInstance() {
+		return getInstance(DigitTrie::new);
+	}
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @param subStringMatcherFactory
+	 *            the substring matching engine
+	 * @return
+	 */
+	public static DefaultPhoneWordDictionary getInstance(Supplier<SubStringMatcher> subStringMatcherFactory) {
 		WordEncoder wordEncoder = new PhoneWordEncoder();
 		SyntaxChecker phonewordSyntaxChecker = new PhonewordSyntaxChecker();
 		PhonewordFormatter phonewordFormatter = new DefaultPhonewordFormatter();
 		DefaultPhoneWordDictionary instance = new DefaultPhoneWordDictionary(wordEncoder, phonewordSyntaxChecker,
-				phonewordFormatter);
+				phonewordFormatter, subStringMatcherFactory);
 		return instance;
 	}
 
@@ -69,40 +141,44 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 *         dictionary
 	 */
 	public boolean addNewWord(String word) {
+		return addWord(word, null);
+	}
+
+	/**
+	 * Add a new word and its score into the dictionary
+	 * 
+	 * @param word
+	 * @param score
+	 *            see WordScores
+	 * @return true if the given word was successfully encoded and added into the
+	 *         dictionary
+	 */
+	public boolean addNewWord(String word, double score) {
+		return addWord(word, score);
+	}
+
+	/**
+	 * @param word
+	 * @param score
+	 *            null to leave the score of the word as it is
+	 * @return
+	 */
+	private boolean addWord(String word, Double score) {
 		// Not accept null or empty string
 		if (word == null || word.isEmpty()) {
 			return false;
 		}
 
-		if (dictionary == null) {
-			dictionary = new HashMap<String, List<String>>();
-		}
-
 		try {
 			/*
 			 * Adding the word into the dictionary
 			 */
 			word = word.toUpperCase();
 			String correspondingNumber = encodesWord(word);
-			if (!containsNumber(correspondingNumber)) {
-				List<String> words = new ArrayList<>();
-				words.add(word);
-				dictionary.put(correspondingNumber, words);
+			if (score == null) {
+				stageWord(correspondingNumber, word);
 			} else {
-				// If duplicated number, add it into the existing bucket
-				List<String> words = dictionary.get(correspondingNumber);
-				words.add(word);
-			}
-
-			/*
-			 * Monitoring and updating the shortest word length
-			 */
-			if (this.getShortestWordLength() == 0) {
-				// if it is the first word
-				setShortestWordLength(word.length());
-			} else if (word.length() < this.shortestWordLength) {
-				// if the new word's length is shorter
-				setShortestWordLength(word.length());
+				stageScoredWord(correspondingNumber, word, score);
 			}
 		} catch (UnknownCharacterException ex) {
 			/*
@@ -116,170 +192,672 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 		return true;
 	}
 
+	/**
+	 * Add an encoded word to the next snapshot
+	 * 
+	 * @param encodedNumber
+	 * @param word
+	 */
+	void stageWord(String encodedNumber, String word) {
+		writeLock.lock();
+		try {
+			boolean inBatch = staging != null;
+			stagingBuilder().add(encodedNumber, word);
+			if (!inBatch) {
+				publishStaging();
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Add an encoded word and its score to the next snapshot, the lookups see
+	 * either both or none of them
+	 * 
+	 * @param encodedNumber
+	 * @param word
+	 * @param score
+	 */
+	void stageScoredWord(String encodedNumber, String word, double score) {
+		writeLock.lock();
+		try {
+			boolean inBatch = staging != null;
+			DictionarySnapshot.Builder builder = stagingBuilder();
+			builder.add(encodedNumber, word);
+			builder.setScores(Collections.singletonMap(word, score));
+			if (!inBatch) {
+				publishStaging();
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Add a batch of words, e.g. a delta of the dictionary; the lookups see either
+	 * none or all of them
+	 * 
+	 * @param words
+	 * @return the number of words successfully encoded and added
+	 */
+	public int addNewWords(Collection<String> words) {
+		int noOfWordsAdded = 0;
+		writeLock.lock();
+		try {
+			// the words are staged by addNewWord and published once at the end
+			stagingBuilder();
+			for (String word : words) {
+				if (addNewWord(word)) {
+					noOfWordsAdded++;
+				}
+			}
+			publishStaging();
+		} finally {
+			staging = null;
+			writeLock.unlock();
+		}
+		return noOfWordsAdded;
+	}
+
 	/**
 	 * Find all possible phonewords of the given number
 	 */
 	@Override
 	public List<String> findPhonewords(String phoneNumber) {
+		return streamPhonewords(phoneNumber).collect(Collectors.toList());
+	}
+
+	/**
+	 * Find a page of the phonewords of the given number, in the order of
+	 * findPhonewords. The phonewords before the page are skipped by counting the
+	 * combinations of each pattern rather than by generating them, as long as the
+	 * syntax checker decides the validity from the patterns.
+	 */
+	@Override
+	public List<String> findPhonewords(String phoneNumber, long offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			String errMsg = String.format("Invalid page - offset [%d], limit [%d]", offset, limit);
+			throw new IllegalArgumentException(errMsg);
+		}
+		List<String> page = new ArrayList<>(Math.min(limit, 64));
+		if (limit == 0) {
+			return page;
+		}
+
+		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+		final boolean decidedByPattern = phonewordSyntaxChecker.isDecidedByPattern();
+		final StringBuilder sink = new StringBuilder();
+
+		long toSkip = offset;
+		for (Pattern pattern : findAllValidPatterns(currentSnapshot, formatedPhoneNumber)) {
+			if (!isValidPattern(pattern)) {
+				continue;
+			}
+			PhonewordIterator possibleWords = new PhonewordIterator(formatedPhoneNumber, pattern,
+					findBucketWords(currentSnapshot, formatedPhoneNumber, pattern));
+			if (decidedByPattern && toSkip > 0) {
+				/*
+				 * Every combination of the pattern is a phoneword, skip the whole pattern or
+				 * jump straight to the first phoneword of the page
+				 */
+				long noOfPhonewords = possibleWords.size();
+				if (toSkip >= noOfPhonewords) {
+					toSkip -= noOfPhonewords;
+					continue;
+				}
+				possibleWords.skip(toSkip);
+				toSkip = 0;
+			}
+
+			while (formatNextPhoneword(possibleWords, pattern, sink)) {
+				if (toSkip > 0) {
+					toSkip--;
+					continue;
+				}
+				page.add(sink.toString());
+				if (page.size() == limit) {
+					return page;
+				}
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Find the phonewords of the given number in the order of findPhonewords,
+	 * until the time budget runs out, the maximum number of results is reached or
+	 * the query is cancelled. The limits are checked while the patterns are
+	 * enumerated and while their words are expanded, so a number with a huge
+	 * number of patterns or combinations cannot hold the query past its budget.
+	 * Each pattern is expanded as soon as it is found, so a query stopped while
+	 * the patterns are enumerated still returns the phonewords reached.
+	 */
+	@Override
+	public QueryResult findPhonewords(String phoneNumber, QueryOptions options) {
+		final QueryBudget budget = new QueryBudget(options);
+		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+		final StringBuilder sink = new StringBuilder();
+		List<String> phonewords = new ArrayList<>(Math.min(budget.getMaxResults(), 64));
+
+		List<SubString> subStrings = currentSnapshot.findAllSubStrings(formatedPhoneNumber);
+		Consumer<Pattern> expand = pattern -> {
+			if (!isValidPattern(pattern)) {
+				return;
+			}
+			PhonewordIterator possibleWords = new PhonewordIterator(formatedPhoneNumber, pattern,
+					findBucketWords(currentSnapshot, formatedPhoneNumber, pattern));
+			while (formatNextPhoneword(possibleWords, pattern, sink, budget::isExhausted)) {
+				if (!budget.hasRoomFor(phonewords.size())) {
+					// one more phoneword than allowed, the budget now stops the walk
+					return;
+				}
+				phonewords.add(sink.toString());
+			}
+		};
+		new PatternSegmenter(formatedPhoneNumber, subStrings).forEachPattern(segmentationCache,
+				currentSnapshot.getVersion(), expand, budget::isExhausted);
+		return new QueryResult(phonewords, budget.getStatus());
+	}
+
+	/**
+	 * The phonewords of the given number, generated one at a time as the stream is
+	 * consumed
+	 */
+	@Override
+	public Stream<String> streamPhonewords(String phoneNumber) {
 		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
 		/*
-		 * First find all possible patterns
+		 * The whole lookup uses the same snapshot
 		 */
-		List<Pattern> patterns = findAllValidPatterns(formatedPhoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
 
 		/*
-		 * find all phonewords based on the patterns and the words in the dictionary
+		 * First find all possible patterns, dropping the ones which cannot make a valid
+		 * phoneword whatever the words picked
 		 */
-		List<String> possibleWords = patterns.stream().flatMap(pattern -> {
-			// for each pattern construct possible words
-			List<String> possibleWordsPerPattern = constructPhonewordsPerPattern(formatedPhoneNumber, pattern);
-			return possibleWordsPerPattern.stream();
-		}).collect(Collectors.toList());
+		List<Pattern> patterns = findAllValidPatterns(currentSnapshot, formatedPhoneNumber);
 
-		return possibleWords;
+		/*
+		 * then generate the phonewords of each pattern from the words in the dictionary
+		 */
+		return streamPhonewords(currentSnapshot, formatedPhoneNumber, patterns);
 	}
 
 	/**
-	 * Construct all possible phonewords of the given pattern based on the words in
-	 * dictionary
+	 * Find the phonewords of many numbers at once. The numbers are sorted, so that
+	 * the numbers sharing a prefix follow each other: the substrings of the
+	 * prefix are matched once, by a MatchCursor popped back to the prefix and
+	 * pushed the rest of the next number only. The same number given twice is
+	 * looked up once.
 	 * 
-	 * @param originalPhoneNumber
-	 * @param subStrings
-	 * @return
+	 * The sorted numbers are split into runs of BATCH_RUN_SIZE, looked up in
+	 * parallel, each one with its own cursor.
 	 */
-	List<String> constructPhonewordsPerPattern(String originalPhoneNumber, Pattern pattern) {
-		/*
-		 * Create a list to save possible words.
-		 */
-		final List<String> possibleWordsOfTheGivenPattern = calculateNumberOfPossibleWords(pattern);
+	@Override
+	public List<List<String>> findPhonewordsBatch(Collection<String> phoneNumbers) {
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+		final String[] formatedPhoneNumbers = phoneNumbers.stream().map(StringUtils::removeSpacesAndPunctuations)
+				.toArray(String[]::new);
+		final int[] order = IntStream.range(0, formatedPhoneNumbers.length).boxed()
+				.sorted(Comparator.comparing(i -> formatedPhoneNumbers[i])).mapToInt(Integer::intValue).toArray();
 
-		/*
-		 * Composing possible words by replacing dictionary words with the substrings of
-		 * of the given Pattern
-		 */
-		pattern.stream().forEach(subString -> {
-			String encodedString = subString.getValue();
-			List<String> dictionaryWords = dictionary.get(encodedString);
-			for (int i = 0; i < possibleWordsOfTheGivenPattern.size();) {
-				for (int j = 0; j < dictionaryWords.size(); j++, i++) {
-					String correspondingWord = dictionaryWords.get(j);
-					String newStr = this.replaceSubString(possibleWordsOfTheGivenPattern.get(i), subString,
-							correspondingWord);
-					possibleWordsOfTheGivenPattern.set(i, newStr);
-				}
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		final List<String>[] results = new List[formatedPhoneNumbers.length];
+		int noOfRuns = (order.length + BATCH_RUN_SIZE - 1) / BATCH_RUN_SIZE;
+		IntStream.range(0, noOfRuns).parallel()
+				.forEach(run -> findPhonewordsOfSortedNumbers(currentSnapshot, formatedPhoneNumbers, order,
+						run * BATCH_RUN_SIZE, Math.min(order.length, (run + 1) * BATCH_RUN_SIZE), results));
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * @param currentSnapshot
+	 * @param formatedPhoneNumbers
+	 * @param order
+	 *            the indexes of the numbers, sorted by number
+	 * @param from
+	 *            the first index of order to look up
+	 * @param to
+	 *            exclusive
+	 * @param results
+	 *            receives the phonewords of each number at its index
+	 */
+	private void findPhonewordsOfSortedNumbers(DictionarySnapshot currentSnapshot, String[] formatedPhoneNumbers,
+			int[] order, int from, int to, List<String>[] results) {
+		MatchCursor cursor = currentSnapshot.newMatchCursor();
+		String previous = null;
+		for (int i = from; i < to; i++) {
+			String phoneNumber = formatedPhoneNumbers[order[i]];
+			if (phoneNumber.equals(previous)) {
+				results[order[i]] = new ArrayList<>(results[order[i - 1]]);
+				continue;
 			}
-		});
+
+			/*
+			 * Keep the matching state of the prefix shared with the previous number
+			 */
+			int common = previous == null ? 0 : commonPrefixLength(previous, phoneNumber);
+			while (cursor.depth() > common) {
+				cursor.pop();
+			}
+			for (int j = cursor.depth(); j < phoneNumber.length(); j++) {
+				cursor.push(phoneNumber.charAt(j));
+			}
+
+			List<Pattern> patterns = findAllValidPatterns(currentSnapshot, phoneNumber,
+					cursor.getSubStrings(phoneNumber), () -> false);
+			results[order[i]] = streamPhonewords(currentSnapshot, phoneNumber, patterns)
+					.collect(Collectors.toList());
+			previous = phoneNumber;
+		}
+	}
+
+	/**
+	 * Find the phonewords of every number of a block by walking the block as a
+	 * tree of digits: the prefix shared by all numbers is matched once, then
+	 * each digit position branches over the digits allowed by the bounds, and a
+	 * MatchCursor keeps the matching state of each branch for the branches under
+	 * it. Each number only costs its last digit of matching, plus the
+	 * construction of its phonewords.
+	 */
+	@Override
+	public Map<String, List<String>> findPhonewordsInRange(String firstNumber, String lastNumber) {
+		final String first = StringUtils.removeSpacesAndPunctuations(firstNumber);
+		final String last = StringUtils.removeSpacesAndPunctuations(lastNumber);
+		if (first.length() != last.length() || !isDigits(first) || !isDigits(last) || first.compareTo(last) > 0) {
+			String errMsg = String.format("Invalid range of numbers [%s] to [%s]", firstNumber, lastNumber);
+			throw new IllegalArgumentException(errMsg);
+		}
+
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+		Map<String, List<String>> phonewordsByNumber = new LinkedHashMap<>();
+		MatchCursor cursor = currentSnapshot.newMatchCursor();
+		char[] number = new char[first.length()];
+
+		// the prefix shared by every number of the range
+		int common = commonPrefixLength(first, last);
+		for (int i = 0; i < common; i++) {
+			number[i] = first.charAt(i);
+			cursor.push(number[i]);
+		}
+		walkRange(currentSnapshot, cursor, number, common, first, last, true, true, phonewordsByNumber);
+		return phonewordsByNumber;
+	}
+
+	/**
+	 * Branch over the digits of the given position allowed by the range
+	 * 
+	 * @param currentSnapshot
+	 * @param cursor
+	 *            holds the digits before the position
+	 * @param number
+	 *            the number being built, up to the position
+	 * @param position
+	 * @param first
+	 * @param last
+	 * @param atFirst
+	 *            whether the digits so far are the ones of the first number
+	 * @param atLast
+	 *            whether the digits so far are the ones of the last number
+	 * @param phonewordsByNumber
+	 */
+	private void walkRange(DictionarySnapshot currentSnapshot, MatchCursor cursor, char[] number, int position,
+			String first, String last, boolean atFirst, boolean atLast, Map<String, List<String>> phonewordsByNumber) {
+		if (position == number.length) {
+			String phoneNumber = new String(number);
+			List<Pattern> patterns = findAllValidPatterns(currentSnapshot, phoneNumber,
+					cursor.getSubStrings(phoneNumber), () -> false);
+			List<String> phonewords = streamPhonewords(currentSnapshot, phoneNumber, patterns)
+					.collect(Collectors.toList());
+			if (!phonewords.isEmpty()) {
+				phonewordsByNumber.put(phoneNumber, phonewords);
+			}
+			return;
+		}
+
+		char low = atFirst ? first.charAt(position) : '0';
+		char high = atLast ? last.charAt(position) : '9';
+		for (char c = low; c <= high; c++) {
+			number[position] = c;
+			cursor.push(c);
+			walkRange(currentSnapshot, cursor, number, position + 1, first, last, atFirst && c == low,
+					atLast && c == high, phonewordsByNumber);
+			cursor.pop();
+		}
+	}
+
+	private static boolean isDigits(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int commonPrefixLength(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i < length && a.charAt(i) == b.charAt(i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param patterns
+	 * @return the phonewords of the patterns which can make a valid phoneword
+	 */
+	private Stream<String> streamPhonewords(DictionarySnapshot currentSnapshot, String originalPhoneNumber,
+			List<Pattern> patterns) {
+		return patterns.stream().filter(this::isValidPattern)
+				.flatMap(pattern -> streamPhonewordsOfValidPattern(currentSnapshot, originalPhoneNumber, pattern));
+	}
+
+	/**
+	 * Count the phonewords of the given number without generating them
+	 */
+	@Override
+	public BigInteger countPhonewords(String phoneNumber) {
+		if (!phonewordSyntaxChecker.isDecidedByPattern()) {
+			/*
+			 * The rules of a checker looking at the words are only known by asking
+			 * it, so its phonewords have to be generated to be counted
+			 */
+			return BigInteger.valueOf(streamPhonewords(phoneNumber).count());
+		}
+
+		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+
+		List<SubString> subStrings = currentSnapshot.findAllSubStrings(formatedPhoneNumber);
+		int[] noOfWords = new int[subStrings.size()];
+		for (int i = 0; i < noOfWords.length; i++) {
+			SubString subString = subStrings.get(i);
+			noOfWords[i] = currentSnapshot
+					.findWords(formatedPhoneNumber, subString.getStart(), subString.getEnd()).size();
+		}
+		return new PhonewordCounter(formatedPhoneNumber, subStrings, noOfWords).count();
+	}
+
+	/**
+	 * Find the k phonewords of the given number whose words have the highest total
+	 * score, without generating the others
+	 */
+	@Override
+	public List<String> findTopPhonewords(String phoneNumber, int k) {
+		if (k < 0) {
+			String errMsg = String.format("Invalid number of phonewords [%d]", k);
+			throw new IllegalArgumentException(errMsg);
+		}
+		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+
+		List<SubString> subStrings = currentSnapshot.findAllSubStrings(formatedPhoneNumber);
+		List<List<String>> words = findWordsOfSubStrings(currentSnapshot, formatedPhoneNumber, subStrings);
 
 		/*
-		 * Process the possible words found in previous step
+		 * The search follows the pattern rule of a checker decided by pattern by
+		 * itself, the phonewords found for another checker are checked by it
 		 */
-		List<String> phonewords = possibleWordsOfTheGivenPattern.stream()
-				// filter invalid words
-				.filter(this::isValidPhoneword)
-				// format valid phonewords - e.g. adding dashes between words
-				.map(word -> {
-					String formattedWord = formatPhoneword(word, pattern);
-					return formattedWord;
-				}).collect(Collectors.toList());
+		boolean decidedByPattern = phonewordSyntaxChecker.isDecidedByPattern();
+		TopPhonewordSearch search = new TopPhonewordSearch(formatedPhoneNumber, subStrings, words,
+				currentSnapshot.getWordScores(), !decidedByPattern);
+		return formatScoredPhonewords(
+				search.findTop(k, result -> isValidScoredPhoneword(result, decidedByPattern)));
+	}
+
+	/**
+	 * Find the k most natural phrases of the given number, scored by the bigram
+	 * model of the dictionary (see importBigramModelFromFile), with a beam search
+	 * keeping beamWidth phrases at each position
+	 */
+	@Override
+	public List<String> findTopPhrases(String phoneNumber, int k, int beamWidth) {
+		if (k < 0) {
+			String errMsg = String.format("Invalid number of phonewords [%d]", k);
+			throw new IllegalArgumentException(errMsg);
+		}
+		if (beamWidth <= 0) {
+			String errMsg = String.format("Invalid beam width [%d]", beamWidth);
+			throw new IllegalArgumentException(errMsg);
+		}
+		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
 
-		return phonewords;
+		List<SubString> subStrings = currentSnapshot.findAllSubStrings(formatedPhoneNumber);
+		List<List<String>> words = findWordsOfSubStrings(currentSnapshot, formatedPhoneNumber, subStrings);
+
+		boolean decidedByPattern = phonewordSyntaxChecker.isDecidedByPattern();
+		BeamPhonewordSearch search = new BeamPhonewordSearch(formatedPhoneNumber, subStrings, words,
+				currentSnapshot.getWordScores(), currentSnapshot.getBigramModel(), !decidedByPattern);
+		return formatScoredPhonewords(
+				search.findTop(k, beamWidth, result -> isValidScoredPhoneword(result, decidedByPattern)));
 	}
 
 	/**
-	 * Find all valid patterns of the given phone number
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param subStrings
+	 * @return the words of each substring, in the same order
+	 */
+	private List<List<String>> findWordsOfSubStrings(DictionarySnapshot currentSnapshot, String originalPhoneNumber,
+			List<SubString> subStrings) {
+		List<List<String>> words = new ArrayList<>(subStrings.size());
+		for (SubString subString : subStrings) {
+			words.add(currentSnapshot.findWords(originalPhoneNumber, subString.getStart(), subString.getEnd()));
+		}
+		return words;
+	}
+
+	/**
+	 * @param result
+	 * @param decidedByPattern
+	 *            true if the words don't need checking
+	 * @return
+	 */
+	private boolean isValidScoredPhoneword(ScoredPhoneword result, boolean decidedByPattern) {
+		return isValidPattern(result.getPattern()) && (decidedByPattern || isValidPhoneword(result.getPhoneword()));
+	}
+
+	private List<String> formatScoredPhonewords(List<ScoredPhoneword> results) {
+		return results.stream().map(result -> formatPhoneword(result.getPhoneword(), result.getPattern()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * The session uses the snapshot of the dictionary when it is opened
+	 */
+	@Override
+	public PhonewordSession newSession() {
+		return new PhonewordSession(this, currentSnapshot(), phonewordSyntaxChecker.isDecidedByPattern());
+	}
+
+	/**
+	 * Construct all possible phonewords of the given pattern based on the words in
+	 * dictionary
 	 * 
-	 * @param originalEncoded
+	 * @param originalPhoneNumber
 	 * @param subStrings
 	 * @return
 	 */
-	List<Pattern> findAllValidPatterns(String originalPhoneNumber) {
-		List<Pattern> patterns = new ArrayList<>();
+	List<String> constructPhonewordsPerPattern(String originalPhoneNumber, Pattern pattern) {
+		return constructPhonewordsPerPattern(currentSnapshot(), originalPhoneNumber, pattern);
+	}
 
-		/*
-		 * Firstly, find all possible patterns of the given phone number
-		 */
-		patterns = findAllPossiblePatterns(originalPhoneNumber);
+	List<String> constructPhonewordsPerPattern(DictionarySnapshot currentSnapshot, String originalPhoneNumber,
+			Pattern pattern) {
+		return streamPhonewordsPerPattern(currentSnapshot, originalPhoneNumber, pattern).collect(Collectors.toList());
+	}
 
-		/*
-		 * Filter out patterns containing conflicting sub strings.
-		 */
-		List<Pattern> validPatterns = patterns.stream().filter(pattern -> pattern.isValid())
-				.collect(Collectors.toList());
+	/**
+	 * Every combination of the dictionary words of the substrings of the given
+	 * pattern which makes a valid phoneword, formatted
+	 * 
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param pattern
+	 * @return
+	 */
+	Stream<String> streamPhonewordsPerPattern(DictionarySnapshot currentSnapshot, String originalPhoneNumber,
+			Pattern pattern) {
+		if (!isValidPattern(pattern)) {
+			return Stream.empty();
+		}
+		return streamPhonewordsOfValidPattern(currentSnapshot, originalPhoneNumber, pattern);
+	}
 
+	/**
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param pattern
+	 *            a pattern accepted by isValidPattern
+	 * @return
+	 */
+	private Stream<String> streamPhonewordsOfValidPattern(DictionarySnapshot currentSnapshot,
+			String originalPhoneNumber, Pattern pattern) {
 		/*
-		 * remove duplicated patterns
+		 * Composing possible words by replacing the substrings of the given Pattern
+		 * with their dictionary words
 		 */
-		for (int i = 0; i < validPatterns.size() - 1; i++) {
-			Pattern pattern = validPatterns.get(i);
-			for (int j = i + 1; j < validPatterns.size(); j++) {
-				Pattern nextPattern = validPatterns.get(j);
-				if (pattern.equals(nextPattern)) {
-					// remove duplicated
-					validPatterns.remove(j);
-					j--;
+		final PhonewordIterator possibleWords = new PhonewordIterator(originalPhoneNumber, pattern,
+				findBucketWords(currentSnapshot, originalPhoneNumber, pattern));
+		final StringBuilder sink = new StringBuilder();
+
+		Spliterator<String> phonewords = new Spliterators.AbstractSpliterator<String>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super String> action) {
+				if (!formatNextPhoneword(possibleWords, pattern, sink)) {
+					return false;
 				}
+				// the only String created per phoneword
+				action.accept(sink.toString());
+				return true;
+			}
+		};
+		return StreamSupport.stream(phonewords, false);
+	}
+
+	/**
+	 * Hand every phoneword of the given number to the action, without creating a
+	 * String for any of them
+	 * 
+	 * @param phoneNumber
+	 * @param action
+	 *            receives a view of a buffer which is reused for the next
+	 *            phoneword, it has to be copied if it is needed after the action
+	 *            returns
+	 */
+	public void forEachPhoneword(String phoneNumber, Consumer<? super CharSequence> action) {
+		final String formatedPhoneNumber = StringUtils.removeSpacesAndPunctuations(phoneNumber);
+		final DictionarySnapshot currentSnapshot = currentSnapshot();
+		final StringBuilder sink = new StringBuilder();
+
+		for (Pattern pattern : findAllValidPatterns(currentSnapshot, formatedPhoneNumber)) {
+			if (!isValidPattern(pattern)) {
+				continue;
+			}
+			PhonewordIterator possibleWords = new PhonewordIterator(formatedPhoneNumber, pattern,
+					findBucketWords(currentSnapshot, formatedPhoneNumber, pattern));
+			while (formatNextPhoneword(possibleWords, pattern, sink)) {
+				action.accept(sink);
 			}
 		}
+	}
 
-		return validPatterns;
+	/**
+	 * Move to the next valid candidate of the pattern and write it, formatted, into
+	 * the sink in place of the previous one
+	 * 
+	 * @param possibleWords
+	 * @param pattern
+	 * @param sink
+	 * @return false if the pattern has no more valid candidate
+	 */
+	private boolean formatNextPhoneword(PhonewordIterator possibleWords, Pattern pattern, StringBuilder sink) {
+		return formatNextPhoneword(possibleWords, pattern, sink, () -> false);
 	}
 
 	/**
-	 * Find all possible patterns of the given phone number
+	 * @param possibleWords
+	 * @param pattern
+	 * @param sink
+	 * @param stop
+	 *            asked before each candidate
+	 * @return false if the pattern has no more valid candidate, or if stopped
+	 */
+	private boolean formatNextPhoneword(PhonewordIterator possibleWords, Pattern pattern, StringBuilder sink,
+			BooleanSupplier stop) {
+		// the pattern was checked already, nothing is left to check per candidate
+		final boolean decidedByPattern = phonewordSyntaxChecker.isDecidedByPattern();
+		while (possibleWords.hasNext() && !stop.getAsBoolean()) {
+			CharSequence candidate = possibleWords.nextCandidate();
+			// filter invalid words
+			if (decidedByPattern || isValidPhoneword(candidate)) {
+				// format valid phonewords - e.g. adding dashes between words
+				sink.setLength(0);
+				phonewordFormatter.formatTo(candidate, pattern, sink);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find all valid patterns of the given phone number
 	 * 
-	 * @param originalPhoneNumber
+	 * @param originalEncoded
 	 * @param subStrings
 	 * @return
 	 */
-	List<Pattern> findAllPossiblePatterns(String originalPhoneNumber) {
-		final List<Pattern> allPossiblePatterns = new ArrayList<>();
+	List<Pattern> findAllValidPatterns(String originalPhoneNumber) {
+		return findAllValidPatterns(currentSnapshot(), originalPhoneNumber);
+	}
 
+	List<Pattern> findAllValidPatterns(DictionarySnapshot currentSnapshot, String originalPhoneNumber) {
+		return findAllValidPatterns(currentSnapshot, originalPhoneNumber, () -> false);
+	}
+
+	/**
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param stop
+	 *            ends the enumeration of the patterns as soon as it returns true
+	 * @return the patterns found until then
+	 */
+	List<Pattern> findAllValidPatterns(DictionarySnapshot currentSnapshot, String originalPhoneNumber,
+			BooleanSupplier stop) {
 		/*
 		 * Find all the substrings within the given phone numbers which exist in the
 		 * dictionary
 		 */
-		List<SubString> subStrings = findAllPossibleSubStrings(originalPhoneNumber);
-
-		/*
-		 * Find patterns which contains only 1 substring
-		 */
-		subStrings.forEach(subString -> {
-			Pattern p = new Pattern(originalPhoneNumber, Arrays.asList(subString));
-			allPossiblePatterns.add(p);
-		});
+		List<SubString> subStrings = currentSnapshot.findAllSubStrings(originalPhoneNumber);
+		return findAllValidPatterns(currentSnapshot, originalPhoneNumber, subStrings, stop);
+	}
 
+	/**
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param subStrings
+	 *            the substrings of the phone number which are in the dictionary
+	 * @param stop
+	 * @return
+	 */
+	List<Pattern> findAllValidPatterns(DictionarySnapshot currentSnapshot, String originalPhoneNumber,
+			List<SubString> subStrings, BooleanSupplier stop) {
 		/*
-		 * Find patterns which contains > 1 substring
+		 * Combine them into patterns, the substrings of a pattern never overlap; the
+		 * segmentations of the suffixes seen in earlier lookups are reused
 		 */
-		for (int noOfSubStrings = 2; noOfSubStrings <= subStrings.size(); noOfSubStrings++) {
-			// for each length
-			final int constNoOfSubStrings = noOfSubStrings;
-			for (int i = 0; i < subStrings.size(); i++) {
-				// for each substring in the pattern
-				SubString subStringMustBeInPattern = subStrings.get(i);
-				// find the pattern containing the substring
-				for (int j = i + 1; j < subStrings.size(); j++) {
-					List<SubString> groupOfSubStrings = new ArrayList<>();
-					groupOfSubStrings.add(subStringMustBeInPattern);
-					for (int k = 0; (k < constNoOfSubStrings && (j + k) < subStrings.size()); k++) {
-						SubString nextSubString = subStrings.get(j + k);
-						if (groupOfSubStrings.size() == constNoOfSubStrings) {
-							break;
-						}
-						if (!subStringMustBeInPattern.equals(nextSubString)) {
-							groupOfSubStrings.add(nextSubString);
-						}
-					}
-
-					if (groupOfSubStrings.size() == constNoOfSubStrings) {
-						Pattern p = new Pattern(originalPhoneNumber, groupOfSubStrings);
-						allPossiblePatterns.add(p);
-					}
-				}
-			}
-		}
-
-		return allPossiblePatterns;
+		List<Pattern> patterns = new PatternSegmenter(originalPhoneNumber, subStrings)
+				.findAllPatterns(segmentationCache, currentSnapshot.getVersion(), stop);
+		return patterns;
 	}
 
 	/**
@@ -290,20 +868,10 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 * @return
 	 */
 	List<SubString> findAllPossibleSubStrings(String originalPhoneNumber) {
-		List<SubString> result = new ArrayList<>();
-		if (originalPhoneNumber.length() < shortestWordLength) {
-			/*
-			 * if the looked up encoded string is shorter than the shortest word in the
-			 * dictionary
-			 */
-			return result;
-		}
-
-		for (int i = shortestWordLength; i <= originalPhoneNumber.length(); i++) {
-			List<SubString> subStrings = findAllPossibleSubStringsWithSpecificLength(originalPhoneNumber, i);
-			result.addAll(subStrings);
-		}
-
+		/*
+		 * The matcher finds the substrings of all lengths at once
+		 */
+		List<SubString> result = currentSnapshot().findAllSubStrings(originalPhoneNumber);
 		return result;
 	}
 
@@ -318,29 +886,7 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 */
 
 	List<SubString> findAllPossibleSubStringsWithSpecificLength(String originalPhoneNumber, int wordLength) {
-		List<SubString> result = new ArrayList<>();
-		for (int i = 0; i <= originalPhoneNumber.length() - wordLength; i++) {
-			String subStr = originalPhoneNumber.substring(i, i + wordLength);
-			/*
-			 * The start index (inclusive) of the substring within the original string
-			 */
-			final int start = i;
-			/*
-			 * The end index (inclusive) of the substring within the original string
-			 */
-			final int end = i + wordLength - 1;
-			if (dictionary.containsKey(subStr)) {
-				// if the substring match any word in the dictionary
-				// List<String> words = dictionary.get(subStr);
-				/*
-				 * add all the dictionary words of the corresponding encoded into the returned
-				 * result
-				 */
-				SubString subString = new SubString(originalPhoneNumber, subStr, start, end);
-				result.add(subString);
-			}
-		}
-
+		List<SubString> result = currentSnapshot().findSubStringsWithLength(originalPhoneNumber, wordLength);
 		return result;
 	}
 
@@ -354,8 +900,20 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 * @return
 	 */
 	String replaceSubString(String originalPhoneNumber, SubString subString, String newString) {
-		String result = originalPhoneNumber.substring(0, subString.getStart()) + newString
-				+ originalPhoneNumber.substring(subString.getEnd() + 1);
+		return replaceSubString(originalPhoneNumber, subString.getStart(), subString.getEnd(), newString);
+	}
+
+	/**
+	 * @param originalPhoneNumber
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            inclusive
+	 * @param newString
+	 * @return
+	 */
+	String replaceSubString(String originalPhoneNumber, int start, int end, String newString) {
+		String result = originalPhoneNumber.substring(0, start) + newString + originalPhoneNumber.substring(end + 1);
 		return result;
 	}
 
@@ -366,8 +924,12 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 * @return
 	 */
 	String encodesWord(String word) {
-		String encodedNumber = wordEncoder.encode(word) + "";
-		return encodedNumber.toUpperCase();
+		byte[] digits = wordEncoder.encodeToDigits(word);
+		char[] encodedNumber = new char[digits.length];
+		for (int i = 0; i < digits.length; i++) {
+			encodedNumber[i] = (char) ('0' + digits[i]);
+		}
+		return new String(encodedNumber);
 	}
 
 	/**
@@ -379,8 +941,23 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 		return result;
 	}
 
+	boolean isValidPhoneword(CharSequence phoneword) {
+		return phonewordSyntaxChecker.isValid(phoneword);
+	}
+
+	/**
+	 * Checking if a pattern can make a valid phoneword at all
+	 * 
+	 * @param pattern
+	 * @return
+	 */
+	boolean isValidPattern(Pattern pattern) {
+		return phonewordSyntaxChecker.isValidPattern(pattern);
+	}
+
 	/**
-	 * Import all words in a text file into the dictionary
+	 * Import all words in a text file, or a dictionary compiled by compileToFile,
+	 * into the dictionary
 	 */
 	@Override
 	public void importFromFile(File f) throws IOException {
@@ -391,75 +968,233 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 			throw new FileNotFoundException(errMsg);
 		}
 
-		/*
-		 * counting lines in dictionary files
-		 */
-		int noOfLines = 30;
-		try (Stream<String> lines = Files.lines(Paths.get(f.getAbsoluteFile().toURI()))) {
-			noOfLines = (int) lines.count();
+		if (CompiledDictionaryFormat.isCompiledDictionary(f)) {
+			importFromCompiledFile(f);
+			return;
 		}
 
-		/*
-		 * initialize the hash map the same size as the number of lines.
-		 */
-		String message = "Words added: %d\r";
-		dictionary = new HashMap<>(noOfLines);
-		int noOfWordAdded = 0;
+		ParallelDictionaryImporter importer = ParallelDictionaryImporter.getInstance(wordEncoder,
+				importProgressListener);
+		ParallelDictionaryImporter.Result result = importer.importFromFile(f);
+		publish(result.getIndex(), WordScores.EMPTY.with(result.getScores()));
+	}
+
+	/**
+	 * Add all words of a text file, or a dictionary compiled by compileToFile, to
+	 * the words already in the dictionary. The lookups see either none or all of
+	 * them.
+	 * 
+	 * @param f
+	 * @throws IOException
+	 */
+	public void importDeltaFromFile(File f) throws IOException {
+		WordIndex delta;
+		Map<String, Double> deltaScores;
+		if (CompiledDictionaryFormat.isCompiledDictionary(f)) {
+			delta = CompiledDictionaryFormat.read(f, wordEncoder.getKeypadLayout()).getIndex();
+			deltaScores = Collections.emptyMap();
+		} else {
+			ParallelDictionaryImporter importer = ParallelDictionaryImporter.getInstance(wordEncoder,
+					importProgressListener);
+			ParallelDictionaryImporter.Result result = importer.importFromFile(f);
+			delta = result.getIndex();
+			deltaScores = result.getScores();
+		}
+		publishDelta(delta, deltaScores);
+	}
 
-		InputStream fis = null;
-		Scanner scanner = null;
+	/**
+	 * Publish a snapshot holding the current words plus the words of the delta
+	 * 
+	 * @param delta
+	 * @param deltaScores
+	 *            the scores of the words of the delta
+	 */
+	void publishDelta(WordIndex delta, Map<String, Double> deltaScores) {
+		writeLock.lock();
 		try {
-			fis = new FileInputStream(f);
-			scanner = new Scanner(fis);
-			while (scanner.hasNextLine()) {
-				String word = scanner.nextLine();
-				addNewWord(word);
-				
-				noOfWordAdded++;
-				System.out.print(String.format(message, noOfWordAdded));
-			}
+			DictionarySnapshot.Builder builder = stagingBuilder();
+			builder.addAll(delta, DictionarySnapshot.keyLengths(delta));
+			builder.setScores(deltaScores);
+			publishStaging();
 		} finally {
-			if (fis != null) {
-				fis.close();
-			}
-			if (scanner != null) {
-				scanner.close();
-			}
+			writeLock.unlock();
 		}
 	}
 
 	/**
-	 * Given a pattern -> calculate the number of possible words can be generated
-	 * from the dictionary
+	 * Load the bigram model scoring the phrases of findTopPhrases (see
+	 * BigramModel). It replaces the previous model and is kept when the words
+	 * are replaced.
 	 * 
-	 * @param pattern
-	 * @return a List which has the length is the number of possible words; also
-	 *         each element is the original phone number.
+	 * @param f
+	 * @throws IOException
 	 */
-	List<String> calculateNumberOfPossibleWords(Pattern pattern) {
-		/*
-		 * calculate the number of possible words
-		 */
-		int noOfPossibleWords = pattern.stream().map(subString -> {
-			String encodedString = subString.getValue();
-			List<String> dictionaryWords = dictionary.get(encodedString);
-			return dictionaryWords.size();
-		}).reduce(1, (total, noOfWordsPerEncoding) -> {
-			total *= noOfWordsPerEncoding;
-			return total;
-		});
+	public void importBigramModelFromFile(File f) throws IOException {
+		setBigramModel(BigramModel.read(f));
+	}
 
-		/*
-		 * Create a list has the length which is the number of possible words; and each
-		 * element is the original phone number
-		 */
-		final List<String> possibleWordsOfTheGivenPattern = new ArrayList<>(noOfPossibleWords);
-		for (int i = 0; i < noOfPossibleWords; i++) {
-			// and initialize all the value to be the originalEncodedString
-			possibleWordsOfTheGivenPattern.add(new String(pattern.getOriginalPhoneNumber()));
+	/**
+	 * @param bigramModel
+	 */
+	public void setBigramModel(BigramModel bigramModel) {
+		writeLock.lock();
+		try {
+			publishStaging();
+			DictionarySnapshot current = snapshot.get();
+			snapshot.set(current.withBigramModel(bigramModel, current.getVersion() + 1));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Load a dictionary compiled by compileToFile; nothing needs to be parsed or
+	 * encoded
+	 * 
+	 * @param f
+	 * @throws IOException
+	 */
+	void importFromCompiledFile(File f) throws IOException {
+		CompiledDictionaryFormat.Contents contents = CompiledDictionaryFormat.read(f, wordEncoder.getKeypadLayout());
+		publish(contents.getIndex());
+	}
+
+	@Override
+	public void compileToFile(File f) throws IOException {
+		DictionarySnapshot currentSnapshot = currentSnapshot();
+		CompiledDictionaryFormat.write(f, currentSnapshot.getIndex(), currentSnapshot.getShortestWordLength(),
+				wordEncoder.getKeypadLayout());
+	}
+
+	/**
+	 * The words are published by the changes themselves, so a lookup never
+	 * publishes nor copies anything
+	 * 
+	 * @return the snapshot to use for a lookup
+	 */
+	DictionarySnapshot currentSnapshot() {
+		return snapshot.get();
+	}
+
+	/**
+	 * Replace all words of the dictionary at once, the words added but not
+	 * published yet are discarded
+	 * 
+	 * @param index
+	 *            must not be modified afterwards
+	 */
+	void publish(WordIndex index) {
+		publish(index, WordScores.EMPTY);
+	}
+
+	/**
+	 * @param index
+	 *            must not be modified afterwards
+	 * @param wordScores
+	 */
+	void publish(WordIndex index, WordScores wordScores) {
+		publish(index, DictionarySnapshot.newSubStringMatcher(index, subStringMatcherFactory),
+				DictionarySnapshot.keyLengths(index), wordScores);
+	}
+
+	/**
+	 * @param index
+	 *            must not be modified afterwards
+	 * @param subStringMatcher
+	 * @param wordLengths
+	 *            bit n is set if the index has words of length n
+	 */
+	void publish(WordIndex index, SubStringMatcher subStringMatcher, BitSet wordLengths) {
+		publish(index, subStringMatcher, wordLengths, WordScores.EMPTY);
+	}
+
+	/**
+	 * @param index
+	 *            must not be modified afterwards
+	 * @param subStringMatcher
+	 * @param wordLengths
+	 *            bit n is set if the index has words of length n
+	 * @param wordScores
+	 */
+	void publish(WordIndex index, SubStringMatcher subStringMatcher, BitSet wordLengths, WordScores wordScores) {
+		writeLock.lock();
+		try {
+			staging = null;
+			DictionarySnapshot current = snapshot.get();
+			snapshot.set(new DictionarySnapshot(index, subStringMatcher, wordLengths, wordScores,
+					current.getBigramModel(), current.getVersion() + 1));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Must be called holding writeLock
+	 */
+	private void publishStaging() {
+		if (staging == null) {
+			return;
+		}
+		DictionarySnapshot published = staging.build(snapshot.get().getVersion() + 1);
+		staging = null;
+		snapshot.set(mergeDeltaIfTooLarge(published));
+	}
+
+	/**
+	 * @param published
+	 * @return the same words, the delta merged into the index if it grew past
+	 *         maxDeltaWords
+	 */
+	DictionarySnapshot mergeDeltaIfTooLarge(DictionarySnapshot published) {
+		if (published.getNoOfDeltaWords() <= maxDeltaWords(published)) {
+			return published;
 		}
+		// the words are the same so the version is kept
+		return DictionarySnapshot.Builder.copyOf(published, subStringMatcherFactory).build(published.getVersion());
+	}
+
+	/**
+	 * A word added copies the delta, and merging the delta copies the index: a
+	 * delta of about the square root of the size of the index balances both
+	 * 
+	 * @param snapshot
+	 * @return the number of words of the delta above which it is merged into the
+	 *         index
+	 */
+	static int maxDeltaWords(DictionarySnapshot snapshot) {
+		int noOfWords = snapshot.getNoOfIndexWords();
+		return Math.max(MIN_MAX_DELTA_WORDS, (int) Math.sqrt(noOfWords));
+	}
 
-		return possibleWordsOfTheGivenPattern;
+	/**
+	 * Must be called holding writeLock
+	 * 
+	 * @return the builder of the next snapshot, starting from a copy of the
+	 *         delta of the current one
+	 */
+	private DictionarySnapshot.Builder stagingBuilder() {
+		if (staging == null) {
+			staging = DictionarySnapshot.Builder.deltaOf(snapshot.get(), subStringMatcherFactory);
+		}
+		return staging;
+	}
+
+	/**
+	 * Given a pattern -> find the dictionary words of each of its substrings
+	 * 
+	 * @param currentSnapshot
+	 * @param originalPhoneNumber
+	 * @param pattern
+	 * @return the words of the k-th substring at index k
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	List<String>[] findBucketWords(DictionarySnapshot currentSnapshot, String originalPhoneNumber, Pattern pattern) {
+		List<String>[] bucketWords = new List[pattern.size()];
+		for (int k = 0; k < pattern.size(); k++) {
+			bucketWords[k] = currentSnapshot.findWords(originalPhoneNumber, pattern.getStart(k), pattern.getEnd(k));
+		}
+		return bucketWords;
 	}
 
 	/**
@@ -494,20 +1229,47 @@ public class DefaultPhoneWordDictionary implements PhoneWordDictionary {
 	 * @return
 	 */
 	boolean containsNumber(String encodedNumber) {
-		if (dictionary == null) {
-			return false;
-		}
-		return dictionary.containsKey(encodedNumber);
+		return currentSnapshot().containsNumber(encodedNumber);
+	}
+
+	/**
+	 * Find the words of an encoded number
+	 * 
+	 * @param encodedNumber
+	 *            this is the encoded/phone number not the word
+	 * @return the words, or an empty list if the number is not in the dictionary
+	 */
+	List<String> findWords(String encodedNumber) {
+		return currentSnapshot().findWords(encodedNumber);
 	}
 
 	/*
 	 * Getter - Setter
 	 */
-	void setShortestWordLength(int length) {
-		this.shortestWordLength = length;
+	public int getShortestWordLength() {
+		return currentSnapshot().getShortestWordLength();
 	}
 
-	public int getShortestWordLength() {
-		return this.shortestWordLength;
+	public int getLongestWordLength() {
+		return currentSnapshot().getLongestWordLength();
+	}
+
+	/**
+	 * The version of the snapshot currently served
+	 */
+	@Override
+	public long getVersion() {
+		return currentSnapshot().getVersion();
+	}
+
+	/**
+	 * @return the words currently served to the lookups
+	 */
+	public DictionarySnapshot getSnapshot() {
+		return currentSnapshot();
+	}
+
+	public void setImportProgressListener(ImportProgressListener importProgressListener) {
+		this.importProgressListener = importProgressListener;
 	}
 }
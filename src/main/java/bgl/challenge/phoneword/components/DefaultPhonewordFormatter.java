@@ -1,66 +1,56 @@
 package bgl.challenge.phoneword.components;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
-
 import bgl.challenge.phoneword.models.Pattern;
-import bgl.challenge.phoneword.utils.CollectionUtils;
 
 public class DefaultPhonewordFormatter implements PhonewordFormatter {
 
 	@Override
 	public String format(String word, Pattern pattern) {
-		/*
-		 * Find all indexes need to insert dashes in the original phone number.
-		 */
-		List<Integer> dashIndexes = new ArrayList<>();
-		pattern.stream().forEach(subString -> {
-			dashIndexes.add(subString.getStart());
-			dashIndexes.add(subString.getEnd());
-		});
-		// sorting the index descending
-		CollectionUtils.sortDescending(dashIndexes);
-
-		/*
-		 * Insert dashes into the pattern.
-		 * 
-		 * Insert dashes from the end of the original phone number to the start so it
-		 * won't change the original indexes of the other dashes.
-		 */
-		Iterator<Integer> iter = dashIndexes.iterator();
-		/*
-		 * the variable is to simulate end and start of a substring; this is because if
-		 * it is the start position, the dash is inserted to the left of the index when
-		 * with the end position, the dash is inserted to the right.
-		 */
-		boolean rightDash = true;
-		while (iter.hasNext()) {
-			int dashIndex = iter.next();
+		StringBuilder sink = new StringBuilder(word.length() + 2 * pattern.size());
+		formatTo(word, pattern, sink);
+		return sink.toString();
+	}
 
-			if (rightDash) {
-				// insert dash to the right
-				if (dashIndex != word.length() - 1) {
-					// if not the last index
-					String temp = word.substring(0, dashIndex + 1) + "-" + word.substring(dashIndex + 1);
-					word = temp;
-				}
-			} else {
-				// insert dash to the left
-				if (dashIndex != 0) {
-					// if not the first index
-					String temp = word.substring(0, dashIndex) + "-" + word.substring(dashIndex);
-					word = temp;
-				}
+	/**
+	 * The word is cut into segments: the substrings of the pattern and the runs of
+	 * digits left between them; a dash is written between two segments.
+	 * 
+	 * e.g. the word AAA4DDD of the pattern {222}4{333} is written as AAA-4-DDD
+	 */
+	@Override
+	public void formatTo(CharSequence word, Pattern pattern, StringBuilder sink) {
+		final int mark = sink.length();
+		int position = 0;
+		for (int k = 0; k < pattern.size(); k++) {
+			int start = pattern.getStart(k);
+			int end = pattern.getEnd(k);
+			if (start > position) {
+				// the digits before the substring
+				appendSegment(word, position, start, sink, mark);
 			}
-
-			rightDash = !rightDash;
+			appendSegment(word, start, end + 1, sink, mark);
+			position = end + 1;
 		}
+		if (position < word.length()) {
+			// the digits after the last substring
+			appendSegment(word, position, word.length(), sink, mark);
+		}
+	}
 
-		// The formated word may contain 2 consecutive dashes
-		word = word.replace("--", "-");
-
-		return word;
+	/**
+	 * @param word
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            exclusive
+	 * @param sink
+	 * @param mark
+	 *            the length of the sink before the first segment
+	 */
+	private void appendSegment(CharSequence word, int start, int end, StringBuilder sink, int mark) {
+		if (sink.length() > mark) {
+			sink.append('-');
+		}
+		sink.append(word, start, end);
 	}
 }
@@ -0,0 +1,651 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import bgl.challenge.phoneword.models.SubString;
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * An immutable state of a dictionary: its words, the matcher of their encoded
+ * numbers, the length of its shortest word and the scores of its words and
+ * word pairs.
+ * 
+ * <p>
+ * A lookup reads the snapshot of the dictionary once and uses it until it
+ * finishes, so the dictionary can swap in a new snapshot at any time (see
+ * DefaultPhoneWordDictionary) without pausing the lookups in flight or letting
+ * them see half of an update.
+ * </p>
+ * 
+ * <p>
+ * The words added one by one are kept as a small delta on top of the index
+ * (see Builder.deltaOf): a lookup looks up both, so a word added after a lookup
+ * costs a copy of the delta rather than of the whole dictionary. The delta is
+ * merged into the index once it grows past a limit.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public final class DictionarySnapshot {
+
+	private final WordIndex index;
+
+	private final SubStringMatcher subStringMatcher;
+
+	/**
+	 * Bit n is set if the dictionary has words of length n
+	 */
+	private final BitSet wordLengths;
+
+	private final int shortestWordLength;
+
+	private final int longestWordLength;
+
+	private final WordScores wordScores;
+
+	private final BigramModel bigramModel;
+
+	/**
+	 * Increases each time the dictionary publishes a new snapshot
+	 */
+	private final long version;
+
+	/**
+	 * The snapshot of the index alone and the snapshot of the words added on top
+	 * of it, both null if there is no delta. The fields above then describe the
+	 * words of both.
+	 */
+	private final DictionarySnapshot base;
+	private final DictionarySnapshot delta;
+
+	/**
+	 * The index and the delta merged, built by the first call of getIndex
+	 */
+	private volatile WordIndex mergedIndex;
+
+	/**
+	 * @param index
+	 *            must not be modified once the snapshot is created
+	 * @param subStringMatcher
+	 *            holds the encoded numbers of the index
+	 * @param wordLengths
+	 *            bit n is set if the index has words of length n
+	 * @param version
+	 */
+	DictionarySnapshot(WordIndex index, SubStringMatcher subStringMatcher, BitSet wordLengths, long version) {
+		this(index, subStringMatcher, wordLengths, WordScores.EMPTY, BigramModel.EMPTY, version);
+	}
+
+	/**
+	 * @param index
+	 *            must not be modified once the snapshot is created
+	 * @param subStringMatcher
+	 *            holds the encoded numbers of the index
+	 * @param wordLengths
+	 *            bit n is set if the index has words of length n
+	 * @param wordScores
+	 * @param bigramModel
+	 * @param version
+	 */
+	DictionarySnapshot(WordIndex index, SubStringMatcher subStringMatcher, BitSet wordLengths,
+			WordScores wordScores, BigramModel bigramModel, long version) {
+		this.index = index;
+		this.subStringMatcher = subStringMatcher;
+		this.wordLengths = (BitSet) wordLengths.clone();
+		this.shortestWordLength = wordLengths.isEmpty() ? 0 : wordLengths.nextSetBit(0);
+		this.longestWordLength = wordLengths.isEmpty() ? 0 : wordLengths.length() - 1;
+		this.wordScores = wordScores;
+		this.bigramModel = bigramModel;
+		this.version = version;
+		this.base = null;
+		this.delta = null;
+	}
+
+	/**
+	 * @param base
+	 *            a snapshot without delta
+	 * @param delta
+	 *            a snapshot without delta, the words added on top of the base
+	 * @param bigramModel
+	 * @param version
+	 */
+	private DictionarySnapshot(DictionarySnapshot base, DictionarySnapshot delta, BigramModel bigramModel,
+			long version) {
+		this.index = base.index;
+		this.subStringMatcher = base.subStringMatcher;
+		this.wordLengths = (BitSet) base.wordLengths.clone();
+		this.wordLengths.or(delta.wordLengths);
+		this.shortestWordLength = wordLengths.isEmpty() ? 0 : wordLengths.nextSetBit(0);
+		this.longestWordLength = wordLengths.isEmpty() ? 0 : wordLengths.length() - 1;
+		this.wordScores = base.wordScores.overriddenBy(delta.wordScores);
+		this.bigramModel = bigramModel;
+		this.version = version;
+		this.base = base;
+		this.delta = delta;
+	}
+
+	static DictionarySnapshot empty(Supplier<SubStringMatcher> subStringMatcherFactory) {
+		return new DictionarySnapshot(new PackedWordIndex(), subStringMatcherFactory.get(), new BitSet(), 0);
+	}
+
+	/**
+	 * Find all substrings of the phone number which are encoded numbers of the
+	 * dictionary
+	 * 
+	 * @param phoneNumber
+	 * @return the substrings in SubStringMatcher.LENGTH_THEN_START order
+	 */
+	List<SubString> findAllSubStrings(String phoneNumber) {
+		if (phoneNumber.length() < shortestWordLength) {
+			/*
+			 * if the looked up encoded string is shorter than the shortest word in the
+			 * dictionary
+			 */
+			return new ArrayList<>();
+		}
+		if (delta == null) {
+			return subStringMatcher.findAllSubStrings(phoneNumber);
+		}
+		return mergeSubStrings(base.findAllSubStrings(phoneNumber), delta.findAllSubStrings(phoneNumber),
+				SubStringMatcher.LENGTH_THEN_START);
+	}
+
+	/**
+	 * @return a cursor finding the same substrings as findAllSubStrings, one
+	 *         character at a time
+	 */
+	MatchCursor newMatchCursor() {
+		if (delta == null) {
+			return subStringMatcher.newMatchCursor();
+		}
+		return new LayeredMatchCursor(base.newMatchCursor(), delta.newMatchCursor());
+	}
+
+	/**
+	 * Find the substrings of the phone number of the given length which are
+	 * encoded numbers of the dictionary
+	 * 
+	 * @param phoneNumber
+	 * @param length
+	 * @return the substrings ordered by their start index
+	 */
+	List<SubString> findSubStringsWithLength(String phoneNumber, int length) {
+		if (length > phoneNumber.length() || !hasWordsOfLength(length)) {
+			// no need to scan the phone number for a length without any word
+			return new ArrayList<>();
+		}
+		if (delta == null) {
+			return WordIndexMatcher.findSubStringsWithLength(index, phoneNumber, length);
+		}
+		return mergeSubStrings(base.findSubStringsWithLength(phoneNumber, length),
+				delta.findSubStringsWithLength(phoneNumber, length), Comparator.comparingInt(SubString::getStart));
+	}
+
+	/**
+	 * @param encodedNumber
+	 * @return the words, or an empty list if the number is not in the dictionary
+	 */
+	List<String> findWords(String encodedNumber) {
+		if (delta != null) {
+			return concat(base.findWords(encodedNumber), delta.findWords(encodedNumber));
+		}
+		int bucket = index.findBucket(encodedNumber);
+		if (bucket == WordIndex.NOT_FOUND) {
+			return Collections.emptyList();
+		}
+		return index.getWords(bucket);
+	}
+
+	/**
+	 * Find the words of a substring of a phone number without copying the
+	 * substring out of it, unless it is too long to be packed
+	 * 
+	 * @param phoneNumber
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            inclusive
+	 * @return
+	 */
+	List<String> findWords(CharSequence phoneNumber, int start, int end) {
+		if (delta != null) {
+			return concat(base.findWords(phoneNumber, start, end), delta.findWords(phoneNumber, start, end));
+		}
+		long key = PackedDigits.pack(phoneNumber, start, end + 1);
+		int bucket = key != PackedDigits.NOT_PACKABLE ? index.findBucket(key)
+				: index.findBucket(phoneNumber.subSequence(start, end + 1).toString());
+		if (bucket == WordIndex.NOT_FOUND) {
+			return Collections.emptyList();
+		}
+		return index.getWords(bucket);
+	}
+
+	boolean containsNumber(String encodedNumber) {
+		if (delta != null) {
+			return base.containsNumber(encodedNumber) || delta.containsNumber(encodedNumber);
+		}
+		return index.findBucket(encodedNumber) != WordIndex.NOT_FOUND;
+	}
+
+	/**
+	 * @return every word of the snapshot; the index and the delta are merged the
+	 *         first time, e.g. to compile the dictionary
+	 */
+	public WordIndex getIndex() {
+		if (delta == null) {
+			return index;
+		}
+		WordIndex merged = mergedIndex;
+		if (merged == null) {
+			PackedWordIndex mergedWords = new PackedWordIndex(index.getNoOfBuckets() + delta.index.getNoOfBuckets());
+			Builder.copyWords(index, mergedWords, null);
+			Builder.copyWords(delta.index, mergedWords, null);
+			mergedIndex = merged = mergedWords;
+		}
+		return merged;
+	}
+
+	/**
+	 * @return the number of words of the index, without the delta
+	 */
+	int getNoOfIndexWords() {
+		return index.getNoOfWords();
+	}
+
+	/**
+	 * @return the number of words added on top of the index, 0 if there is no
+	 *         delta
+	 */
+	int getNoOfDeltaWords() {
+		return delta == null ? 0 : delta.index.getNoOfWords();
+	}
+
+	/**
+	 * @return the words added on top of the index, null if there is no delta
+	 */
+	WordIndex getDeltaIndex() {
+		return delta == null ? null : delta.index;
+	}
+
+	/**
+	 * @return the scores of the words added on top of the index
+	 */
+	WordScores getDeltaScores() {
+		return delta == null ? WordScores.EMPTY : delta.wordScores;
+	}
+
+	public int getShortestWordLength() {
+		return shortestWordLength;
+	}
+
+	public int getLongestWordLength() {
+		return longestWordLength;
+	}
+
+	/**
+	 * @param length
+	 * @return true if the dictionary has at least one word of the given length
+	 */
+	public boolean hasWordsOfLength(int length) {
+		return length >= 0 && wordLengths.get(length);
+	}
+
+	/**
+	 * @return the lengths of the words of the dictionary, ascending
+	 */
+	public int[] getWordLengths() {
+		return wordLengths.stream().toArray();
+	}
+
+	/**
+	 * @param word
+	 *            in upper case, as stored in the dictionary
+	 * @return the score of the word, WordScores.DEFAULT_SCORE if it has none
+	 */
+	public double getScore(String word) {
+		return wordScores.getScore(word);
+	}
+
+	WordScores getWordScores() {
+		return wordScores;
+	}
+
+	BigramModel getBigramModel() {
+		return bigramModel;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param bigramModel
+	 * @param version
+	 * @return a snapshot with the same words, scored by the given bigram model
+	 */
+	DictionarySnapshot withBigramModel(BigramModel bigramModel, long version) {
+		if (delta != null) {
+			return new DictionarySnapshot(base, delta, bigramModel, version);
+		}
+		return new DictionarySnapshot(index, subStringMatcher, wordLengths, wordScores, bigramModel, version);
+	}
+
+	/**
+	 * @param deltaIndex
+	 *            the words on top of the index of this snapshot, replacing its
+	 *            delta; it must not be modified afterwards
+	 * @param deltaMatcher
+	 *            holds the encoded numbers of the delta index
+	 * @param deltaWordLengths
+	 *            bit n is set if the delta index has words of length n
+	 * @param deltaScores
+	 *            the scores of the words of the delta, replacing the scores of
+	 *            the index
+	 * @param version
+	 * @return a snapshot sharing the index of this one, without copying it
+	 */
+	DictionarySnapshot withDelta(WordIndex deltaIndex, SubStringMatcher deltaMatcher, BitSet deltaWordLengths,
+			WordScores deltaScores, long version) {
+		DictionarySnapshot indexOnly = base != null ? base : this;
+		DictionarySnapshot newDelta = new DictionarySnapshot(deltaIndex, deltaMatcher, deltaWordLengths, deltaScores,
+				BigramModel.EMPTY, version);
+		return new DictionarySnapshot(indexOnly, newDelta, bigramModel, version);
+	}
+
+	/**
+	 * Merge two lists of substrings sorted by the same order, keeping a substring
+	 * found in both once
+	 * 
+	 * @param first
+	 * @param second
+	 * @param order
+	 *            two substrings are the same if they are equal by this order
+	 * @return
+	 */
+	static List<SubString> mergeSubStrings(List<SubString> first, List<SubString> second,
+			Comparator<SubString> order) {
+		if (second.isEmpty()) {
+			return first;
+		}
+		if (first.isEmpty()) {
+			return second;
+		}
+		List<SubString> merged = new ArrayList<>(first.size() + second.size());
+		int i = 0;
+		int j = 0;
+		while (i < first.size() && j < second.size()) {
+			int comparison = order.compare(first.get(i), second.get(j));
+			if (comparison <= 0) {
+				merged.add(first.get(i++));
+				if (comparison == 0) {
+					// a number in both the index and the delta
+					j++;
+				}
+			} else {
+				merged.add(second.get(j++));
+			}
+		}
+		merged.addAll(first.subList(i, first.size()));
+		merged.addAll(second.subList(j, second.size()));
+		return merged;
+	}
+
+	/**
+	 * @param first
+	 * @param second
+	 * @return the words of the index followed by the words of the delta, as if
+	 *         they were added into the same bucket
+	 */
+	private static List<String> concat(List<String> first, List<String> second) {
+		if (second.isEmpty()) {
+			return first;
+		}
+		if (first.isEmpty()) {
+			return second;
+		}
+		List<String> words = new ArrayList<>(first.size() + second.size());
+		words.addAll(first);
+		words.addAll(second);
+		return Collections.unmodifiableList(words);
+	}
+
+	/**
+	 * Create a matcher holding every encoded number of the index
+	 * 
+	 * @param index
+	 * @param subStringMatcherFactory
+	 * @return
+	 */
+	static SubStringMatcher newSubStringMatcher(WordIndex index, Supplier<SubStringMatcher> subStringMatcherFactory) {
+		SubStringMatcher subStringMatcher = subStringMatcherFactory.get();
+		for (int bucket = 0; bucket < index.getNoOfBuckets(); bucket++) {
+			subStringMatcher.add(index.getEncodedNumber(bucket));
+		}
+		return subStringMatcher;
+	}
+
+	/**
+	 * The words are as long as their encoded numbers
+	 * 
+	 * @param index
+	 * @return bit n is set if the index has encoded numbers of length n
+	 */
+	static BitSet keyLengths(WordIndex index) {
+		BitSet lengths = new BitSet();
+		for (int bucket = 0; bucket < index.getNoOfBuckets(); bucket++) {
+			long key = index.getKey(bucket);
+			int length = key != PackedDigits.NOT_PACKABLE ? PackedDigits.length(key)
+					: index.getEncodedNumber(bucket).length();
+			lengths.set(length);
+		}
+		return lengths;
+	}
+
+	/**
+	 * Advances the cursors of the index and of the delta together
+	 */
+	private static final class LayeredMatchCursor implements MatchCursor {
+
+		private final MatchCursor baseCursor;
+
+		private final MatchCursor deltaCursor;
+
+		private LayeredMatchCursor(MatchCursor baseCursor, MatchCursor deltaCursor) {
+			this.baseCursor = baseCursor;
+			this.deltaCursor = deltaCursor;
+		}
+
+		@Override
+		public void push(char c) {
+			baseCursor.push(c);
+			deltaCursor.push(c);
+		}
+
+		@Override
+		public void pop() {
+			baseCursor.pop();
+			deltaCursor.pop();
+		}
+
+		@Override
+		public int depth() {
+			return baseCursor.depth();
+		}
+
+		@Override
+		public List<SubString> getSubStrings(String phoneNumber) {
+			return mergeSubStrings(baseCursor.getSubStrings(phoneNumber), deltaCursor.getSubStrings(phoneNumber),
+					SubStringMatcher.LENGTH_THEN_START);
+		}
+
+		@Override
+		public List<SubString> getLastSubStrings(String phoneNumber) {
+			return mergeSubStrings(baseCursor.getLastSubStrings(phoneNumber), deltaCursor.getLastSubStrings(phoneNumber),
+					SubStringMatcher.LENGTH_THEN_START);
+		}
+	}
+
+	/**
+	 * Accumulates the changes of a dictionary before they are published as a new
+	 * snapshot. It is not thread safe.
+	 */
+	static class Builder {
+
+		/**
+		 * The snapshot the words are added on top of, null if the builder holds
+		 * every word
+		 */
+		private final DictionarySnapshot base;
+
+		private final PackedWordIndex index;
+
+		private final SubStringMatcher subStringMatcher;
+
+		private final BitSet wordLengths = new BitSet();
+
+		private WordScores wordScores = WordScores.EMPTY;
+
+		private BigramModel bigramModel = BigramModel.EMPTY;
+
+		/**
+		 * The scores set since the builder was created
+		 */
+		private final Map<String, Double> newScores = new HashMap<>();
+
+		private Builder(DictionarySnapshot base, PackedWordIndex index, SubStringMatcher subStringMatcher) {
+			this.base = base;
+			this.index = index;
+			this.subStringMatcher = subStringMatcher;
+		}
+
+		/**
+		 * Start from a copy of the words of a snapshot, its index and its delta
+		 * merged; the snapshot itself is left untouched
+		 * 
+		 * @param snapshot
+		 * @param subStringMatcherFactory
+		 * @return
+		 */
+		static Builder copyOf(DictionarySnapshot snapshot, Supplier<SubStringMatcher> subStringMatcherFactory) {
+			PackedWordIndex index = new PackedWordIndex(
+					snapshot.index.getNoOfBuckets() + snapshot.getNoOfDeltaWords());
+			Builder builder = new Builder(null, index, subStringMatcherFactory.get());
+			builder.addAll(snapshot.index, snapshot.wordLengths);
+			if (snapshot.delta != null) {
+				builder.addAll(snapshot.delta.index, snapshot.delta.wordLengths);
+			}
+			builder.wordScores = snapshot.wordScores.flatten();
+			builder.bigramModel = snapshot.bigramModel;
+			return builder;
+		}
+
+		/**
+		 * Start from a copy of the delta of a snapshot only, the words added are
+		 * published on top of its index without copying it
+		 * 
+		 * @param snapshot
+		 * @param subStringMatcherFactory
+		 * @return
+		 */
+		static Builder deltaOf(DictionarySnapshot snapshot, Supplier<SubStringMatcher> subStringMatcherFactory) {
+			DictionarySnapshot base = snapshot.base != null ? snapshot.base : snapshot;
+			Builder builder = new Builder(base, new PackedWordIndex(), subStringMatcherFactory.get());
+			if (snapshot.delta != null) {
+				builder.addAll(snapshot.delta.index, snapshot.delta.wordLengths);
+			}
+			builder.wordScores = snapshot.getDeltaScores();
+			builder.bigramModel = snapshot.bigramModel;
+			return builder;
+		}
+
+		/**
+		 * @param encodedNumber
+		 * @param word
+		 */
+		void add(String encodedNumber, String word) {
+			if (index.add(encodedNumber, word)) {
+				// a new number, duplicated numbers share the existing bucket
+				subStringMatcher.add(encodedNumber);
+			}
+			wordLengths.set(word.length());
+		}
+
+		/**
+		 * Add every word of another index, e.g. a delta loaded from a file
+		 * 
+		 * @param other
+		 * @param otherWordLengths
+		 *            the lengths of the words of the other index
+		 */
+		void addAll(WordIndex other, BitSet otherWordLengths) {
+			copyWords(other, index, subStringMatcher);
+			wordLengths.or(otherWordLengths);
+		}
+
+		/**
+		 * @param from
+		 * @param to
+		 * @param subStringMatcher
+		 *            receives the encoded numbers new to the target index, can be
+		 *            null
+		 */
+		static void copyWords(WordIndex from, PackedWordIndex to, SubStringMatcher subStringMatcher) {
+			for (int bucket = 0; bucket < from.getNoOfBuckets(); bucket++) {
+				long key = from.getKey(bucket);
+				boolean newKey = false;
+				for (int i = 0; i < from.getBucketSize(bucket); i++) {
+					String word = from.getWord(bucket, i);
+					if (key != PackedDigits.NOT_PACKABLE) {
+						newKey |= to.add(key, word);
+					} else {
+						newKey |= to.add(from.getEncodedNumber(bucket), word);
+					}
+				}
+				if (newKey && subStringMatcher != null) {
+					subStringMatcher.add(from.getEncodedNumber(bucket));
+				}
+			}
+		}
+
+		/**
+		 * @return the number of words the builder publishes on top of its base
+		 *         snapshot, 0 if it holds every word
+		 */
+		int getNoOfDeltaWords() {
+			return base == null ? 0 : index.getNoOfWords();
+		}
+
+		/**
+		 * @param scores
+		 *            the scores of words, replacing their previous scores
+		 */
+		void setScores(Map<String, Double> scores) {
+			newScores.putAll(scores);
+		}
+
+		/**
+		 * The builder must not be used anymore afterwards, the snapshot takes over
+		 * its index
+		 * 
+		 * @param version
+		 * @return
+		 */
+		DictionarySnapshot build(long version) {
+			if (base == null) {
+				return new DictionarySnapshot(index, subStringMatcher, wordLengths, wordScores.with(newScores),
+						bigramModel, version);
+			}
+			DictionarySnapshot delta = new DictionarySnapshot(index, subStringMatcher, wordLengths,
+					wordScores.with(newScores), BigramModel.EMPTY, version);
+			return new DictionarySnapshot(base, delta, bigramModel, version);
+		}
+	}
+}
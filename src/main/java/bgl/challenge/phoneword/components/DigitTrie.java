@@ -0,0 +1,190 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * A radix-10 trie of the encoded numbers stored in the dictionary.
+ *
+ * <p>
+ * Instead of probing every (offset, length) pair of a phone number against a
+ * hash map, the trie is walked once from each offset of the phone number. The
+ * walk stops as soon as no encoded number continues with the next digit, so
+ * the cost per offset is bounded by the longest matching key rather than by
+ * the length of the phone number.
+ * </p>
+ *
+ * @author luant
+ *
+ */
+public class DigitTrie implements SubStringMatcher {
+
+	private static final int RADIX = 10;
+
+	private Node root = new Node();
+
+	/**
+	 * Number of encoded numbers in the trie
+	 */
+	private int size = 0;
+
+	@Override
+	public boolean add(String encodedNumber) {
+		Node node = root;
+		for (int i = 0; i < encodedNumber.length(); i++) {
+			int digit = toDigit(encodedNumber.charAt(i));
+			if (digit < 0) {
+				String errMsg = String.format("Cannot add [%s] into the trie - [%c] is not a digit", encodedNumber,
+						encodedNumber.charAt(i));
+				throw new IllegalArgumentException(errMsg);
+			}
+			if (node.children == null) {
+				node.children = new Node[RADIX];
+			}
+			Node child = node.children[digit];
+			if (child == null) {
+				child = new Node();
+				node.children[digit] = child;
+			}
+			node = child;
+		}
+
+		if (node.encodedNumber != null) {
+			return false;
+		}
+		node.encodedNumber = encodedNumber;
+		size++;
+		return true;
+	}
+
+	@Override
+	public boolean contains(String encodedNumber) {
+		Node node = root;
+		for (int i = 0; i < encodedNumber.length() && node != null; i++) {
+			node = node.child(encodedNumber.charAt(i));
+		}
+		return node != null && node.encodedNumber != null;
+	}
+
+	@Override
+	public List<SubString> findAllSubStrings(String phoneNumber) {
+		List<SubString> result = new ArrayList<>();
+		for (int start = 0; start < phoneNumber.length(); start++) {
+			/*
+			 * Walk down the trie from the current offset until no encoded number continues
+			 * with the next digit
+			 */
+			Node node = root;
+			for (int end = start; end < phoneNumber.length(); end++) {
+				node = node.child(phoneNumber.charAt(end));
+				if (node == null) {
+					break;
+				}
+				if (node.encodedNumber != null) {
+					// the value is shared with the trie, no need to slice the phone number
+					result.add(new SubString(phoneNumber, node.encodedNumber, start, end));
+				}
+			}
+		}
+
+		result.sort(LENGTH_THEN_START);
+		return result;
+	}
+
+	/**
+	 * The walks from each offset are kept by position: pushing a digit advances the
+	 * walks still alive at the previous position, plus a new one from the root
+	 */
+	@Override
+	public MatchCursor newMatchCursor() {
+		return new Cursor();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	static int toDigit(char c) {
+		if (c < '0' || c > '9') {
+			return -1;
+		}
+		return c - '0';
+	}
+
+	/**
+	 * The walks alive after each position: their node and the offset they
+	 * started from. A walk is alive while its node has children.
+	 */
+	private class Cursor extends AbstractMatchCursor {
+
+		private Node[][] walkNodes = new Node[16][];
+		private int[][] walkStarts = new int[16][];
+		private int[] noOfWalks = new int[16];
+
+		@Override
+		protected void advance(int position, char c) {
+			if (position == noOfWalks.length) {
+				walkNodes = Arrays.copyOf(walkNodes, position * 2);
+				walkStarts = Arrays.copyOf(walkStarts, position * 2);
+				noOfWalks = Arrays.copyOf(noOfWalks, position * 2);
+			}
+			int previous = position > 0 ? noOfWalks[position - 1] : 0;
+			// at most one walk per offset, plus the new one
+			ensureCapacity(position, previous + 1);
+			noOfWalks[position] = 0;
+
+			for (int i = 0; i < previous; i++) {
+				step(position, c, walkNodes[position - 1][i], walkStarts[position - 1][i]);
+			}
+			step(position, c, root, position);
+		}
+
+		private void step(int position, char c, Node node, int start) {
+			Node child = node.child(c);
+			if (child == null) {
+				return;
+			}
+			if (child.encodedNumber != null) {
+				addMatch(start, position, child.encodedNumber);
+			}
+			if (child.children != null) {
+				int walk = noOfWalks[position]++;
+				walkNodes[position][walk] = child;
+				walkStarts[position][walk] = start;
+			}
+		}
+
+		private void ensureCapacity(int position, int capacity) {
+			if (walkNodes[position] == null || walkNodes[position].length < capacity) {
+				int length = Math.max(capacity, 8);
+				walkNodes[position] = new Node[length];
+				walkStarts[position] = new int[length];
+			}
+		}
+	}
+
+	static class Node {
+		/**
+		 * Created on demand, most of the nodes near the leaves have no children
+		 */
+		Node[] children;
+
+		/**
+		 * Not null if the path from the root to this node is an encoded number of the
+		 * dictionary
+		 */
+		String encodedNumber;
+
+		Node child(char c) {
+			int digit = toDigit(c);
+			if (children == null || digit < 0) {
+				return null;
+			}
+			return children[digit];
+		}
+	}
+}
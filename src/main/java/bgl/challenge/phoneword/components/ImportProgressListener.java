@@ -0,0 +1,22 @@
+package bgl.challenge.phoneword.components;
+
+/**
+ * Receives the progress of a dictionary import.
+ * 
+ * <p>
+ * It may be called from the threads encoding the words, but never by two
+ * threads at the same time.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+
+	/**
+	 * @param noOfWordsRead
+	 *            number of words read from the file so far
+	 */
+	public void onProgress(long noOfWordsRead);
+}
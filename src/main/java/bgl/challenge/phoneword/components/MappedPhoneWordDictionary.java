@@ -0,0 +1,147 @@
+package bgl.challenge.phoneword.components;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A read-only dictionary serving its lookups straight from a memory-mapped
+ * compiled dictionary (see MappedWordIndex).
+ * 
+ * <p>
+ * Many processes can map the same multi-gigabyte file and share its pages
+ * through the OS page cache, instead of each one holding a private copy on its
+ * heap. The file has to be compiled beforehand with compileToFile, e.g. with
+ * the -compile option of the console application.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public class MappedPhoneWordDictionary extends DefaultPhoneWordDictionary {
+
+	/**
+	 * Whether the checksum of the file is verified when it is mapped
+	 */
+	boolean verifyChecksum;
+
+	/**
+	 * @param verifyChecksum
+	 *            reads the whole file once when it is mapped to compare its
+	 *            checksum
+	 */
+	public MappedPhoneWordDictionary(WordEncoder wordEncoder, SyntaxChecker phonewordSyntaxChecker,
+			PhonewordFormatter phonewordFormatter, boolean verifyChecksum) {
+		super(wordEncoder, phonewordSyntaxChecker, phonewordFormatter);
+		this.verifyChecksum = verifyChecksum;
+	}
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @return
+	 */
+	public static MappedPhoneWordDictionary getInstance() {
+		WordEncoder wordEncoder = new PhoneWordEncoder();
+		SyntaxChecker phonewordSyntaxChecker = new PhonewordSyntaxChecker();
+		PhonewordFormatter phonewordFormatter = new DefaultPhonewordFormatter();
+		MappedPhoneWordDictionary instance = new MappedPhoneWordDictionary(wordEncoder, phonewordSyntaxChecker,
+				phonewordFormatter, false);
+		return instance;
+	}
+
+	/*
+	 * The mapped dictionary is read-only: the changes of a heap dictionary would
+	 * copy the whole mapped index onto the heap, so they all fail before touching
+	 * anything. The words can only be replaced at once, by mapping another file.
+	 */
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, the mapped dictionary is read-only
+	 */
+	@Override
+	public boolean addNewWord(String word) {
+		throw readOnly();
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, the mapped dictionary is read-only
+	 */
+	@Override
+	public boolean addNewWord(String word, double score) {
+		throw readOnly();
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, before adding any of the words
+	 */
+	@Override
+	public int addNewWords(Collection<String> words) {
+		throw readOnly();
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, before reading the file
+	 */
+	@Override
+	public void importDeltaFromFile(File f) {
+		throw readOnly();
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, before reading the file
+	 */
+	@Override
+	public void importBigramModelFromFile(File f) {
+		throw readOnly();
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, the mapped dictionary is read-only
+	 */
+	@Override
+	public void setBigramModel(BigramModel bigramModel) {
+		throw readOnly();
+	}
+
+	@Override
+	void stageWord(String encodedNumber, String word) {
+		throw readOnly();
+	}
+
+	@Override
+	void stageScoredWord(String encodedNumber, String word, double score) {
+		throw readOnly();
+	}
+
+	@Override
+	void publishDelta(WordIndex delta, Map<String, Double> deltaScores) {
+		throw readOnly();
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("A memory-mapped dictionary is read-only");
+	}
+
+	/**
+	 * Map a dictionary compiled by compileToFile
+	 */
+	@Override
+	public void importFromFile(File f) throws IOException {
+		MappedWordIndex index = MappedWordIndex.map(f, wordEncoder.getKeypadLayout(), verifyChecksum);
+		int[] keyLengths = index.getKeyLengths();
+		BitSet wordLengths = new BitSet();
+		for (int length : keyLengths) {
+			wordLengths.set(length);
+		}
+		publish(index, new WordIndexMatcher(index, keyLengths), wordLengths);
+	}
+}
@@ -0,0 +1,303 @@
+package bgl.challenge.phoneword.components;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * @formatter:off
+ *
+ * A read-only WordIndex served straight from a memory-mapped compiled
+ * dictionary (see CompiledDictionaryFormat).
+ *
+ * - a lookup is a binary search over the sorted packed keys
+ * - the words of a bucket are decoded from the word blob only when asked for
+ *
+ * Apart from the few numbers too long to be packed, nothing per key or per
+ * word lives on the heap; the pages are shared through the OS page cache by
+ * every process mapping the same file.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class MappedWordIndex implements WordIndex {
+
+	private int shortestWordLength;
+
+	private int noOfPackedKeys;
+
+	private int noOfBuckets;
+
+	private int noOfWords;
+
+	private LongBuffer packedKeys;
+
+	private IntBuffer bucketWordOffsets;
+
+	private IntBuffer wordOffsets;
+
+	private ByteBuffer blob;
+
+	/**
+	 * The buckets of the encoded numbers which are too long to be packed
+	 */
+	private Map<String, Integer> unpackableBuckets = new HashMap<>();
+	private Map<Integer, String> unpackableNumbers = new HashMap<>();
+
+	private MappedWordIndex() {
+
+	}
+
+	/**
+	 * Map a compiled dictionary
+	 *
+	 * @param f
+	 * @param expectedKeypadLayout
+	 *            the keypad layout of the encoder which is going to use the
+	 *            dictionary
+	 * @param verifyChecksum
+	 *            reads the whole file once to compare its checksum; this also
+	 *            brings all its pages into the page cache
+	 * @return
+	 * @throws IOException
+	 */
+	public static MappedWordIndex map(File f, byte[] expectedKeypadLayout, boolean verifyChecksum)
+			throws IOException {
+		if (!f.exists()) {
+			String errMsg = String.format(
+					"Error: failed to map the compiled dictionary - File not found - [%s] doesn't exist",
+					f.getAbsoluteFile());
+			throw new FileNotFoundException(errMsg);
+		}
+
+		MappedWordIndex index = new MappedWordIndex();
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			CompiledDictionaryFormat.Header header = CompiledDictionaryFormat.readHeader(channel, f.getName(),
+					expectedKeypadLayout);
+			if (verifyChecksum) {
+				CompiledDictionaryFormat.verifyChecksum(channel, header, f.getName());
+			}
+
+			index.shortestWordLength = header.shortestWordLength;
+			index.noOfPackedKeys = header.noOfPackedKeys;
+			index.noOfBuckets = header.noOfPackedKeys + header.noOfUnpackableKeys;
+			index.noOfWords = header.noOfWords;
+
+			/*
+			 * Each section is mapped on its own, the mappings stay valid after the channel
+			 * is closed
+			 */
+			index.packedKeys = map(channel, header.getPackedKeysOffset(), 8L * header.noOfPackedKeys)
+					.asLongBuffer();
+			index.bucketWordOffsets = map(channel, header.getBucketWordOffsetsOffset(), 4L * (index.noOfBuckets + 1))
+					.asIntBuffer();
+			index.wordOffsets = map(channel, header.getWordOffsetsOffset(), 4L * (header.noOfWords + 1))
+					.asIntBuffer();
+			index.blob = map(channel, header.getBlobOffset(), header.blobSize);
+
+			ByteBuffer unpackableKeys = map(channel, header.getUnpackableKeysOffset(), header.unpackableKeysSize);
+			for (int bucket = header.noOfPackedKeys; bucket < index.noOfBuckets; bucket++) {
+				String encodedNumber = CompiledDictionaryFormat.readUnpackableKey(unpackableKeys);
+				index.unpackableBuckets.put(encodedNumber, bucket);
+				index.unpackableNumbers.put(bucket, encodedNumber);
+			}
+		}
+		return index;
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Error: a section of the compiled dictionary is larger than 2GB");
+		}
+		return channel.map(MapMode.READ_ONLY, offset, size);
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, the index is read-only
+	 */
+	@Override
+	public boolean add(String encodedNumber, String word) {
+		throw new UnsupportedOperationException("A memory-mapped dictionary is read-only");
+	}
+
+	@Override
+	public int findBucket(long key) {
+		if (key == PackedDigits.NOT_PACKABLE) {
+			return NOT_FOUND;
+		}
+		// binary search over the sorted keys
+		int low = 0;
+		int high = noOfPackedKeys - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleKey = packedKeys.get(middle);
+			if (middleKey < key) {
+				low = middle + 1;
+			} else if (middleKey > key) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	@Override
+	public int findBucket(String encodedNumber) {
+		long key = PackedDigits.pack(encodedNumber);
+		if (key != PackedDigits.NOT_PACKABLE) {
+			return findBucket(key);
+		}
+		Integer bucket = unpackableBuckets.get(encodedNumber);
+		return bucket == null ? NOT_FOUND : bucket;
+	}
+
+	@Override
+	public int getBucketSize(int bucket) {
+		return bucketWordOffsets.get(bucket + 1) - bucketWordOffsets.get(bucket);
+	}
+
+	@Override
+	public String getWord(int bucket, int index) {
+		int wordId = bucketWordOffsets.get(bucket) + index;
+		int start = wordOffsets.get(wordId);
+		int end = wordOffsets.get(wordId + 1);
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			// absolute reads, the shared buffer position is never moved
+			bytes[i] = blob.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public List<String> getWords(int bucket) {
+		int size = getBucketSize(bucket);
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				if (index < 0 || index >= size) {
+					throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+				}
+				return getWord(bucket, index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public long getKey(int bucket) {
+		return bucket < noOfPackedKeys ? packedKeys.get(bucket) : PackedDigits.NOT_PACKABLE;
+	}
+
+	@Override
+	public String getEncodedNumber(int bucket) {
+		if (bucket < noOfPackedKeys) {
+			return PackedDigits.unpack(packedKeys.get(bucket));
+		}
+		return unpackableNumbers.get(bucket);
+	}
+
+	@Override
+	public int getNoOfBuckets() {
+		return noOfBuckets;
+	}
+
+	@Override
+	public int getNoOfWords() {
+		return noOfWords;
+	}
+
+	@Override
+	public boolean hasUnpackableKeys() {
+		return !unpackableBuckets.isEmpty();
+	}
+
+	public int getShortestWordLength() {
+		return shortestWordLength;
+	}
+
+	/**
+	 * Checking which lengths of encoded numbers exist, without reading every key:
+	 * the packed keys are sorted, and their length is in their highest bits, so
+	 * the keys of each length form one contiguous run.
+	 *
+	 * @return the lengths present in the index, ascending
+	 */
+	public int[] getKeyLengths() {
+		boolean[] present = new boolean[PackedDigits.MAX_DIGITS + 1];
+		int noOfLengths = 0;
+		for (int length = 1; length <= PackedDigits.MAX_DIGITS; length++) {
+			int first = lowerBound(PackedDigits.withLength(0, length));
+			if (first < noOfPackedKeys && PackedDigits.length(packedKeys.get(first)) == length) {
+				present[length] = true;
+				noOfLengths++;
+			}
+		}
+
+		int maxUnpackableLength = 0;
+		for (String encodedNumber : unpackableBuckets.keySet()) {
+			maxUnpackableLength = Math.max(maxUnpackableLength, encodedNumber.length());
+		}
+		boolean[] unpackablePresent = new boolean[maxUnpackableLength + 1];
+		for (String encodedNumber : unpackableBuckets.keySet()) {
+			if (!unpackablePresent[encodedNumber.length()]) {
+				unpackablePresent[encodedNumber.length()] = true;
+				noOfLengths++;
+			}
+		}
+
+		int[] lengths = new int[noOfLengths];
+		int i = 0;
+		for (int length = 1; length < present.length; length++) {
+			if (present[length]) {
+				lengths[i++] = length;
+			}
+		}
+		for (int length = 1; length < unpackablePresent.length; length++) {
+			if (unpackablePresent[length]) {
+				lengths[i++] = length;
+			}
+		}
+		return lengths;
+	}
+
+	/**
+	 * @param key
+	 * @return the index of the first packed key which is not less than the given
+	 *         key
+	 */
+	private int lowerBound(long key) {
+		int low = 0;
+		int high = noOfPackedKeys;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (packedKeys.get(middle) < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
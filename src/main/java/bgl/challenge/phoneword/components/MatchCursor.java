@@ -0,0 +1,60 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * Finds the substrings of a phone number which are encoded numbers of the
+ * dictionary incrementally, one character at a time (see
+ * SubStringMatcher.newMatchCursor).
+ * 
+ * <p>
+ * The characters pushed can be popped again, so that a phone number sharing a
+ * prefix with the previous one only pushes the characters after the prefix:
+ * the matching state of the prefix is kept as it is. A cursor is not thread
+ * safe.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public interface MatchCursor {
+
+	/**
+	 * Append a character to the phone number
+	 * 
+	 * @param c
+	 */
+	public void push(char c);
+
+	/**
+	 * Remove the last character of the phone number, along with the substrings
+	 * ending at it
+	 * 
+	 * @throws IllegalStateException
+	 *             if there is no character left
+	 */
+	public void pop();
+
+	/**
+	 * @return the number of characters pushed and not popped
+	 */
+	public int depth();
+
+	/**
+	 * @param phoneNumber
+	 *            the characters pushed, the substrings are slices of it
+	 * @return the substrings which are encoded numbers of the matcher, ordered by
+	 *         SubStringMatcher.LENGTH_THEN_START, as findAllSubStrings would
+	 *         return them
+	 */
+	public List<SubString> getSubStrings(String phoneNumber);
+
+	/**
+	 * @param phoneNumber
+	 *            the characters pushed, the substrings are slices of it
+	 * @return the substrings ending at the last character pushed, shortest first
+	 */
+	public List<SubString> getLastSubStrings(String phoneNumber);
+}
@@ -0,0 +1,344 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * @formatter:off
+ *
+ * Maps the packed encoded numbers (see PackedDigits) to the dictionary words.
+ *
+ * - the keys live in an open-addressing table of primitive longs (linear
+ *   probing), next to the id of their bucket
+ * - the words of a bucket occupy a contiguous range of word ids in a single
+ *   array; when a full bucket grows it is moved to the end of the array with
+ *   twice its capacity
+ *
+ * There is no boxing, no hash map entry and no list object per key, and a
+ * lookup does not allocate.
+ *
+ * Encoded numbers longer than PackedDigits.MAX_DIGITS cannot be packed; they
+ * fall back to a small String keyed map pointing to the same kind of buckets.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class PackedWordIndex implements WordIndex {
+
+	private static final long EMPTY = PackedDigits.NOT_PACKABLE;
+
+	private static final int DEFAULT_EXPECTED_KEYS = 16;
+
+	/*
+	 * The open-addressing table
+	 */
+	private long[] slotKeys;
+	private int[] slotBuckets;
+	private int mask;
+
+	/*
+	 * The buckets, indexed by bucket id
+	 */
+	private long[] bucketKeys;
+	private int[] bucketStarts;
+	private int[] bucketSizes;
+	private int[] bucketCapacities;
+	private int noOfBuckets;
+
+	/**
+	 * The buckets of the encoded numbers which are too long to be packed
+	 */
+	private Map<String, Integer> unpackableBuckets = new HashMap<>();
+	private Map<Integer, String> unpackableNumbers = new HashMap<>();
+
+	/*
+	 * The words, indexed by word id
+	 */
+	private String[] words;
+	private int noOfWordIds;
+	private int noOfWords;
+
+	public PackedWordIndex() {
+		this(DEFAULT_EXPECTED_KEYS);
+	}
+
+	/**
+	 * @param expectedKeys
+	 *            sizes the table so that it doesn't need growing while adding
+	 *            that many keys
+	 */
+	public PackedWordIndex(int expectedKeys) {
+		int capacity = tableSizeFor(Math.max(expectedKeys, DEFAULT_EXPECTED_KEYS));
+		initTable(capacity);
+		bucketKeys = new long[capacity / 2];
+		bucketStarts = new int[capacity / 2];
+		bucketSizes = new int[capacity / 2];
+		bucketCapacities = new int[capacity / 2];
+		words = new String[capacity / 2];
+	}
+
+	/**
+	 * Create an index from buckets whose words are already laid out contiguously,
+	 * e.g. read from a compiled dictionary file
+	 *
+	 * @param keys
+	 *            the packed encoded number of each bucket, NOT_PACKABLE for the
+	 *            numbers given in unpackableNumbers
+	 * @param unpackableNumbers
+	 *            the encoded number of each bucket which is too long to be
+	 *            packed, null for the other buckets
+	 * @param bucketWordOffsets
+	 *            the first word id of each bucket, followed by the number of
+	 *            words
+	 * @param words
+	 *            the words, indexed by word id
+	 * @return
+	 */
+	static PackedWordIndex fromBuckets(long[] keys, String[] unpackableNumbers, int[] bucketWordOffsets,
+			String[] words) {
+		int noOfBuckets = keys.length;
+		PackedWordIndex index = new PackedWordIndex(noOfBuckets);
+		index.bucketKeys = Arrays.copyOf(keys, Math.max(noOfBuckets, 1));
+		index.bucketStarts = Arrays.copyOf(bucketWordOffsets, Math.max(noOfBuckets, 1));
+		index.bucketSizes = new int[Math.max(noOfBuckets, 1)];
+		for (int bucket = 0; bucket < noOfBuckets; bucket++) {
+			index.bucketSizes[bucket] = bucketWordOffsets[bucket + 1] - bucketWordOffsets[bucket];
+		}
+		index.bucketCapacities = Arrays.copyOf(index.bucketSizes, index.bucketSizes.length);
+		index.noOfBuckets = noOfBuckets;
+		index.words = words.length == 0 ? new String[1] : words;
+		index.noOfWordIds = words.length;
+		index.noOfWords = words.length;
+
+		for (int bucket = 0; bucket < noOfBuckets; bucket++) {
+			if (keys[bucket] == EMPTY) {
+				index.unpackableBuckets.put(unpackableNumbers[bucket], bucket);
+				index.unpackableNumbers.put(bucket, unpackableNumbers[bucket]);
+			} else {
+				int slot = index.findSlot(keys[bucket]);
+				index.slotKeys[slot] = keys[bucket];
+				index.slotBuckets[slot] = bucket;
+			}
+		}
+		return index;
+	}
+
+	@Override
+	public boolean add(String encodedNumber, String word) {
+		long key = PackedDigits.pack(encodedNumber);
+		if (key != PackedDigits.NOT_PACKABLE) {
+			return add(key, word);
+		}
+
+		Integer bucket = unpackableBuckets.get(encodedNumber);
+		boolean newKey = bucket == null;
+		if (newKey) {
+			bucket = newBucket(PackedDigits.NOT_PACKABLE);
+			unpackableBuckets.put(encodedNumber, bucket);
+			unpackableNumbers.put(bucket, encodedNumber);
+		}
+		appendWord(bucket, word);
+		return newKey;
+	}
+
+	/**
+	 * Add a word into the bucket of the given key
+	 *
+	 * @param key
+	 *            the packed encoded number of the word
+	 * @param word
+	 * @return true if the key was not in the index yet
+	 */
+	public boolean add(long key, String word) {
+		if (key == EMPTY) {
+			throw new IllegalArgumentException("Cannot add a word without a packed key");
+		}
+
+		boolean newKey = false;
+		int slot = findSlot(key);
+		int bucket;
+		if (slotKeys[slot] == EMPTY) {
+			bucket = newBucket(key);
+			slotKeys[slot] = key;
+			slotBuckets[slot] = bucket;
+			newKey = true;
+			if (noOfBuckets * 2 > slotKeys.length) {
+				rehash(slotKeys.length * 2);
+			}
+		} else {
+			bucket = slotBuckets[slot];
+		}
+
+		appendWord(bucket, word);
+		return newKey;
+	}
+
+	@Override
+	public int findBucket(long key) {
+		if (key == EMPTY) {
+			return NOT_FOUND;
+		}
+		int slot = findSlot(key);
+		return slotKeys[slot] == EMPTY ? NOT_FOUND : slotBuckets[slot];
+	}
+
+	@Override
+	public int findBucket(String encodedNumber) {
+		long key = PackedDigits.pack(encodedNumber);
+		if (key != PackedDigits.NOT_PACKABLE) {
+			return findBucket(key);
+		}
+		Integer bucket = unpackableBuckets.get(encodedNumber);
+		return bucket == null ? NOT_FOUND : bucket;
+	}
+
+	@Override
+	public boolean containsKey(long key) {
+		return findBucket(key) != NOT_FOUND;
+	}
+
+	@Override
+	public int getBucketSize(int bucket) {
+		return bucketSizes[bucket];
+	}
+
+	@Override
+	public String getWord(int bucket, int index) {
+		return words[bucketStarts[bucket] + index];
+	}
+
+	@Override
+	public List<String> getWords(int bucket) {
+		int start = bucketStarts[bucket];
+		return Collections.unmodifiableList(Arrays.asList(words).subList(start, start + bucketSizes[bucket]));
+	}
+
+	@Override
+	public long getKey(int bucket) {
+		return bucketKeys[bucket];
+	}
+
+	@Override
+	public String getEncodedNumber(int bucket) {
+		long key = bucketKeys[bucket];
+		if (key != PackedDigits.NOT_PACKABLE) {
+			return PackedDigits.unpack(key);
+		}
+		return unpackableNumbers.get(bucket);
+	}
+
+	@Override
+	public boolean hasUnpackableKeys() {
+		return !unpackableBuckets.isEmpty();
+	}
+
+	@Override
+	public int getNoOfBuckets() {
+		return noOfBuckets;
+	}
+
+	@Override
+	public int getNoOfWords() {
+		return noOfWords;
+	}
+
+	private int findSlot(long key) {
+		int slot = hash(key) & mask;
+		while (slotKeys[slot] != EMPTY && slotKeys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int newBucket(long key) {
+		if (noOfBuckets == bucketKeys.length) {
+			int capacity = bucketKeys.length * 2;
+			bucketKeys = Arrays.copyOf(bucketKeys, capacity);
+			bucketStarts = Arrays.copyOf(bucketStarts, capacity);
+			bucketSizes = Arrays.copyOf(bucketSizes, capacity);
+			bucketCapacities = Arrays.copyOf(bucketCapacities, capacity);
+		}
+		int bucket = noOfBuckets++;
+		bucketKeys[bucket] = key;
+		bucketStarts[bucket] = noOfWordIds;
+		bucketSizes[bucket] = 0;
+		bucketCapacities[bucket] = 0;
+		return bucket;
+	}
+
+	private void appendWord(int bucket, String word) {
+		int start = bucketStarts[bucket];
+		int size = bucketSizes[bucket];
+		int capacity = bucketCapacities[bucket];
+		if (size == capacity) {
+			if (start + capacity == noOfWordIds) {
+				// the bucket is at the end of the word ids, grow it in place
+				reserveWordIds(1);
+				capacity++;
+			} else {
+				// move the bucket to the end of the word ids
+				int newCapacity = Math.max(capacity * 2, 1);
+				int newStart = reserveWordIds(newCapacity);
+				System.arraycopy(words, start, words, newStart, size);
+				Arrays.fill(words, start, start + size, null);
+				start = newStart;
+				capacity = newCapacity;
+				bucketStarts[bucket] = start;
+			}
+			bucketCapacities[bucket] = capacity;
+		}
+		words[start + size] = word;
+		bucketSizes[bucket] = size + 1;
+		noOfWords++;
+	}
+
+	/**
+	 * @param count
+	 * @return the first of the reserved word ids
+	 */
+	private int reserveWordIds(int count) {
+		if (noOfWordIds + count > words.length) {
+			words = Arrays.copyOf(words, Math.max(words.length * 2, noOfWordIds + count));
+		}
+		int first = noOfWordIds;
+		noOfWordIds += count;
+		return first;
+	}
+
+	private void rehash(int capacity) {
+		initTable(capacity);
+		for (int bucket = 0; bucket < noOfBuckets; bucket++) {
+			int slot = findSlot(bucketKeys[bucket]);
+			slotKeys[slot] = bucketKeys[bucket];
+			slotBuckets[slot] = bucket;
+		}
+	}
+
+	private void initTable(int capacity) {
+		slotKeys = new long[capacity];
+		Arrays.fill(slotKeys, EMPTY);
+		slotBuckets = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private static int hash(long key) {
+		// the finalizer of MurmurHash3, spreads the packed digits over all bits
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private static int tableSizeFor(int expectedKeys) {
+		int capacity = Integer.highestOneBit(expectedKeys * 2 - 1) << 1;
+		return Math.max(capacity, 2);
+	}
+}
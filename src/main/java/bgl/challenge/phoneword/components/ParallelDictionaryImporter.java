@@ -0,0 +1,422 @@
+package bgl.challenge.phoneword.components;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import bgl.challenge.phoneword.exception.UnknownCharacterException;
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * @formatter:off
+ *
+ * Imports a text file of words, one word per line, in a single pass; a word
+ * may be followed by a space or a tab and its score (see WordScores):
+ *
+ * - the file is split into line-aligned chunks, each one memory-mapped
+ * - the chunks are decoded and encoded in parallel on a fork-join pool, each
+ *   one into its own PackedWordIndex
+ * - the chunk indexes are merged in file order into the final index, so the
+ *   words of a number keep the order of the file, exactly like adding them
+ *   one by one
+ *
+ * The progress is reported to an ImportProgressListener, at most once per
+ * progress interval, plus once at the end.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class ParallelDictionaryImporter {
+
+	public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+	public static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 200;
+
+	/**
+	 * Number of lines between two updates of the shared progress counter
+	 */
+	private static final int PROGRESS_BATCH = 4096;
+
+	private WordEncoder wordEncoder;
+
+	private ForkJoinPool pool;
+
+	private int chunkSize;
+
+	private ImportProgressListener progressListener;
+
+	private long progressIntervalMillis;
+
+	/*
+	 * The progress of the current import
+	 */
+	private final AtomicLong noOfWordsRead = new AtomicLong();
+	private final AtomicLong nextProgressTime = new AtomicLong();
+
+	/**
+	 * @param wordEncoder
+	 *            must be safe to use from several threads
+	 * @param pool
+	 * @param chunkSize
+	 *            approximate number of bytes per chunk
+	 * @param progressListener
+	 *            null if the progress is not needed
+	 * @param progressIntervalMillis
+	 *            the minimum time between two progress reports
+	 */
+	public ParallelDictionaryImporter(WordEncoder wordEncoder, ForkJoinPool pool, int chunkSize,
+			ImportProgressListener progressListener, long progressIntervalMillis) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size must be positive");
+		}
+		this.wordEncoder = wordEncoder;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+		this.progressListener = progressListener;
+		this.progressIntervalMillis = progressIntervalMillis;
+	}
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @param wordEncoder
+	 * @param progressListener
+	 * @return
+	 */
+	public static ParallelDictionaryImporter getInstance(WordEncoder wordEncoder,
+			ImportProgressListener progressListener) {
+		return new ParallelDictionaryImporter(wordEncoder, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE,
+				progressListener, DEFAULT_PROGRESS_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Read and encode all words of a text file
+	 * 
+	 * @param f
+	 *            a UTF-8 text file, one word per line
+	 * @return
+	 * @throws IOException
+	 */
+	public Result importFromFile(File f) throws IOException {
+		if (!f.exists()) {
+			String errMsg = String.format(
+					"Error: failed to load the dictionary file - File not found - [%s] doesn't exist",
+					f.getAbsoluteFile());
+			throw new FileNotFoundException(errMsg);
+		}
+
+		noOfWordsRead.set(0);
+		nextProgressTime.set(System.currentTimeMillis() + progressIntervalMillis);
+
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			/*
+			 * Submit every chunk first, then collect them in file order so that the final
+			 * index is sized once
+			 */
+			List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+			for (long[] bounds : splitIntoChunks(channel)) {
+				long start = bounds[0];
+				long end = bounds[1];
+				tasks.add(pool.submit(() -> readChunk(channel, start, end)));
+			}
+
+			List<Chunk> chunks = new ArrayList<>(tasks.size());
+			int expectedKeys = 0;
+			for (ForkJoinTask<Chunk> task : tasks) {
+				Chunk chunk = join(task);
+				chunks.add(chunk);
+				expectedKeys += chunk.index.getNoOfBuckets();
+			}
+
+			Result result = new Result(new PackedWordIndex(expectedKeys));
+			for (Chunk chunk : chunks) {
+				merge(chunk, result);
+			}
+			if (progressListener != null) {
+				reportProgress(noOfWordsRead.get());
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * @param channel
+	 * @return the start (inclusive) and end (exclusive) of each chunk; every chunk
+	 *         but the last one ends right after a line feed
+	 * @throws IOException
+	 */
+	List<long[]> splitIntoChunks(FileChannel channel) throws IOException {
+		List<long[]> chunks = new ArrayList<>();
+		long size = channel.size();
+		ByteBuffer lookAhead = ByteBuffer.allocate(256);
+		long start = 0;
+		while (start < size) {
+			long end = Math.min(start + chunkSize, size);
+
+			/*
+			 * Move the end of the chunk to the end of the line it falls in
+			 */
+			boolean lineEnded = end == size;
+			while (!lineEnded) {
+				lookAhead.clear();
+				int noOfBytes = channel.read(lookAhead, end);
+				if (noOfBytes <= 0) {
+					end = size;
+					break;
+				}
+				for (int i = 0; i < noOfBytes && !lineEnded; i++) {
+					end++;
+					lineEnded = lookAhead.get(i) == '\n';
+				}
+				lineEnded |= end == size;
+			}
+
+			chunks.add(new long[] { start, end });
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * Decode and encode the words of a chunk into its own index
+	 * 
+	 * @param channel
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	Chunk readChunk(FileChannel channel, long start, long end) {
+		CharBuffer text;
+		try {
+			text = StandardCharsets.UTF_8.decode(channel.map(MapMode.READ_ONLY, start, end - start));
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+
+		Chunk chunk = new Chunk();
+		int noOfLinesSinceReport = 0;
+		int lineStart = 0;
+		int length = text.length();
+		for (int i = 0; i <= length; i++) {
+			if (i < length && text.get(i) != '\n') {
+				continue;
+			}
+			int lineEnd = i;
+			if (lineEnd > lineStart && text.get(lineEnd - 1) == '\r') {
+				lineEnd--;
+			}
+			if (lineEnd > lineStart) {
+				addLine(chunk, text.subSequence(lineStart, lineEnd).toString());
+				noOfLinesSinceReport++;
+			}
+			lineStart = i + 1;
+
+			if (noOfLinesSinceReport == PROGRESS_BATCH) {
+				onWordsRead(noOfLinesSinceReport);
+				noOfLinesSinceReport = 0;
+			}
+		}
+		onWordsRead(noOfLinesSinceReport);
+		return chunk;
+	}
+
+	/**
+	 * A line is a word, optionally followed by a space or a tab and the score of
+	 * the word
+	 * 
+	 * @param chunk
+	 * @param line
+	 */
+	private void addLine(Chunk chunk, String line) {
+		int separator = Math.max(line.lastIndexOf(' '), line.lastIndexOf('\t'));
+		if (separator > 0) {
+			String word = line.substring(0, separator).trim();
+			double score;
+			try {
+				score = Double.parseDouble(line.substring(separator + 1));
+			} catch (NumberFormatException ex) {
+				String warnMsg = String.format("Warning - Cannot add word [%s] into the library - invalid score",
+						line);
+				chunk.warnings.add(warnMsg);
+				return;
+			}
+			if (addWord(chunk, word)) {
+				chunk.scores.put(word.toUpperCase(), score);
+			}
+			return;
+		}
+		addWord(chunk, line);
+	}
+
+	/**
+	 * The same rules as DefaultPhoneWordDictionary.addNewWord
+	 * 
+	 * @param chunk
+	 * @param word
+	 * @return true if the word was added
+	 */
+	private boolean addWord(Chunk chunk, String word) {
+		word = word.toUpperCase();
+		byte[] digits;
+		try {
+			digits = wordEncoder.encodeToDigits(word);
+		} catch (UnknownCharacterException ex) {
+			/*
+			 * If the word contains characters which cannot be encoded
+			 */
+			String warnMsg = String.format("Warning - Cannot add word [%s] into the library - %s", word,
+					ex.getMessage());
+			chunk.warnings.add(warnMsg);
+			return false;
+		}
+
+		if (PackedDigits.isPackable(digits.length)) {
+			long packed = 0;
+			for (byte digit : digits) {
+				packed = (packed << 4) | digit;
+			}
+			chunk.index.add(PackedDigits.withLength(packed, digits.length), word);
+		} else {
+			char[] encodedNumber = new char[digits.length];
+			for (int i = 0; i < digits.length; i++) {
+				encodedNumber[i] = (char) ('0' + digits[i]);
+			}
+			chunk.index.add(new String(encodedNumber), word);
+		}
+		chunk.updateShortestWordLength(word.length());
+		return true;
+	}
+
+	private void merge(Chunk chunk, Result result) {
+		for (String warnMsg : chunk.warnings) {
+			System.out.println(warnMsg);
+		}
+
+		PackedWordIndex chunkIndex = chunk.index;
+		for (int bucket = 0; bucket < chunkIndex.getNoOfBuckets(); bucket++) {
+			long key = chunkIndex.getKey(bucket);
+			String encodedNumber = key == PackedDigits.NOT_PACKABLE ? chunkIndex.getEncodedNumber(bucket) : null;
+			for (int i = 0; i < chunkIndex.getBucketSize(bucket); i++) {
+				String word = chunkIndex.getWord(bucket, i);
+				if (encodedNumber == null) {
+					result.index.add(key, word);
+				} else {
+					result.index.add(encodedNumber, word);
+				}
+			}
+		}
+
+		// the chunks are merged in the order of the file, the last score of a word wins
+		result.scores.putAll(chunk.scores);
+
+		if (chunk.shortestWordLength > 0 && (result.shortestWordLength == 0
+				|| chunk.shortestWordLength < result.shortestWordLength)) {
+			result.shortestWordLength = chunk.shortestWordLength;
+		}
+	}
+
+	/**
+	 * Count the words read by a worker, and report the progress if the interval
+	 * has passed
+	 * 
+	 * @param count
+	 */
+	private void onWordsRead(int count) {
+		long total = noOfWordsRead.addAndGet(count);
+		if (progressListener == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long next = nextProgressTime.get();
+		if (now >= next && nextProgressTime.compareAndSet(next, now + progressIntervalMillis)) {
+			reportProgress(total);
+		}
+	}
+
+	private synchronized void reportProgress(long total) {
+		progressListener.onProgress(total);
+	}
+
+	private static Chunk join(ForkJoinTask<Chunk> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while importing the dictionary");
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) cause).getCause();
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * The words of one chunk of the file
+	 */
+	static class Chunk {
+		PackedWordIndex index = new PackedWordIndex();
+		int shortestWordLength = 0;
+		Map<String, Double> scores = new HashMap<>();
+		List<String> warnings = new ArrayList<>();
+
+		void updateShortestWordLength(int length) {
+			if (shortestWordLength == 0 || length < shortestWordLength) {
+				shortestWordLength = length;
+			}
+		}
+	}
+
+	/**
+	 * The imported words
+	 */
+	public static class Result {
+		private PackedWordIndex index;
+		private int shortestWordLength = 0;
+		private Map<String, Double> scores = new HashMap<>();
+
+		Result(PackedWordIndex index) {
+			this.index = index;
+		}
+
+		public PackedWordIndex getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return the length of the shortest imported word, 0 if there is none
+		 */
+		public int getShortestWordLength() {
+			return shortestWordLength;
+		}
+
+		/**
+		 * @return the scores given in the file, by upper case word
+		 */
+		public Map<String, Double> getScores() {
+			return scores;
+		}
+	}
+}
@@ -0,0 +1,363 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * @formatter:off
+ *
+ * Enumerates the patterns of a phone number as the paths of a DAG over its
+ * digit positions 0..n:
+ *
+ * - a substring from start to end is an edge from start to end + 1
+ * - every position also has an edge to the next one, leaving the digit as it
+ *   is
+ *
+ * Each path from 0 to n taking at least one substring edge is one pattern.
+ * The substrings of a path never overlap and two paths never make the same
+ * pattern, so there is nothing to filter or deduplicate afterwards.
+ *
+ * e.g. for the phone number 2222333 and the substrings {222} and {333}:
+ * - {222}2{333}, 2{222}{333}, {222}2333, 2{222}333, 2222{333}
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class PatternSegmenter {
+
+	private static final int[] EMPTY_TAIL = new int[0];
+
+	private final String phoneNumber;
+
+	/**
+	 * The substrings packed with Pattern.pack and grouped by their start position:
+	 * the substrings starting at position i are edges[edgeOffsets[i]] to
+	 * edges[edgeOffsets[i + 1] - 1]
+	 */
+	private final int[] edges;
+	private final int[] edgeOffsets;
+
+	/**
+	 * The start of the last substring, no substring edge can be taken after it
+	 */
+	private final int lastStart;
+
+	/**
+	 * @param phoneNumber
+	 * @param subStrings
+	 *            the substrings of the phone number, in any order
+	 */
+	public PatternSegmenter(String phoneNumber, List<SubString> subStrings) {
+		this.phoneNumber = phoneNumber;
+		int length = phoneNumber.length();
+
+		/*
+		 * Counting sort of the substrings by their start
+		 */
+		edgeOffsets = new int[length + 2];
+		int last = -1;
+		for (SubString subString : subStrings) {
+			edgeOffsets[subString.getStart() + 1]++;
+			last = Math.max(last, subString.getStart());
+		}
+		for (int i = 1; i < edgeOffsets.length; i++) {
+			edgeOffsets[i] += edgeOffsets[i - 1];
+		}
+		edges = new int[subStrings.size()];
+		int[] next = new int[length + 1];
+		System.arraycopy(edgeOffsets, 0, next, 0, length + 1);
+		for (SubString subString : subStrings) {
+			edges[next[subString.getStart()]++] = Pattern.pack(subString.getStart(), subString.getEnd());
+		}
+		lastStart = last;
+	}
+
+	/**
+	 * @return every pattern of the phone number, each one made of non
+	 *         overlapping substrings ordered by their start
+	 */
+	public List<Pattern> findAllPatterns() {
+		return findAllPatterns(() -> false);
+	}
+
+	/**
+	 * @param stop
+	 *            asked at each step of the walk, the walk ends as soon as it
+	 *            returns true
+	 * @return the patterns found until the walk ended, in the order of
+	 *         findAllPatterns
+	 */
+	public List<Pattern> findAllPatterns(BooleanSupplier stop) {
+		List<Pattern> patterns = new ArrayList<>();
+		forEachPattern(patterns::add, stop);
+		return patterns;
+	}
+
+	/**
+	 * Hand each pattern over as soon as the walk reaches it, so that a caller
+	 * stopped halfway has the patterns before the stop to work with
+	 * 
+	 * @param action
+	 *            receives the patterns in the order of findAllPatterns
+	 * @param stop
+	 *            asked at each step of the walk, the walk ends as soon as it
+	 *            returns true
+	 */
+	public void forEachPattern(Consumer<Pattern> action, BooleanSupplier stop) {
+		if (edges.length > 0) {
+			// a path takes at most one substring per digit
+			walk(0, new int[phoneNumber.length()], 0, action, stop);
+		}
+	}
+
+	/**
+	 * The same patterns in the same order as findAllPatterns, reusing the tails
+	 * of the suffixes of the phone number seen in earlier lookups (see
+	 * forEachPattern)
+	 * 
+	 * @param cache
+	 * @param version
+	 *            of the dictionary the substrings were found in
+	 * @param stop
+	 *            asked at each step of the walk and each tail reused
+	 * @return the patterns found until the walk ended
+	 */
+	List<Pattern> findAllPatterns(SegmentationCache cache, long version, BooleanSupplier stop) {
+		List<Pattern> patterns = new ArrayList<>();
+		forEachPattern(cache, version, patterns::add, stop);
+		return patterns;
+	}
+
+	/**
+	 * Walk the paths as forEachPattern(action, stop) does, except for the
+	 * suffixes whose tails (the paths from their first position to the end) are
+	 * in the cache: their tails are appended to the path instead of walking them
+	 * again. The tails of a suffix walked to its end are recorded from the
+	 * patterns handed over on the way and added to the cache, so another number
+	 * sharing the suffix, or the same number reaching it by another path, reuses
+	 * them. Nothing is built ahead of the patterns, a walk stopped halfway has
+	 * handed over every pattern found so far.
+	 * 
+	 * @param cache
+	 * @param version
+	 *            of the dictionary the substrings were found in
+	 * @param action
+	 *            receives the patterns in the order of findAllPatterns
+	 * @param stop
+	 *            asked at each step of the walk and each tail reused
+	 */
+	void forEachPattern(SegmentationCache cache, long version, Consumer<Pattern> action, BooleanSupplier stop) {
+		if (edges.length > 0) {
+			new CachedWalk(cache, version, action, stop).walk(0, 0);
+		}
+	}
+
+	/**
+	 * The state of a walk of forEachPattern reusing the cache
+	 */
+	private final class CachedWalk {
+
+		private final SegmentationCache cache;
+
+		private final long version;
+
+		private final Consumer<Pattern> action;
+
+		private final BooleanSupplier stop;
+
+		private final int[] suffixHashes;
+
+		/**
+		 * The substrings taken so far
+		 */
+		private final int[] path = new int[phoneNumber.length()];
+
+		/**
+		 * The suffixes being walked whose tails are recorded, the innermost last
+		 */
+		private final List<TailRecorder> recorders = new ArrayList<>();
+
+		private CachedWalk(SegmentationCache cache, long version, Consumer<Pattern> action, BooleanSupplier stop) {
+			this.cache = cache;
+			this.version = version;
+			this.action = action;
+			this.stop = stop;
+			this.suffixHashes = SegmentationCache.suffixHashes(phoneNumber);
+		}
+
+		/**
+		 * @param position
+		 * @param depth
+		 *            the number of substrings taken so far
+		 * @return false if the walk was stopped
+		 */
+		private boolean walk(int position, int depth) {
+			if (stop.getAsBoolean()) {
+				return false;
+			}
+			if (position > lastStart) {
+				// only the digit edges are left, the single tail is empty
+				emit(depth, EMPTY_TAIL, position);
+				return true;
+			}
+
+			TailRecorder recorder = null;
+			if (SegmentationCache.isCacheable(phoneNumber.length() - position)) {
+				int[][] tails = cache.get(version, phoneNumber, position, suffixHashes[position]);
+				if (tails != null) {
+					for (int[] tail : tails) {
+						if (stop.getAsBoolean()) {
+							return false;
+						}
+						emit(depth, tail, position);
+					}
+					return true;
+				}
+				recorder = new TailRecorder(position, depth);
+				recorders.add(recorder);
+			}
+
+			boolean completed = walkEdges(position, depth);
+			if (recorder != null) {
+				recorders.remove(recorders.size() - 1);
+				if (completed && recorder.tails != null) {
+					cache.put(version, phoneNumber, position, suffixHashes[position],
+							recorder.tails.toArray(new int[recorder.tails.size()][]));
+				}
+			}
+			return completed;
+		}
+
+		private boolean walkEdges(int position, int depth) {
+			for (int i = edgeOffsets[position]; i < edgeOffsets[position + 1]; i++) {
+				path[depth] = edges[i];
+				if (!walk(Pattern.endOf(edges[i]) + 1, depth + 1)) {
+					return false;
+				}
+			}
+
+			// leave the digit as it is
+			return walk(position + 1, depth);
+		}
+
+		/**
+		 * Hand over the pattern made of the path and a tail, and record it as a
+		 * tail of the suffixes being walked
+		 * 
+		 * @param depth
+		 * @param tail
+		 *            relative to the position
+		 * @param position
+		 */
+		private void emit(int depth, int[] tail, int position) {
+			int[] intervals = Arrays.copyOf(path, depth + tail.length);
+			shift(tail, 0, tail.length, position, intervals, depth);
+			for (TailRecorder recorder : recorders) {
+				recorder.record(intervals);
+			}
+			if (intervals.length > 0) {
+				action.accept(new Pattern(phoneNumber, intervals));
+			}
+		}
+
+		/**
+		 * Collects the tails of a suffix while it is walked, until it has too many
+		 * of them to be kept
+		 */
+		private final class TailRecorder {
+
+			private final int position;
+
+			/**
+			 * The number of substrings of the path before the suffix
+			 */
+			private final int depth;
+
+			/**
+			 * Null once there are more than the cache keeps
+			 */
+			private List<int[]> tails = new ArrayList<>();
+
+			private TailRecorder(int position, int depth) {
+				this.position = position;
+				this.depth = depth;
+			}
+
+			private void record(int[] intervals) {
+				if (tails == null) {
+					return;
+				}
+				if (tails.size() == cache.getMaxTailsPerSuffix()) {
+					tails = null;
+					return;
+				}
+				int[] tail = new int[intervals.length - depth];
+				shift(intervals, depth, intervals.length, -position, tail, 0);
+				tails.add(tail);
+			}
+		}
+	}
+
+	/**
+	 * Copy the substrings from source[from] to source[to - 1] into the target,
+	 * moved by the given distance
+	 * 
+	 * @param source
+	 * @param from
+	 * @param to
+	 *            exclusive
+	 * @param distance
+	 * @param target
+	 * @param offset
+	 *            the index of the first substring copied in the target
+	 */
+	private static void shift(int[] source, int from, int to, int distance, int[] target, int offset) {
+		for (int k = from; k < to; k++) {
+			target[offset + k - from] = Pattern.pack(Pattern.startOf(source[k]) + distance,
+					Pattern.endOf(source[k]) + distance);
+		}
+	}
+
+	/**
+	 * Follow every path from the given position to the end of the phone number
+	 * 
+	 * @param position
+	 * @param path
+	 *            the substrings taken so far, in path[0] to path[depth - 1]
+	 * @param depth
+	 * @param action
+	 * @param stop
+	 * @return false if the walk was stopped
+	 */
+	private boolean walk(int position, int[] path, int depth, Consumer<Pattern> action, BooleanSupplier stop) {
+		if (stop.getAsBoolean()) {
+			return false;
+		}
+		if (position > lastStart) {
+			/*
+			 * Only the digit edges are left, there is a single way to the end
+			 */
+			if (depth > 0) {
+				action.accept(new Pattern(phoneNumber, Arrays.copyOf(path, depth)));
+			}
+			return true;
+		}
+
+		for (int i = edgeOffsets[position]; i < edgeOffsets[position + 1]; i++) {
+			path[depth] = edges[i];
+			if (!walk(Pattern.endOf(edges[i]) + 1, path, depth + 1, action, stop)) {
+				return false;
+			}
+		}
+
+		// leave the digit as it is
+		return walk(position + 1, path, depth, action, stop);
+	}
+}
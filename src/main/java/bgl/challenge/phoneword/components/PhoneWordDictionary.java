@@ -3,9 +3,126 @@ package bgl.challenge.phoneword.components;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
 
 public interface PhoneWordDictionary {
 	public List<String> findPhonewords(String phoneNumber);
+
+	/**
+	 * The phonewords of many numbers at once, sharing the work of the numbers
+	 * with a common prefix
+	 * 
+	 * @param phoneNumbers
+	 * @return the phonewords of findPhonewords of each number, in the order of
+	 *         the numbers
+	 */
+	public List<List<String>> findPhonewordsBatch(Collection<String> phoneNumbers);
+
+	/**
+	 * The phonewords of every number of a block, e.g. 1800-555-0000 to
+	 * 1800-555-9999
+	 * 
+	 * @param firstNumber
+	 * @param lastNumber
+	 *            inclusive, as many digits as the first number
+	 * @return the phonewords of findPhonewords of each number of the block which
+	 *         has at least one, by ascending number
+	 */
+	public Map<String, List<String>> findPhonewordsInRange(String firstNumber, String lastNumber);
+
+	/**
+	 * A page of the phonewords of findPhonewords, which lists them in the same
+	 * order for as long as the dictionary doesn't change
+	 * 
+	 * @param phoneNumber
+	 * @param offset
+	 *            the number of phonewords before the page
+	 * @param limit
+	 *            the maximum number of phonewords in the page
+	 * @return
+	 */
+	public List<String> findPhonewords(String phoneNumber, long offset, int limit);
+
+	/**
+	 * The phonewords of findPhonewords, found within the limits of the options:
+	 * the query stops at its time budget, its maximum number of results or when
+	 * it is cancelled, and flags its result as truncated
+	 * 
+	 * @param phoneNumber
+	 * @param options
+	 * @return
+	 */
+	public QueryResult findPhonewords(String phoneNumber, QueryOptions options);
+
+	/**
+	 * The same phonewords as findPhonewords, generated lazily while the stream is
+	 * consumed instead of being collected into a list first
+	 * 
+	 * @param phoneNumber
+	 * @return
+	 */
+	public Stream<String> streamPhonewords(String phoneNumber);
+
+	/**
+	 * @param phoneNumber
+	 * @return the number of phonewords findPhonewords would return, counted
+	 *         without generating them
+	 */
+	public BigInteger countPhonewords(String phoneNumber);
+
+	/**
+	 * @param phoneNumber
+	 * @param k
+	 * @return the k phonewords with the highest score, the score of a phoneword
+	 *         being the sum of the scores of its words (see WordScores), best
+	 *         first
+	 */
+	public List<String> findTopPhonewords(String phoneNumber, int k);
+
+	/**
+	 * The most natural multi-word phonewords, whose sequence of words scores the
+	 * highest in the bigram model of the dictionary (see BigramModel), found by a
+	 * beam search: the work per number is bounded by the beam width, but a phrase
+	 * pruned early may be missed
+	 * 
+	 * @param phoneNumber
+	 * @param k
+	 * @param beamWidth
+	 *            the number of partial phrases kept at each position
+	 * @return at most k phonewords, and no more than beamWidth, best first
+	 */
+	public List<String> findTopPhrases(String phoneNumber, int k, int beamWidth);
+
+	/**
+	 * Open a session looking up a phone number while it is being keyed in, one
+	 * character at a time (see PhonewordSession)
+	 * 
+	 * @return
+	 */
+	public PhonewordSession newSession();
+
 	public void importFromFile(File f) throws FileNotFoundException, IOException;
+
+	/**
+	 * @return a number which increases each time the words of the dictionary
+	 *         change, the results of the lookups of the same version never
+	 *         change
+	 */
+	public long getVersion();
+
+	/**
+	 * Write the dictionary into a binary file which importFromFile loads much
+	 * faster than the original word list
+	 * 
+	 * @param f
+	 * @throws IOException
+	 */
+	public void compileToFile(File f) throws IOException;
 }
@@ -7,13 +7,22 @@ import bgl.challenge.phoneword.exception.UnknownCharacterException;
 
 public class PhoneWordEncoder implements WordEncoder {
 
+	private static final byte UNSUPPORTED = -1;
+
 	Map<Character, Integer> dictionary;
 
+	/**
+	 * The digit of each letter from 'a' to 'z', built from the dictionary map
+	 */
+	byte[] letterDigits;
+
 	public PhoneWordEncoder() {
 		initDictionaryMap();
+		initLetterDigits();
 	}
 
 	@Override
+	@Deprecated
 	public int encode(String originalWord) {
 		String word = originalWord.toLowerCase();
 		int result = 0;
@@ -32,6 +41,40 @@ public class PhoneWordEncoder implements WordEncoder {
 		return result;
 	}
 
+	@Override
+	public byte[] encodeToDigits(String word) {
+		byte[] digits = new byte[word.length()];
+		for (int i = 0; i < word.length(); i++) {
+			char c = word.charAt(i);
+			byte digit = digitOf(c);
+			if (digit == UNSUPPORTED) {
+				String errMsg = String.format("Cannot encode string [%s] which contain " + "unsupported character [%c]",
+						word, c);
+				throw new UnknownCharacterException(errMsg);
+			}
+			digits[i] = digit;
+		}
+		return digits;
+	}
+
+	private byte digitOf(char c) {
+		if (c >= 'A' && c <= 'Z') {
+			c = (char) (c - 'A' + 'a');
+		}
+		if (c < 'a' || c > 'z') {
+			return UNSUPPORTED;
+		}
+		return letterDigits[c - 'a'];
+	}
+
+	private void initLetterDigits() {
+		letterDigits = new byte[26];
+		for (char c = 'a'; c <= 'z'; c++) {
+			Integer digit = dictionary.get(c);
+			letterDigits[c - 'a'] = digit == null ? UNSUPPORTED : digit.byteValue();
+		}
+	}
+
 	private void initDictionaryMap() {
 		dictionary = new HashMap<Character, Integer>();
 		dictionary.put('a', 2);
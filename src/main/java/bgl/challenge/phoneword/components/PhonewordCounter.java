@@ -0,0 +1,120 @@
+package bgl.challenge.phoneword.components;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * @formatter:off
+ *
+ * Counts the valid phonewords of a phone number without generating them, by
+ * dynamic programming over its digit positions 0..n (see PatternSegmenter for
+ * the DAG of the patterns):
+ *
+ * ways(p, d) = the number of ways to complete the phoneword from position p,
+ *              d telling whether the character before p is an uncovered digit
+ *
+ * - leaving the character at p uncovered: ways(p + 1, isDigit(p)), unless both
+ *   it and the previous one are digits
+ * - covering p with a substring from p to end: (number of words of the
+ *   substring) * ways(end + 1, false)
+ *
+ * The count of ways(0, false) includes the single way of covering nothing at
+ * all, which is not a phoneword and is taken out at the end.
+ *
+ * This follows the rule of PhonewordSyntaxChecker: no two consecutive digits.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+class PhonewordCounter {
+
+	private final String phoneNumber;
+
+	/**
+	 * The substrings grouped by their start position, as in PatternSegmenter, with
+	 * the number of words of each one
+	 */
+	private final int[] edgeEnds;
+	private final int[] edgeWords;
+	private final int[] edgeOffsets;
+
+	/**
+	 * @param phoneNumber
+	 * @param subStrings
+	 *            the substrings of the phone number which are in the dictionary,
+	 *            in any order
+	 * @param noOfWords
+	 *            the number of words of each substring, in the same order
+	 */
+	PhonewordCounter(String phoneNumber, List<SubString> subStrings, int[] noOfWords) {
+		this.phoneNumber = phoneNumber;
+		int length = phoneNumber.length();
+
+		/*
+		 * Counting sort of the substrings by their start
+		 */
+		edgeOffsets = new int[length + 2];
+		for (SubString subString : subStrings) {
+			edgeOffsets[subString.getStart() + 1]++;
+		}
+		for (int i = 1; i < edgeOffsets.length; i++) {
+			edgeOffsets[i] += edgeOffsets[i - 1];
+		}
+		edgeEnds = new int[subStrings.size()];
+		edgeWords = new int[subStrings.size()];
+		int[] next = new int[length + 1];
+		System.arraycopy(edgeOffsets, 0, next, 0, length + 1);
+		for (int i = 0; i < subStrings.size(); i++) {
+			SubString subString = subStrings.get(i);
+			int edge = next[subString.getStart()]++;
+			edgeEnds[edge] = subString.getEnd();
+			edgeWords[edge] = noOfWords[i];
+		}
+	}
+
+	/**
+	 * @return the number of valid phonewords of the phone number
+	 */
+	BigInteger count() {
+		int length = phoneNumber.length();
+		/*
+		 * afterDigit[p] = ways(p, true), afterOther[p] = ways(p, false)
+		 */
+		BigInteger[] afterDigit = new BigInteger[length + 1];
+		BigInteger[] afterOther = new BigInteger[length + 1];
+		afterDigit[length] = BigInteger.ONE;
+		afterOther[length] = BigInteger.ONE;
+
+		/*
+		 * Whether the phone number can be left entirely uncovered from p on without
+		 * breaking the rule, i.e. the way of covering nothing
+		 */
+		boolean uncoveredIsValid = true;
+
+		for (int p = length - 1; p >= 0; p--) {
+			BigInteger covered = BigInteger.ZERO;
+			for (int i = edgeOffsets[p]; i < edgeOffsets[p + 1]; i++) {
+				covered = covered.add(BigInteger.valueOf(edgeWords[i]).multiply(afterOther[edgeEnds[i] + 1]));
+			}
+
+			if (isDigit(p)) {
+				afterDigit[p] = covered;
+				afterOther[p] = covered.add(afterDigit[p + 1]);
+				uncoveredIsValid &= p + 1 == length || !isDigit(p + 1);
+			} else {
+				afterDigit[p] = covered.add(afterOther[p + 1]);
+				afterOther[p] = afterDigit[p];
+			}
+		}
+
+		return uncoveredIsValid ? afterOther[0].subtract(BigInteger.ONE) : afterOther[0];
+	}
+
+	private boolean isDigit(int position) {
+		char c = phoneNumber.charAt(position);
+		return c >= '0' && c <= '9';
+	}
+}
@@ -12,4 +12,18 @@ public interface PhonewordFormatter {
 	 * @return
 	 */
 	public String format(String phoneword, Pattern pattern);
+
+	/**
+	 * Append the formatted phoneword to the sink, which lets the caller reuse the
+	 * same sink for many phonewords
+	 * 
+	 * @param phoneword
+	 *            unformatted phoneword
+	 * @param pattern
+	 *            the pattern which generates the phoneword
+	 * @param sink
+	 */
+	public default void formatTo(CharSequence phoneword, Pattern pattern, StringBuilder sink) {
+		sink.append(format(phoneword.toString(), pattern));
+	}
 }
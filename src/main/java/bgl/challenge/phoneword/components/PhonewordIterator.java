@@ -0,0 +1,152 @@
+package bgl.challenge.phoneword.components;
+
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import bgl.challenge.phoneword.models.Pattern;
+
+/**
+ * @formatter:off
+ *
+ * Iterates over the candidate phonewords of a pattern, i.e. every combination
+ * of one dictionary word per substring, without materializing them.
+ *
+ * The combinations are counted by a mixed-radix counter: digit k of the
+ * counter is the index of the word picked for the k-th substring, and its
+ * radix is the number of words of that substring. The last substring changes
+ * fastest, e.g. for the buckets [AAA, BBB] and [DDD, EEE]:
+ * - AAA/DDD, AAA/EEE, BBB/DDD, BBB/EEE
+ *
+ * Only the counter is kept between two candidates, so the memory used doesn't
+ * depend on the number of combinations, which may not even fit in an int.
+ *
+ * The candidates are written into a single buffer: a word has as many letters
+ * as its number has digits, so it overwrites its substring in place, and only
+ * the words which changed since the previous candidate are written again.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+class PhonewordIterator implements Iterator<String> {
+
+	private final String phoneNumber;
+
+	private final Pattern pattern;
+
+	/**
+	 * The dictionary words of each substring of the pattern
+	 */
+	private final List<String>[] bucketWords;
+
+	private final int[] counter;
+
+	/**
+	 * The current candidate, and a view of it handed to the callers
+	 */
+	private final char[] buffer;
+	private final CharBuffer view;
+
+	/**
+	 * The words of the substrings from this one on are not in the buffer yet
+	 */
+	private int firstChanged;
+
+	private boolean exhausted;
+
+	/**
+	 * @param phoneNumber
+	 * @param pattern
+	 * @param bucketWords
+	 *            the dictionary words of each substring of the pattern, in the
+	 *            order of their start
+	 */
+	PhonewordIterator(String phoneNumber, Pattern pattern, List<String>[] bucketWords) {
+		this.phoneNumber = phoneNumber;
+		this.pattern = pattern;
+		this.bucketWords = bucketWords;
+		this.counter = new int[bucketWords.length];
+		this.buffer = phoneNumber.toCharArray();
+		this.view = CharBuffer.wrap(buffer);
+		for (List<String> words : bucketWords) {
+			// a substring without any word leaves nothing to combine
+			exhausted |= words.isEmpty();
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !exhausted;
+	}
+
+	@Override
+	public String next() {
+		return nextCandidate().toString();
+	}
+
+	/**
+	 * The next candidate without copying it into a String
+	 * 
+	 * @return a view of the buffer, which is overwritten by the following call
+	 */
+	CharSequence nextCandidate() {
+		if (exhausted) {
+			throw new NoSuchElementException();
+		}
+		for (int k = firstChanged; k < counter.length; k++) {
+			String word = bucketWords[k].get(counter[k]);
+			word.getChars(0, word.length(), buffer, pattern.getStart(k));
+		}
+		increment();
+		return view;
+	}
+
+	/**
+	 * @return the number of combinations, or Long.MAX_VALUE if there are more
+	 */
+	long size() {
+		long size = 1;
+		for (List<String> words : bucketWords) {
+			if (size > Long.MAX_VALUE / Math.max(words.size(), 1)) {
+				return Long.MAX_VALUE;
+			}
+			size *= words.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Jump over the given number of combinations without constructing them, by
+	 * adding it to the counter
+	 * 
+	 * @param n
+	 */
+	void skip(long n) {
+		long carry = n;
+		for (int k = counter.length - 1; k >= 0 && carry > 0 && !exhausted; k--) {
+			int radix = bucketWords[k].size();
+			long digit = counter[k] + carry % radix;
+			counter[k] = (int) (digit % radix);
+			carry = carry / radix + digit / radix;
+		}
+		exhausted |= carry > 0;
+		// the words in the buffer may all be stale
+		firstChanged = 0;
+	}
+
+	/**
+	 * Move the counter to the next combination, carrying to the left
+	 */
+	private void increment() {
+		for (int k = counter.length - 1; k >= 0; k--) {
+			if (++counter[k] < bucketWords[k].size()) {
+				firstChanged = k;
+				return;
+			}
+			counter[k] = 0;
+		}
+		exhausted = true;
+	}
+}
@@ -0,0 +1,238 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * @formatter:off
+ *
+ * Looks up a phone number while it is being keyed in, e.g. by the caller of an
+ * IVR: the characters are pushed one at a time, and the phonewords of the
+ * characters so far can be asked for after each one.
+ *
+ * Nothing is looked up again from the start of the number:
+ * - a MatchCursor finds the substrings ending at each new character
+ * - the segmentations of each prefix of the number (the heads) are kept by
+ *   position; the heads of a new character are the heads of the previous
+ *   position with the character left uncovered, plus the heads of the start of
+ *   each new substring followed by it
+ *
+ * The heads share their common part, each one costs a single node. Breaking
+ * the rule of PhonewordSyntaxChecker, two uncovered digits in a row, drops a
+ * head as soon as it happens, the rules of the other checkers are checked when
+ * the phonewords are asked for.
+ *
+ * The phonewords are the ones of findPhonewords for the same characters,
+ * possibly in another order. A session sees the words of the dictionary when
+ * it was opened, and is not thread safe.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class PhonewordSession {
+
+	private final DefaultPhoneWordDictionary dictionary;
+
+	private final DictionarySnapshot snapshot;
+
+	/**
+	 * Whether two uncovered digits may follow each other in a head
+	 */
+	private final boolean consecutiveDigitsAllowed;
+
+	private final MatchCursor cursor;
+
+	private final StringBuilder phoneNumber = new StringBuilder();
+
+	/**
+	 * The heads of each prefix, headsByPosition.get(p) for the first p characters
+	 */
+	private final List<List<Head>> headsByPosition = new ArrayList<>();
+
+	/**
+	 * @param dictionary
+	 *            constructs and formats the phonewords
+	 * @param snapshot
+	 *            the words looked up
+	 * @param decidedByPattern
+	 *            true if the syntax checker is decided by pattern (see
+	 *            SyntaxChecker.isDecidedByPattern), to drop the heads breaking
+	 *            its rule right away
+	 */
+	PhonewordSession(DefaultPhoneWordDictionary dictionary, DictionarySnapshot snapshot, boolean decidedByPattern) {
+		this.dictionary = dictionary;
+		this.snapshot = snapshot;
+		this.consecutiveDigitsAllowed = !decidedByPattern;
+		this.cursor = snapshot.newMatchCursor();
+		List<Head> start = new ArrayList<>(1);
+		start.add(Head.START);
+		headsByPosition.add(start);
+	}
+
+	/**
+	 * Append a character to the phone number, spaces and punctuations are
+	 * ignored as they are by findPhonewords
+	 * 
+	 * @param c
+	 * @return false if the character was ignored
+	 */
+	public boolean push(char c) {
+		if (!Character.isLetterOrDigit(c)) {
+			return false;
+		}
+		int position = phoneNumber.length();
+		phoneNumber.append(c);
+		cursor.push(c);
+
+		List<Head> previous = headsByPosition.get(position);
+		List<Head> heads = new ArrayList<>(previous.size() + 4);
+
+		// leave the character as it is
+		boolean digit = c >= '0' && c <= '9';
+		for (Head head : previous) {
+			if (consecutiveDigitsAllowed || !digit || !head.afterDigit) {
+				heads.add(new Head(head, Head.UNCOVERED, digit, head.covered));
+			}
+		}
+
+		// or end a substring with it
+		for (SubString subString : cursor.getLastSubStrings(phoneNumber.toString())) {
+			int interval = Pattern.pack(subString.getStart(), subString.getEnd());
+			for (Head head : headsByPosition.get(subString.getStart())) {
+				heads.add(new Head(head, interval, false, true));
+			}
+		}
+		headsByPosition.add(heads);
+		return true;
+	}
+
+	/**
+	 * Append every character of the given string
+	 * 
+	 * @param characters
+	 */
+	public void pushAll(CharSequence characters) {
+		for (int i = 0; i < characters.length(); i++) {
+			push(characters.charAt(i));
+		}
+	}
+
+	/**
+	 * Remove the last character of the phone number, e.g. when the caller
+	 * corrects a digit
+	 * 
+	 * @throws IllegalStateException
+	 *             if there is no character left
+	 */
+	public void pop() {
+		if (phoneNumber.length() == 0) {
+			throw new IllegalStateException("No character to pop");
+		}
+		phoneNumber.setLength(phoneNumber.length() - 1);
+		cursor.pop();
+		headsByPosition.remove(headsByPosition.size() - 1);
+	}
+
+	/**
+	 * @return the characters pushed so far, without spaces and punctuations
+	 */
+	public String getPhoneNumber() {
+		return phoneNumber.toString();
+	}
+
+	/**
+	 * @return the number of segmentations of the characters so far which take at
+	 *         least one word
+	 */
+	public int getNoOfPatterns() {
+		int noOfPatterns = 0;
+		for (Head head : headsByPosition.get(phoneNumber.length())) {
+			if (head.covered) {
+				noOfPatterns++;
+			}
+		}
+		return noOfPatterns;
+	}
+
+	/**
+	 * @return the phonewords of the characters so far
+	 */
+	public List<String> getPhonewords() {
+		return getPhonewords(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param limit
+	 *            the maximum number of phonewords
+	 * @return the phonewords of the characters so far, at most limit of them
+	 */
+	public List<String> getPhonewords(int limit) {
+		if (limit < 0) {
+			String errMsg = String.format("Invalid number of phonewords [%d]", limit);
+			throw new IllegalArgumentException(errMsg);
+		}
+		String number = phoneNumber.toString();
+		List<String> phonewords = new ArrayList<>();
+		int[] intervals = new int[number.length()];
+		for (Head head : headsByPosition.get(number.length())) {
+			if (phonewords.size() >= limit) {
+				break;
+			}
+			if (!head.covered) {
+				continue;
+			}
+			int noOfIntervals = 0;
+			for (Head h = head; h != Head.START; h = h.parent) {
+				if (h.interval != Head.UNCOVERED) {
+					intervals[noOfIntervals++] = h.interval;
+				}
+			}
+			Pattern pattern = new Pattern(number, Arrays.copyOf(intervals, noOfIntervals));
+			dictionary.streamPhonewordsPerPattern(snapshot, number, pattern).limit(limit - phonewords.size())
+					.forEach(phonewords::add);
+		}
+		return phonewords;
+	}
+
+	/**
+	 * A segmentation of a prefix of the phone number, the last step of which is
+	 * either a character left uncovered or a substring ending at the last
+	 * character of the prefix
+	 */
+	private static final class Head {
+
+		static final int UNCOVERED = -1;
+
+		static final Head START = new Head(null, UNCOVERED, false, false);
+
+		/**
+		 * The head before the last step
+		 */
+		final Head parent;
+		/**
+		 * The substring of the last step packed with Pattern.pack, UNCOVERED if the
+		 * last step left a character uncovered
+		 */
+		final int interval;
+		/**
+		 * Whether the last step left an uncovered digit
+		 */
+		final boolean afterDigit;
+		/**
+		 * Whether a substring was taken so far
+		 */
+		final boolean covered;
+
+		Head(Head parent, int interval, boolean afterDigit, boolean covered) {
+			this.parent = parent;
+			this.interval = interval;
+			this.afterDigit = afterDigit;
+			this.covered = covered;
+		}
+	}
+}
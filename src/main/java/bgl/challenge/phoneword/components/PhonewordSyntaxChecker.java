@@ -1,9 +1,16 @@
 package bgl.challenge.phoneword.components;
 
+import bgl.challenge.phoneword.models.Pattern;
+
 public class PhonewordSyntaxChecker implements SyntaxChecker {
 
 	@Override
 	public boolean isValid(String phoneword) {
+		return isValid((CharSequence) phoneword);
+	}
+
+	@Override
+	public boolean isValid(CharSequence phoneword) {
 		boolean result = true;
 
 		// Fail if contain consecutive digits
@@ -12,8 +19,50 @@ public class PhonewordSyntaxChecker implements SyntaxChecker {
 		return result;
 	}
 
-	boolean containConsecutiveDigits(String phoneword) {
-		boolean b = phoneword.matches(".*\\d\\d.*");
-		return b;
+	/**
+	 * The dictionary words are made of letters only, so the digits of a phoneword
+	 * are exactly the digits its pattern leaves uncovered
+	 */
+	@Override
+	public boolean isValidPattern(Pattern pattern) {
+		String phoneNumber = pattern.getOriginalPhoneNumber();
+		int position = 0;
+		for (int k = 0; k < pattern.size(); k++) {
+			if (containConsecutiveDigits(phoneNumber, position, pattern.getStart(k))) {
+				return false;
+			}
+			position = pattern.getEnd(k) + 1;
+		}
+		return !containConsecutiveDigits(phoneNumber, position, phoneNumber.length());
+	}
+
+	@Override
+	public boolean isDecidedByPattern() {
+		return true;
+	}
+
+	boolean containConsecutiveDigits(CharSequence phoneword) {
+		return containConsecutiveDigits(phoneword, 0, phoneword.length());
+	}
+
+	/**
+	 * @param phoneword
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            exclusive
+	 * @return
+	 */
+	private boolean containConsecutiveDigits(CharSequence phoneword, int start, int end) {
+		boolean previousIsDigit = false;
+		for (int i = start; i < end; i++) {
+			char c = phoneword.charAt(i);
+			boolean isDigit = c >= '0' && c <= '9';
+			if (isDigit && previousIsDigit) {
+				return true;
+			}
+			previousIsDigit = isDigit;
+		}
+		return false;
 	}
-}
\ No newline at end of file
+}
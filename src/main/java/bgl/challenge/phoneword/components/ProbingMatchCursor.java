@@ -0,0 +1,36 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.Arrays;
+
+/**
+ * The MatchCursor of the matchers which cannot match incrementally: each
+ * character pushed probes every substring ending at it with
+ * SubStringMatcher.contains.
+ * 
+ * @author luant
+ *
+ */
+class ProbingMatchCursor extends AbstractMatchCursor {
+
+	private final SubStringMatcher subStringMatcher;
+
+	private char[] characters = new char[16];
+
+	ProbingMatchCursor(SubStringMatcher subStringMatcher) {
+		this.subStringMatcher = subStringMatcher;
+	}
+
+	@Override
+	protected void advance(int position, char c) {
+		if (position == characters.length) {
+			characters = Arrays.copyOf(characters, position * 2);
+		}
+		characters[position] = c;
+		for (int start = 0; start <= position; start++) {
+			String candidate = new String(characters, start, position - start + 1);
+			if (subStringMatcher.contains(candidate)) {
+				addMatch(start, position, candidate);
+			}
+		}
+	}
+}
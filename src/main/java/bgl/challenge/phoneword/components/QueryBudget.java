@@ -0,0 +1,92 @@
+package bgl.challenge.phoneword.components;
+
+import bgl.challenge.phoneword.models.CancellationToken;
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
+
+/**
+ * Tracks the limits of a query while it runs (see QueryOptions). The query
+ * asks isExhausted at each step of its loops and stops once it returns true;
+ * the reason is kept for its result.
+ * 
+ * <p>
+ * The clock is only read every CLOCK_CHECK_INTERVAL steps, which keeps the
+ * checks cheap in the tightest loops. It is not thread safe, each query has
+ * its own.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+class QueryBudget {
+
+	static final int CLOCK_CHECK_INTERVAL = 256;
+
+	private final QueryOptions options;
+
+	/**
+	 * In System.nanoTime, meaningless without a time budget
+	 */
+	private final long deadline;
+
+	/**
+	 * Starts full, so that the first step reads the clock
+	 */
+	private int stepsSinceClockCheck = CLOCK_CHECK_INTERVAL - 1;
+
+	private QueryResult.Status status = QueryResult.Status.COMPLETE;
+
+	/**
+	 * Start the clock of a query
+	 * 
+	 * @param options
+	 */
+	QueryBudget(QueryOptions options) {
+		this.options = options;
+		this.deadline = System.nanoTime() + options.getTimeBudgetNanos();
+	}
+
+	/**
+	 * @return true if the query must stop
+	 */
+	boolean isExhausted() {
+		if (status != QueryResult.Status.COMPLETE) {
+			return true;
+		}
+		CancellationToken token = options.getCancellationToken();
+		if (token != null && token.isCancelled()) {
+			status = QueryResult.Status.CANCELLED;
+			return true;
+		}
+		if (options.hasTimeBudget() && ++stepsSinceClockCheck >= CLOCK_CHECK_INTERVAL) {
+			stepsSinceClockCheck = 0;
+			// compared by difference, nanoTime may overflow
+			if (System.nanoTime() - deadline >= 0) {
+				status = QueryResult.Status.DEADLINE_EXCEEDED;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param noOfResults
+	 *            the number of results found so far
+	 * @return true if there is room for one more
+	 */
+	boolean hasRoomFor(int noOfResults) {
+		if (noOfResults < options.getMaxResults()) {
+			return true;
+		}
+		status = QueryResult.Status.MAX_RESULTS_REACHED;
+		return false;
+	}
+
+	int getMaxResults() {
+		return options.getMaxResults();
+	}
+
+	QueryResult.Status getStatus() {
+		return status;
+	}
+}
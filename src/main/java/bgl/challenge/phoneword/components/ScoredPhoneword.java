@@ -0,0 +1,34 @@
+package bgl.challenge.phoneword.components;
+
+import bgl.challenge.phoneword.models.Pattern;
+
+/**
+ * An unformatted phoneword found by a search, the pattern it was constructed
+ * from and its score
+ * 
+ * @author luant
+ *
+ */
+final class ScoredPhoneword {
+	private final String phoneword;
+	private final Pattern pattern;
+	private final double score;
+
+	ScoredPhoneword(String phoneword, Pattern pattern, double score) {
+		this.phoneword = phoneword;
+		this.pattern = pattern;
+		this.score = score;
+	}
+
+	String getPhoneword() {
+		return phoneword;
+	}
+
+	Pattern getPattern() {
+		return pattern;
+	}
+
+	double getScore() {
+		return score;
+	}
+}
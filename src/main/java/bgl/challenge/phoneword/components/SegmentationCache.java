@@ -0,0 +1,330 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * @formatter:off
+ *
+ * Remembers the segmentations of the suffixes of the phone numbers looked up,
+ * so that the numbers sharing a suffix, e.g. the same exchange and line
+ * block, don't walk it again (see PatternSegmenter).
+ *
+ * The segmentations of a suffix are the paths from its first position to the
+ * end of the number (the tails), each one an array of substrings packed with
+ * Pattern.pack, relative to the start of the suffix. They only depend on the
+ * digits of the suffix and on the words of the dictionary, so they are keyed
+ * by the suffix and by the version of the dictionary snapshot: a lookup of
+ * another version empties the cache.
+ *
+ * - a suffix is looked up by the phone number, its start and its hash (see
+ *   suffixHashes), it is never copied out of the phone number
+ * - the suffixes shorter than MIN_SUFFIX_LENGTH are not kept, their few
+ *   tails are combined faster than they are looked up
+ * - the suffixes are spread over independent stripes, each one guarded by its
+ *   own lock, so the lookups of a parallel batch rarely wait for each other
+ *
+ * Each stripe is bounded by its share of the total number of tails, the least
+ * recently used suffixes are evicted first; a suffix with more than
+ * maxTailsPerSuffix tails is not kept at all.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+class SegmentationCache {
+
+	static final int DEFAULT_MAX_TAILS = 1 << 20;
+
+	static final int DEFAULT_MAX_TAILS_PER_SUFFIX = 1 << 12;
+
+	static final int DEFAULT_NO_OF_STRIPES = 16;
+
+	static final int MIN_SUFFIX_LENGTH = 6;
+
+	private final int maxTailsPerSuffix;
+
+	private final Stripe[] stripes;
+
+	private final int stripeMask;
+
+	/**
+	 * Factory pattern
+	 * 
+	 * @return a cache of the default bounds
+	 */
+	static SegmentationCache getInstance() {
+		return new SegmentationCache(DEFAULT_MAX_TAILS, DEFAULT_MAX_TAILS_PER_SUFFIX, DEFAULT_NO_OF_STRIPES);
+	}
+
+	/**
+	 * A cache of a single stripe, the least recently used suffix of all is evicted
+	 * first
+	 * 
+	 * @param maxTails
+	 *            the total number of tails kept
+	 * @param maxTailsPerSuffix
+	 *            the suffixes with more tails are not kept
+	 */
+	SegmentationCache(int maxTails, int maxTailsPerSuffix) {
+		this(maxTails, maxTailsPerSuffix, 1);
+	}
+
+	/**
+	 * @param maxTails
+	 *            the total number of tails kept, shared evenly by the stripes
+	 * @param maxTailsPerSuffix
+	 *            the suffixes with more tails are not kept
+	 * @param noOfStripes
+	 *            rounded up to a power of two
+	 */
+	SegmentationCache(int maxTails, int maxTailsPerSuffix, int noOfStripes) {
+		if (noOfStripes <= 0) {
+			throw new IllegalArgumentException("The number of stripes must be positive");
+		}
+		int capacity = Integer.highestOneBit(noOfStripes * 2 - 1);
+		this.maxTailsPerSuffix = maxTailsPerSuffix;
+		this.stripes = new Stripe[capacity];
+		for (int i = 0; i < capacity; i++) {
+			stripes[i] = new Stripe(Math.max(1, maxTails / capacity));
+		}
+		this.stripeMask = capacity - 1;
+	}
+
+	/**
+	 * @param phoneNumber
+	 * @return the hash of each suffix, hashes[i] being the hash of the suffix
+	 *         starting at i, as String.hashCode would compute it
+	 */
+	static int[] suffixHashes(CharSequence phoneNumber) {
+		int length = phoneNumber.length();
+		int[] hashes = new int[length + 1];
+		int power = 1;
+		for (int i = length - 1; i >= 0; i--) {
+			hashes[i] = phoneNumber.charAt(i) * power + hashes[i + 1];
+			power *= 31;
+		}
+		return hashes;
+	}
+
+	/**
+	 * @param suffixLength
+	 * @return true if the tails of a suffix of this length can be kept
+	 */
+	static boolean isCacheable(int suffixLength) {
+		return suffixLength >= MIN_SUFFIX_LENGTH;
+	}
+
+	/**
+	 * @param version
+	 *            of the dictionary snapshot of the lookup
+	 * @param suffix
+	 * @return the tails of the suffix, which must not be modified, or null if
+	 *         they are not known
+	 */
+	int[][] get(long version, String suffix) {
+		return get(version, suffix, 0, suffix.hashCode());
+	}
+
+	/**
+	 * @param version
+	 *            of the dictionary snapshot of the lookup
+	 * @param phoneNumber
+	 * @param start
+	 *            of the suffix
+	 * @param hash
+	 *            of the suffix, see suffixHashes
+	 * @return the tails of the suffix, which must not be modified, or null if
+	 *         they are not known
+	 */
+	int[][] get(long version, String phoneNumber, int start, int hash) {
+		Stripe stripe = stripeOf(hash);
+		synchronized (stripe) {
+			if (!stripe.checkVersion(version)) {
+				return null;
+			}
+			int[][] tails = stripe.tailsBySuffix.get(new Suffix(phoneNumber, start, hash));
+			if (tails == null) {
+				stripe.misses++;
+			} else {
+				stripe.hits++;
+			}
+			return tails;
+		}
+	}
+
+	/**
+	 * @param version
+	 *            of the dictionary snapshot of the lookup
+	 * @param suffix
+	 * @param tails
+	 *            must not be modified afterwards
+	 */
+	void put(long version, String suffix, int[][] tails) {
+		put(version, suffix, 0, suffix.hashCode(), tails);
+	}
+
+	/**
+	 * @param version
+	 *            of the dictionary snapshot of the lookup
+	 * @param phoneNumber
+	 * @param start
+	 *            of the suffix
+	 * @param hash
+	 *            of the suffix, see suffixHashes
+	 * @param tails
+	 *            must not be modified afterwards
+	 */
+	void put(long version, String phoneNumber, int start, int hash, int[][] tails) {
+		if (tails.length > maxTailsPerSuffix) {
+			return;
+		}
+		Stripe stripe = stripeOf(hash);
+		synchronized (stripe) {
+			if (stripe.checkVersion(version)) {
+				stripe.put(new Suffix(phoneNumber, start, hash), tails);
+			}
+		}
+	}
+
+	int getMaxTailsPerSuffix() {
+		return maxTailsPerSuffix;
+	}
+
+	int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.tailsBySuffix.size();
+			}
+		}
+		return size;
+	}
+
+	long getHits() {
+		long hits = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				hits += stripe.hits;
+			}
+		}
+		return hits;
+	}
+
+	long getMisses() {
+		long misses = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				misses += stripe.misses;
+			}
+		}
+		return misses;
+	}
+
+	void clear() {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	private Stripe stripeOf(int hash) {
+		// the low bits of the hash of similar suffixes are the least spread
+		return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+	}
+
+	/**
+	 * The suffixes of a stripe, guarded by the lock of the stripe
+	 */
+	private static final class Stripe {
+
+		private final int maxTails;
+
+		/**
+		 * In access order, the least recently used first
+		 */
+		private final LinkedHashMap<Suffix, int[][]> tailsBySuffix = new LinkedHashMap<>(64, 0.75f, true);
+
+		private long version = -1;
+
+		private int noOfTails;
+
+		private long hits;
+
+		private long misses;
+
+		private Stripe(int maxTails) {
+			this.maxTails = maxTails;
+		}
+
+		private void put(Suffix suffix, int[][] tails) {
+			int[][] previous = tailsBySuffix.put(suffix, tails);
+			noOfTails += tails.length - (previous == null ? 0 : previous.length);
+
+			Iterator<int[][]> leastRecentlyUsed = tailsBySuffix.values().iterator();
+			while (noOfTails > maxTails && leastRecentlyUsed.hasNext()) {
+				noOfTails -= leastRecentlyUsed.next().length;
+				leastRecentlyUsed.remove();
+			}
+		}
+
+		private void clear() {
+			tailsBySuffix.clear();
+			noOfTails = 0;
+		}
+
+		/**
+		 * The tails of an older version of the dictionary are stale, a lookup still
+		 * using an older version bypasses the cache
+		 * 
+		 * @param version
+		 * @return false if the version is older than the one of the stripe
+		 */
+		private boolean checkVersion(long version) {
+			if (version > this.version) {
+				clear();
+				this.version = version;
+			}
+			return version == this.version;
+		}
+	}
+
+	/**
+	 * A suffix of a phone number, equal to the suffixes of other numbers with
+	 * the same digits
+	 */
+	private static final class Suffix {
+
+		private final String phoneNumber;
+
+		private final int start;
+
+		private final int hash;
+
+		private Suffix(String phoneNumber, int start, int hash) {
+			this.phoneNumber = phoneNumber;
+			this.start = start;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Suffix)) {
+				return false;
+			}
+			Suffix other = (Suffix) obj;
+			int length = phoneNumber.length() - start;
+			return hash == other.hash && length == other.phoneNumber.length() - other.start
+					&& phoneNumber.regionMatches(start, other.phoneNumber, other.start, length);
+		}
+	}
+}
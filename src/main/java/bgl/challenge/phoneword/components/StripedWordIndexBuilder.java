@@ -0,0 +1,161 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.BitSet;
+
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * @formatter:off
+ *
+ * Collects words from many threads at once.
+ *
+ * - the encoded numbers are spread over independent stripes, each one a
+ *   PackedWordIndex guarded by its own lock, so threads adding words of
+ *   different stripes don't wait for each other
+ * - the word lengths are recorded per stripe, under the same lock
+ *
+ * build() merges the stripes into a single PackedWordIndex once the words
+ * are added. The words of an encoded number keep the order in which they
+ * were added.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class StripedWordIndexBuilder {
+
+	public static final int DEFAULT_NO_OF_STRIPES = 64;
+
+	private final PackedWordIndex[] stripes;
+
+	/**
+	 * The lengths of the words of each stripe, guarded by the lock of the stripe
+	 */
+	private final BitSet[] stripeWordLengths;
+
+	private final int stripeMask;
+
+	public StripedWordIndexBuilder() {
+		this(DEFAULT_NO_OF_STRIPES);
+	}
+
+	/**
+	 * @param noOfStripes
+	 *            rounded up to a power of two
+	 */
+	public StripedWordIndexBuilder(int noOfStripes) {
+		if (noOfStripes <= 0) {
+			throw new IllegalArgumentException("The number of stripes must be positive");
+		}
+		int capacity = Integer.highestOneBit(noOfStripes * 2 - 1);
+		stripes = new PackedWordIndex[capacity];
+		stripeWordLengths = new BitSet[capacity];
+		for (int i = 0; i < capacity; i++) {
+			stripes[i] = new PackedWordIndex();
+			stripeWordLengths[i] = new BitSet();
+		}
+		stripeMask = capacity - 1;
+	}
+
+	/**
+	 * Add a word, safe to call from any thread
+	 * 
+	 * @param encodedNumber
+	 * @param word
+	 * @return true if the encoded number was not added yet
+	 */
+	public boolean add(String encodedNumber, String word) {
+		long key = PackedDigits.pack(encodedNumber);
+		boolean newKey;
+		int stripeId = key != PackedDigits.NOT_PACKABLE ? stripeOf(key) : stripeOf(encodedNumber.hashCode());
+		PackedWordIndex stripe = stripes[stripeId];
+		synchronized (stripe) {
+			if (key != PackedDigits.NOT_PACKABLE) {
+				newKey = stripe.add(key, word);
+			} else {
+				newKey = stripe.add(encodedNumber, word);
+			}
+			stripeWordLengths[stripeId].set(word.length());
+		}
+		return newKey;
+	}
+
+	/**
+	 * Add every word of another index, safe to call from any thread
+	 * 
+	 * @param other
+	 */
+	public void addAll(WordIndex other) {
+		for (int bucket = 0; bucket < other.getNoOfBuckets(); bucket++) {
+			String encodedNumber = other.getEncodedNumber(bucket);
+			for (int i = 0; i < other.getBucketSize(bucket); i++) {
+				add(encodedNumber, other.getWord(bucket, i));
+			}
+		}
+	}
+
+	/**
+	 * Merge the stripes; no word may be added meanwhile
+	 * 
+	 * @return
+	 */
+	public PackedWordIndex build() {
+		int noOfBuckets = 0;
+		for (PackedWordIndex stripe : stripes) {
+			noOfBuckets += stripe.getNoOfBuckets();
+		}
+
+		PackedWordIndex index = new PackedWordIndex(noOfBuckets);
+		for (PackedWordIndex stripe : stripes) {
+			for (int bucket = 0; bucket < stripe.getNoOfBuckets(); bucket++) {
+				long key = stripe.getKey(bucket);
+				for (int i = 0; i < stripe.getBucketSize(bucket); i++) {
+					if (key != PackedDigits.NOT_PACKABLE) {
+						index.add(key, stripe.getWord(bucket, i));
+					} else {
+						index.add(stripe.getEncodedNumber(bucket), stripe.getWord(bucket, i));
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Merge the word lengths of the stripes; no word may be added meanwhile
+	 * 
+	 * @return bit n is set if a word of length n was added
+	 */
+	public BitSet getWordLengths() {
+		BitSet wordLengths = new BitSet();
+		for (BitSet lengths : stripeWordLengths) {
+			wordLengths.or(lengths);
+		}
+		return wordLengths;
+	}
+
+	/**
+	 * No word may be added meanwhile
+	 * 
+	 * @return the length of the shortest word added, 0 if there is none
+	 */
+	public int getShortestWordLength() {
+		BitSet wordLengths = getWordLengths();
+		return wordLengths.isEmpty() ? 0 : wordLengths.nextSetBit(0);
+	}
+
+	/**
+	 * No word may be added meanwhile
+	 * 
+	 * @return the length of the longest word added, 0 if there is none
+	 */
+	public int getLongestWordLength() {
+		BitSet wordLengths = getWordLengths();
+		return wordLengths.isEmpty() ? 0 : wordLengths.length() - 1;
+	}
+
+	private int stripeOf(long key) {
+		// Fibonacci hashing, the highest bits are the best spread
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+	}
+}
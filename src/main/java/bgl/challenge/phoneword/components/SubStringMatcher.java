@@ -0,0 +1,68 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.Comparator;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * Finds the substrings of a phone number which are encoded numbers of the
+ * dictionary.
+ * 
+ * @author luant
+ *
+ */
+public interface SubStringMatcher {
+
+	/**
+	 * The order of the substrings returned by the matchers: shorter substrings
+	 * first, then by their position in the phone number.
+	 */
+	public static final Comparator<SubString> LENGTH_THEN_START = Comparator
+			.comparingInt((SubString subString) -> subString.getEnd() - subString.getStart())
+			.thenComparingInt(SubString::getStart);
+
+	/**
+	 * Add an encoded number into the matcher
+	 * 
+	 * @param encodedNumber
+	 *            a string of digits
+	 * @return true if the encoded number was not in the matcher yet
+	 */
+	public boolean add(String encodedNumber);
+
+	/**
+	 * Checking if an encoded number is in the matcher
+	 * 
+	 * @param encodedNumber
+	 * @return
+	 */
+	public boolean contains(String encodedNumber);
+
+	/**
+	 * Find all substrings of the phone number which are encoded numbers in the
+	 * matcher.
+	 * 
+	 * @param phoneNumber
+	 *            the phone number without spaces and punctuations
+	 * @return the substrings ordered by {@link #LENGTH_THEN_START}
+	 */
+	public List<SubString> findAllSubStrings(String phoneNumber);
+
+	/**
+	 * A cursor finding the same substrings as findAllSubStrings one character at a
+	 * time, which keeps the matching state of a prefix shared by successive phone
+	 * numbers. By default every substring ending at a pushed character is probed
+	 * with contains.
+	 * 
+	 * @return a new cursor, at depth 0
+	 */
+	public default MatchCursor newMatchCursor() {
+		return new ProbingMatchCursor(this);
+	}
+
+	/**
+	 * @return the number of encoded numbers in the matcher
+	 */
+	public int size();
+}
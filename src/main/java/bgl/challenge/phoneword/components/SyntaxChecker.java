@@ -1,5 +1,41 @@
 package bgl.challenge.phoneword.components;
 
+import bgl.challenge.phoneword.models.Pattern;
+
 public interface SyntaxChecker {
 	public boolean isValid(String str);
+
+	/**
+	 * Check a string which may be backed by a reused buffer, e.g. a candidate
+	 * phoneword being constructed
+	 * 
+	 * @param str
+	 * @return
+	 */
+	public default boolean isValid(CharSequence str) {
+		return isValid(str.toString());
+	}
+
+	/**
+	 * Check the part of the rules which only depends on the digits a pattern
+	 * leaves uncovered, before any word is picked for its substrings
+	 * 
+	 * @param pattern
+	 * @return false if none of the phonewords of the pattern can be valid
+	 */
+	public default boolean isValidPattern(Pattern pattern) {
+		return true;
+	}
+
+	/**
+	 * The counter and the searches of DefaultPhoneWordDictionary then drop the
+	 * patterns leaving two consecutive digits uncovered by themselves, as
+	 * PhonewordSyntaxChecker does, so such a checker must not accept them
+	 * 
+	 * @return true if every phoneword of a pattern accepted by isValidPattern is
+	 *         valid, so the phonewords don't need checking one by one
+	 */
+	public default boolean isDecidedByPattern() {
+		return false;
+	}
 }
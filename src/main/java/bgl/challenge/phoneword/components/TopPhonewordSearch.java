@@ -0,0 +1,277 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.SubString;
+
+/**
+ * @formatter:off
+ *
+ * Finds the highest-scoring phonewords of a phone number by a best-first (A*)
+ * search over the DAG of its patterns (see PatternSegmenter), without
+ * enumerating the combinations of words.
+ *
+ * - a node is a phoneword constructed up to a position: the score of its words
+ *   so far, plus an upper bound of the score of the rest, is its priority
+ * - the bound is the best score from the position to the end, computed once
+ *   by dynamic programming; it never underestimates, so the complete
+ *   phonewords leave the queue in descending score order
+ * - the words of a substring are ranked by score; a node only pushes the best
+ *   word of each substring, and pushes the next word of its own substring when
+ *   it leaves the queue
+ *
+ * The queue then holds in the order of k * (number of substrings) nodes.
+ * Nodes of the same priority leave the queue in the order they entered it.
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+class TopPhonewordSearch {
+
+	private final String phoneNumber;
+
+	/**
+	 * Whether two uncovered digits may follow each other, when they may the
+	 * caller checks the syntax of the phonewords found
+	 */
+	private final boolean consecutiveDigitsAllowed;
+
+	/**
+	 * The substrings grouped by their start position, as in PatternSegmenter,
+	 * with their words ranked by score, descending
+	 */
+	private final int[] edgeStarts;
+	private final int[] edgeEnds;
+	private final String[][] edgeWords;
+	private final double[][] edgeScores;
+	private final int[] edgeOffsets;
+
+	/**
+	 * The best score from position p to the end, when the character before p is
+	 * an uncovered digit or not
+	 */
+	private final double[] bestAfterDigit;
+	private final double[] bestAfterOther;
+
+	private long noOfNodes;
+
+	/**
+	 * @param phoneNumber
+	 * @param subStrings
+	 *            the substrings of the phone number which are in the dictionary,
+	 *            in any order
+	 * @param words
+	 *            the words of each substring, in the same order
+	 * @param wordScores
+	 * @param consecutiveDigitsAllowed
+	 *            false to follow the rule of PhonewordSyntaxChecker
+	 */
+	TopPhonewordSearch(String phoneNumber, List<SubString> subStrings, List<List<String>> words,
+			WordScores wordScores, boolean consecutiveDigitsAllowed) {
+		this.phoneNumber = phoneNumber;
+		this.consecutiveDigitsAllowed = consecutiveDigitsAllowed;
+		int length = phoneNumber.length();
+
+		/*
+		 * Counting sort of the substrings by their start
+		 */
+		edgeOffsets = new int[length + 2];
+		for (SubString subString : subStrings) {
+			edgeOffsets[subString.getStart() + 1]++;
+		}
+		for (int i = 1; i < edgeOffsets.length; i++) {
+			edgeOffsets[i] += edgeOffsets[i - 1];
+		}
+		edgeStarts = new int[subStrings.size()];
+		edgeEnds = new int[subStrings.size()];
+		edgeWords = new String[subStrings.size()][];
+		edgeScores = new double[subStrings.size()][];
+		int[] next = new int[length + 1];
+		System.arraycopy(edgeOffsets, 0, next, 0, length + 1);
+		for (int i = 0; i < subStrings.size(); i++) {
+			SubString subString = subStrings.get(i);
+			int edge = next[subString.getStart()]++;
+			edgeStarts[edge] = subString.getStart();
+			edgeEnds[edge] = subString.getEnd();
+
+			// rank the words, a stable sort keeps the dictionary order of equal scores
+			String[] ranked = words.get(i).toArray(new String[0]);
+			Arrays.sort(ranked, Comparator.comparingDouble(wordScores::getScore).reversed());
+			edgeWords[edge] = ranked;
+			edgeScores[edge] = new double[ranked.length];
+			for (int j = 0; j < ranked.length; j++) {
+				edgeScores[edge][j] = wordScores.getScore(ranked[j]);
+			}
+		}
+
+		bestAfterDigit = new double[length + 1];
+		bestAfterOther = new double[length + 1];
+		computeBestScores();
+	}
+
+	/**
+	 * @param k
+	 * @param accept
+	 *            checks the syntax of the phonewords found, when consecutive
+	 *            digits are allowed
+	 * @return at most k accepted phonewords, by descending score
+	 */
+	List<ScoredPhoneword> findTop(int k, Predicate<ScoredPhoneword> accept) {
+		List<ScoredPhoneword> results = new ArrayList<>(Math.min(k, 64));
+		if (k <= 0 || edgeWords.length == 0) {
+			return results;
+		}
+
+		PriorityQueue<Node> queue = new PriorityQueue<>();
+		push(queue, new Node(null, 0, false, false, 0, -1, 0));
+		while (!queue.isEmpty() && results.size() < k) {
+			Node node = queue.poll();
+
+			if (node.edge >= 0 && node.rank + 1 < edgeWords[node.edge].length) {
+				// the next word of the same substring
+				int rank = node.rank + 1;
+				push(queue, new Node(node.parent, node.position, false, true,
+						node.parent.score + edgeScores[node.edge][rank], node.edge, rank));
+			}
+
+			int position = node.position;
+			if (position == phoneNumber.length()) {
+				if (node.covered) {
+					ScoredPhoneword result = toResult(node);
+					if (accept.test(result)) {
+						results.add(result);
+					}
+				}
+				continue;
+			}
+
+			// leave the character as it is
+			boolean digit = isDigit(position);
+			if (consecutiveDigitsAllowed || !digit || !node.afterDigit) {
+				push(queue, new Node(node, position + 1, digit, node.covered, node.score, -1, 0));
+			}
+
+			// or cover it with the best word of each substring starting at it
+			for (int edge = edgeOffsets[position]; edge < edgeOffsets[position + 1]; edge++) {
+				push(queue, new Node(node, edgeEnds[edge] + 1, false, true, node.score + edgeScores[edge][0], edge,
+						0));
+			}
+		}
+		return results;
+	}
+
+	private void push(PriorityQueue<Node> queue, Node node) {
+		double bound = node.afterDigit ? bestAfterDigit[node.position] : bestAfterOther[node.position];
+		if (bound == Double.NEGATIVE_INFINITY) {
+			// no way to the end from here
+			return;
+		}
+		node.priority = node.score + bound;
+		node.sequence = noOfNodes++;
+		queue.add(node);
+	}
+
+	/**
+	 * Backward dynamic programming over the positions, the same recurrence as
+	 * PhonewordCounter with max in place of sum
+	 */
+	private void computeBestScores() {
+		int length = phoneNumber.length();
+		bestAfterDigit[length] = 0;
+		bestAfterOther[length] = 0;
+		for (int p = length - 1; p >= 0; p--) {
+			double covered = Double.NEGATIVE_INFINITY;
+			for (int edge = edgeOffsets[p]; edge < edgeOffsets[p + 1]; edge++) {
+				covered = Math.max(covered, edgeScores[edge][0] + bestAfterOther[edgeEnds[edge] + 1]);
+			}
+
+			if (isDigit(p) && !consecutiveDigitsAllowed) {
+				bestAfterDigit[p] = covered;
+				bestAfterOther[p] = Math.max(covered, bestAfterDigit[p + 1]);
+			} else {
+				boolean digit = isDigit(p);
+				double uncovered = digit ? bestAfterDigit[p + 1] : bestAfterOther[p + 1];
+				bestAfterDigit[p] = Math.max(covered, uncovered);
+				bestAfterOther[p] = bestAfterDigit[p];
+			}
+		}
+	}
+
+	/**
+	 * Walk back from a complete node to write its words into the phone number
+	 *
+	 * @param node
+	 * @return
+	 */
+	private ScoredPhoneword toResult(Node node) {
+		char[] phoneword = phoneNumber.toCharArray();
+		int[] intervals = new int[phoneNumber.length()];
+		int noOfWords = 0;
+		for (Node n = node; n != null; n = n.parent) {
+			if (n.edge >= 0) {
+				String word = edgeWords[n.edge][n.rank];
+				word.getChars(0, word.length(), phoneword, edgeStarts[n.edge]);
+				intervals[noOfWords++] = Pattern.pack(edgeStarts[n.edge], edgeEnds[n.edge]);
+			}
+		}
+		Pattern pattern = new Pattern(phoneNumber, Arrays.copyOf(intervals, noOfWords));
+		return new ScoredPhoneword(new String(phoneword), pattern, node.score);
+	}
+
+	private boolean isDigit(int position) {
+		char c = phoneNumber.charAt(position);
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * A phoneword constructed up to a position
+	 */
+	private static final class Node implements Comparable<Node> {
+		/**
+		 * The node before the last step
+		 */
+		final Node parent;
+		final int position;
+		/**
+		 * Whether the last step left an uncovered digit
+		 */
+		final boolean afterDigit;
+		/**
+		 * Whether a word was picked so far
+		 */
+		final boolean covered;
+		final double score;
+		/**
+		 * The substring of the last step and the rank of its word, -1 if the last
+		 * step left a character uncovered
+		 */
+		final int edge;
+		final int rank;
+
+		double priority;
+		long sequence;
+
+		Node(Node parent, int position, boolean afterDigit, boolean covered, double score, int edge, int rank) {
+			this.parent = parent;
+			this.position = position;
+			this.afterDigit = afterDigit;
+			this.covered = covered;
+			this.score = score;
+			this.edge = edge;
+			this.rank = rank;
+		}
+
+		@Override
+		public int compareTo(Node other) {
+			int byPriority = Double.compare(other.priority, priority);
+			return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+		}
+	}
+}
@@ -1,5 +1,10 @@
 package bgl.challenge.phoneword.components;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import bgl.challenge.phoneword.exception.UnknownCharacterException;
+
 /**
  * 
  * @author luant
@@ -8,8 +13,57 @@ package bgl.challenge.phoneword.components;
 public interface WordEncoder {
 	/**
 	 * Translates a string into a number
+	 * 
 	 * @param word
 	 * @return
+	 * @deprecated overflows for words longer than 9 letters, use
+	 *             {@link #encodeToDigits(String)}
 	 */
+	@Deprecated
 	public int encode(String word);
+
+	/**
+	 * Translates a string of any length into its digits
+	 * 
+	 * @param word
+	 * @return one digit (0-9) per letter of the word
+	 * @throws UnknownCharacterException
+	 *             if the word contains a character which cannot be encoded
+	 */
+	public byte[] encodeToDigits(String word);
+
+	/**
+	 * Translates a whole list of words, e.g. a dictionary, into their digits
+	 * 
+	 * @param words
+	 * @return the digits of each word in the same order as the given words; null
+	 *         for a word which cannot be encoded
+	 */
+	public default List<byte[]> encodeAllToDigits(List<String> words) {
+		List<byte[]> result = new ArrayList<>(words.size());
+		for (String word : words) {
+			try {
+				result.add(encodeToDigits(word));
+			} catch (UnknownCharacterException ex) {
+				result.add(null);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the digit of each letter from 'a' to 'z', -1 for a letter which
+	 *         cannot be encoded
+	 */
+	public default byte[] getKeypadLayout() {
+		byte[] layout = new byte[26];
+		for (char c = 'a'; c <= 'z'; c++) {
+			try {
+				layout[c - 'a'] = encodeToDigits(String.valueOf(c))[0];
+			} catch (UnknownCharacterException ex) {
+				layout[c - 'a'] = -1;
+			}
+		}
+		return layout;
+	}
 }
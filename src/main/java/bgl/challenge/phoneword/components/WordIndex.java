@@ -0,0 +1,81 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.List;
+
+/**
+ * Maps the encoded numbers of the dictionary to their words.
+ * 
+ * <p>
+ * Each distinct encoded number owns a bucket, identified by a bucket id from 0
+ * to getNoOfBuckets() - 1. Encoded numbers of up to PackedDigits.MAX_DIGITS
+ * digits are looked up by their packed form.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public interface WordIndex {
+
+	public static final int NOT_FOUND = -1;
+
+	/**
+	 * Add a word into the bucket of the given encoded number. Optional operation.
+	 * 
+	 * @param encodedNumber
+	 *            a string of digits of any length
+	 * @param word
+	 * @return true if the encoded number was not in the index yet
+	 * @throws UnsupportedOperationException
+	 *             if the index is read-only
+	 */
+	public boolean add(String encodedNumber, String word);
+
+	/**
+	 * @param key
+	 *            the packed encoded number
+	 * @return the bucket id or NOT_FOUND
+	 */
+	public int findBucket(long key);
+
+	/**
+	 * @param encodedNumber
+	 *            a string of digits of any length
+	 * @return the bucket id or NOT_FOUND
+	 */
+	public int findBucket(String encodedNumber);
+
+	public default boolean containsKey(long key) {
+		return findBucket(key) != NOT_FOUND;
+	}
+
+	public int getBucketSize(int bucket);
+
+	public String getWord(int bucket, int index);
+
+	/**
+	 * @param bucket
+	 * @return a read-only view of the words in the bucket
+	 */
+	public List<String> getWords(int bucket);
+
+	/**
+	 * @param bucket
+	 * @return the packed encoded number of the bucket, NOT_PACKABLE if it is too
+	 *         long to be packed
+	 */
+	public long getKey(int bucket);
+
+	public String getEncodedNumber(int bucket);
+
+	/**
+	 * @return the number of distinct encoded numbers
+	 */
+	public int getNoOfBuckets();
+
+	public int getNoOfWords();
+
+	/**
+	 * @return true if some encoded numbers are too long to be packed
+	 */
+	public boolean hasUnpackableKeys();
+}
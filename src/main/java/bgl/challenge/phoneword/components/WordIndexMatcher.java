@@ -0,0 +1,142 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bgl.challenge.phoneword.models.SubString;
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+/**
+ * Finds the substrings by probing a WordIndex directly, one word length at a
+ * time, with a rolling window of packed digits.
+ * 
+ * <p>
+ * It needs no structure of its own besides the index, which suits indexes that
+ * live outside the heap, like MappedWordIndex. It is read-only: the encoded
+ * numbers are the ones of the index.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public class WordIndexMatcher implements SubStringMatcher {
+
+	private WordIndex index;
+
+	/**
+	 * The lengths of the encoded numbers in the index, ascending
+	 */
+	private int[] lengths;
+
+	public WordIndexMatcher(WordIndex index, int[] lengths) {
+		this.index = index;
+		this.lengths = lengths;
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, add the words into the index instead
+	 */
+	@Override
+	public boolean add(String encodedNumber) {
+		throw new UnsupportedOperationException("The encoded numbers are the ones of the word index");
+	}
+
+	@Override
+	public boolean contains(String encodedNumber) {
+		return index.findBucket(encodedNumber) != WordIndex.NOT_FOUND;
+	}
+
+	@Override
+	public List<SubString> findAllSubStrings(String phoneNumber) {
+		List<SubString> result = new ArrayList<>();
+		for (int length : lengths) {
+			if (length > phoneNumber.length()) {
+				break;
+			}
+			// already in LENGTH_THEN_START order
+			result.addAll(findSubStringsWithLength(index, phoneNumber, length));
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return index.getNoOfBuckets();
+	}
+
+	/**
+	 * Find the substrings of the phone number of the given length which are
+	 * encoded numbers in the index
+	 * 
+	 * @param index
+	 * @param phoneNumber
+	 * @param length
+	 * @return the substrings ordered by their start index
+	 */
+	public static List<SubString> findSubStringsWithLength(WordIndex index, String phoneNumber, int length) {
+		List<SubString> result = new ArrayList<>();
+		if (!PackedDigits.isPackable(length)) {
+			return findUnpackableSubStringsWithLength(index, phoneNumber, length);
+		}
+
+		/*
+		 * Slide a window of packed digits over the phone number; the substring is only
+		 * sliced when the window matches a number in the index
+		 */
+		long windowMask = PackedDigits.windowMask(length);
+		long window = 0;
+		int noOfDigitsInWindow = 0;
+		for (int i = 0; i < phoneNumber.length(); i++) {
+			char c = phoneNumber.charAt(i);
+			if (c < '0' || c > '9') {
+				// no number in the index contains a non digit character
+				window = 0;
+				noOfDigitsInWindow = 0;
+				continue;
+			}
+			window = ((window << 4) | (c - '0')) & windowMask;
+			noOfDigitsInWindow++;
+			if (noOfDigitsInWindow < length) {
+				continue;
+			}
+
+			/*
+			 * The start index (inclusive) of the substring within the original string
+			 */
+			final int start = i - length + 1;
+			/*
+			 * The end index (inclusive) of the substring within the original string
+			 */
+			final int end = i;
+			if (index.containsKey(PackedDigits.withLength(window, length))) {
+				result.add(new SubString(phoneNumber, start, end));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The fallback of findSubStringsWithLength for numbers which are too long to
+	 * be packed
+	 * 
+	 * @param index
+	 * @param phoneNumber
+	 * @param length
+	 * @return
+	 */
+	static List<SubString> findUnpackableSubStringsWithLength(WordIndex index, String phoneNumber, int length) {
+		List<SubString> result = new ArrayList<>();
+		if (!index.hasUnpackableKeys()) {
+			return result;
+		}
+		for (int i = 0; i <= phoneNumber.length() - length; i++) {
+			String subStr = phoneNumber.substring(i, i + length);
+			if (index.findBucket(subStr) != WordIndex.NOT_FOUND) {
+				result.add(new SubString(phoneNumber, subStr, i, i + length - 1));
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,113 @@
+package bgl.challenge.phoneword.components;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The scores of the words of a dictionary, e.g. the log of their frequency; the
+ * score of a phoneword is the sum of the scores of its words.
+ *
+ * <p>
+ * A word without a score scores DEFAULT_SCORE. The scores never change once
+ * created, adding scores creates a new instance.
+ * </p>
+ *
+ * @author luant
+ *
+ */
+public final class WordScores {
+
+	public static final double DEFAULT_SCORE = 0;
+
+	public static final WordScores EMPTY = new WordScores(Collections.emptyMap());
+
+	private final Map<String, Double> scores;
+
+	/**
+	 * The scores of the words without a score here, null if none
+	 */
+	private final WordScores fallback;
+
+	private WordScores(Map<String, Double> scores) {
+		this(scores, null);
+	}
+
+	private WordScores(Map<String, Double> scores, WordScores fallback) {
+		this.scores = scores;
+		this.fallback = fallback;
+	}
+
+	/**
+	 * @param word
+	 *            in upper case, as stored in the dictionary
+	 * @return
+	 */
+	public double getScore(String word) {
+		Double score = scores.get(word);
+		if (score != null) {
+			return score;
+		}
+		return fallback == null ? DEFAULT_SCORE : fallback.getScore(word);
+	}
+
+	public int size() {
+		return fallback == null ? scores.size() : asMap().size();
+	}
+
+	public boolean isEmpty() {
+		return scores.isEmpty() && (fallback == null || fallback.isEmpty());
+	}
+
+	/**
+	 * @param moreScores
+	 *            replace the scores of the same words
+	 * @return these scores plus the given ones
+	 */
+	public WordScores with(Map<String, Double> moreScores) {
+		if (moreScores.isEmpty()) {
+			return this;
+		}
+		Map<String, Double> merged = asMap();
+		merged.putAll(moreScores);
+		return new WordScores(merged);
+	}
+
+	/**
+	 * Unlike with, it does not copy any score, e.g. to lay the scores of the words
+	 * added since the last snapshot over the scores of the whole dictionary
+	 * 
+	 * @param overriding
+	 *            replace the scores of the same words
+	 * @return these scores plus the given ones
+	 */
+	WordScores overriddenBy(WordScores overriding) {
+		if (overriding.isEmpty()) {
+			return this;
+		}
+		if (isEmpty()) {
+			return overriding;
+		}
+		return overriding.overridden(this);
+	}
+
+	/**
+	 * @return the same scores without any fallback
+	 */
+	WordScores flatten() {
+		return fallback == null ? this : new WordScores(asMap());
+	}
+
+	private WordScores overridden(WordScores bottom) {
+		return new WordScores(scores, fallback == null ? bottom : fallback.overridden(bottom));
+	}
+
+	/**
+	 * @return a copy of every score, the overriding ones taking precedence
+	 */
+	private Map<String, Double> asMap() {
+		Map<String, Double> merged = fallback == null ? new HashMap<>() : fallback.asMap();
+		merged.putAll(scores);
+		return merged;
+	}
+}
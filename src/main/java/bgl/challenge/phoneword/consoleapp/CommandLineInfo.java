@@ -29,6 +29,23 @@ public class CommandLineInfo {
 	
 	private String outputFileName;
 
+	/**
+	 * The name of the file the compiled dictionary is written into; null when not
+	 * compiling the dictionary
+	 */
+	private String compiledDictionaryFileName;
+
+	/**
+	 * The time budget of the lookup of each phone number in milliseconds; null
+	 * when unlimited
+	 */
+	private Long timeBudgetMillis;
+
+	/**
+	 * The maximum number of phonewords of each phone number; null when unlimited
+	 */
+	private Integer maxResults;
+
 	public String getInputFileName() {
 		return inputFileName;
 	}
@@ -49,8 +66,11 @@ public class CommandLineInfo {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = prime * result + ((compiledDictionaryFileName == null) ? 0 : compiledDictionaryFileName.hashCode());
 		result = prime * result + ((dictionaryFileName == null) ? 0 : dictionaryFileName.hashCode());
 		result = prime * result + ((inputFileName == null) ? 0 : inputFileName.hashCode());
+		result = prime * result + ((maxResults == null) ? 0 : maxResults.hashCode());
+		result = prime * result + ((timeBudgetMillis == null) ? 0 : timeBudgetMillis.hashCode());
 		return result;
 	}
 
@@ -63,6 +83,11 @@ public class CommandLineInfo {
 		if (getClass() != obj.getClass())
 			return false;
 		CommandLineInfo other = (CommandLineInfo) obj;
+		if (compiledDictionaryFileName == null) {
+			if (other.compiledDictionaryFileName != null)
+				return false;
+		} else if (!compiledDictionaryFileName.equals(other.compiledDictionaryFileName))
+			return false;
 		if (dictionaryFileName == null) {
 			if (other.dictionaryFileName != null)
 				return false;
@@ -73,6 +98,16 @@ public class CommandLineInfo {
 				return false;
 		} else if (!inputFileName.equals(other.inputFileName))
 			return false;
+		if (maxResults == null) {
+			if (other.maxResults != null)
+				return false;
+		} else if (!maxResults.equals(other.maxResults))
+			return false;
+		if (timeBudgetMillis == null) {
+			if (other.timeBudgetMillis != null)
+				return false;
+		} else if (!timeBudgetMillis.equals(other.timeBudgetMillis))
+			return false;
 		return true;
 	}
 
@@ -83,6 +118,30 @@ public class CommandLineInfo {
 	public void setOutputFileName(String outputFileName) {
 		this.outputFileName = outputFileName;
 	}
+
+	public String getCompiledDictionaryFileName() {
+		return compiledDictionaryFileName;
+	}
+
+	public void setCompiledDictionaryFileName(String compiledDictionaryFileName) {
+		this.compiledDictionaryFileName = compiledDictionaryFileName;
+	}
+
+	public Long getTimeBudgetMillis() {
+		return timeBudgetMillis;
+	}
+
+	public void setTimeBudgetMillis(Long timeBudgetMillis) {
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	public Integer getMaxResults() {
+		return maxResults;
+	}
+
+	public void setMaxResults(Integer maxResults) {
+		this.maxResults = maxResults;
+	}
 	
 	
 }
@@ -6,6 +6,9 @@ public class DefaultCommandLineParser implements CommandLineParser {
 
 	public static final String INPUT_FILE_INDICATOR = "-input";
 	public static final String DICTIONARY_FILE_INDICATOR = "-dictionary";
+	public static final String COMPILE_FILE_INDICATOR = "-compile";
+	public static final String TIMEOUT_INDICATOR = "-timeout";
+	public static final String MAX_RESULTS_INDICATOR = "-max";
 
 	/**
 	 * @return an instance of DefaultCommandLineParser
@@ -17,12 +20,64 @@ public class DefaultCommandLineParser implements CommandLineParser {
 
 	@Override
 	public CommandLineInfo parse(String[] commandLineArgs) {
-		String inputFileName = extractInputFileName(commandLineArgs);
+		String compiledDictionaryFileName = extractCompiledDictionaryFileName(commandLineArgs);
+		String inputFileName = null;
+		if (compiledDictionaryFileName == null) {
+			// the list of phone numbers is not needed when only compiling the dictionary
+			inputFileName = extractInputFileName(commandLineArgs);
+		}
 		String dictionaryFileName = extractDictionaryFileName(commandLineArgs);
 		CommandLineInfo info = new CommandLineInfo(inputFileName, dictionaryFileName);
+		info.setCompiledDictionaryFileName(compiledDictionaryFileName);
+		info.setTimeBudgetMillis(extractTimeBudgetMillis(commandLineArgs));
+		info.setMaxResults(extractMaxResults(commandLineArgs));
 		return info;
 	}
 
+	/**
+	 * Extract the time budget of the lookup of each phone number, in milliseconds
+	 * 
+	 * @param commandLineArgs
+	 * @return null if the lookups are not limited in time
+	 */
+	Long extractTimeBudgetMillis(String[] commandLineArgs) {
+		String timeBudget = extractOptionalParameter(commandLineArgs, TIMEOUT_INDICATOR);
+		return timeBudget == null ? null : parseNonNegative(TIMEOUT_INDICATOR, timeBudget);
+	}
+
+	/**
+	 * Extract the maximum number of phonewords of each phone number
+	 * 
+	 * @param commandLineArgs
+	 * @return null if the number of phonewords is not limited
+	 */
+	Integer extractMaxResults(String[] commandLineArgs) {
+		String maxResults = extractOptionalParameter(commandLineArgs, MAX_RESULTS_INDICATOR);
+		if (maxResults == null) {
+			return null;
+		}
+		long value = parseNonNegative(MAX_RESULTS_INDICATOR, maxResults);
+		if (value > Integer.MAX_VALUE) {
+			String errMsg = String.format("Invalid argument [%s] - [%s]", MAX_RESULTS_INDICATOR, maxResults);
+			throw new IllegalArgumentException(errMsg);
+		}
+		return (int) value;
+	}
+
+	private long parseNonNegative(String indicator, String value) {
+		String errMsg = String.format("Invalid argument [%s] - [%s]", indicator, value);
+		long parsed;
+		try {
+			parsed = Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(errMsg, e);
+		}
+		if (parsed < 0) {
+			throw new IllegalArgumentException(errMsg);
+		}
+		return parsed;
+	}
+
 	/**
 	 * Extract the file name containing dictionary words
 	 * 
@@ -48,6 +103,35 @@ public class DefaultCommandLineParser implements CommandLineParser {
 		return inputFileName;
 	}
 
+	/**
+	 * Extract the file name the compiled dictionary is written into
+	 * 
+	 * @param commandLineArgs
+	 * @return null if the dictionary is not to be compiled
+	 */
+	String extractCompiledDictionaryFileName(String[] commandLineArgs) {
+		String indicator = COMPILE_FILE_INDICATOR;
+		String compiledDictionaryFileName = extractOptionalParameter(commandLineArgs, indicator);
+		return compiledDictionaryFileName;
+	}
+
+	/**
+	 * Extract an optional parameter value based on the indicator
+	 * 
+	 * @param commandLineArgs
+	 * @param indicator
+	 * @return null if the indicator is not given
+	 */
+	String extractOptionalParameter(String[] commandLineArgs, String indicator) {
+		for (String arg : commandLineArgs) {
+			if (arg.equals(indicator)) {
+				// when given, the value is mandatory
+				return extractParameter(commandLineArgs, indicator);
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Exrtact a parameter value based on the indicator
 	 * 
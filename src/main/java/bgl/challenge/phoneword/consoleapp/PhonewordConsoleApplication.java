@@ -7,21 +7,29 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import bgl.challenge.phoneword.components.DefaultPhoneWordDictionary;
 import bgl.challenge.phoneword.components.PhoneWordDictionary;
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
 
 public class PhonewordConsoleApplication implements PhonewordApplication {
 
 	private static final String DEFAULT_OUTPUT_FILE_NAME = "output.txt";
 
+	private static final String WORDS_ADDED_MESSAGE = "Words added: %d\r";
+
 	CommandLineParser commandParser;
 	PhoneWordDictionary phoneWordDictionary;
 
 	public PhonewordConsoleApplication() {
 		commandParser = DefaultCommandLineParser.getInstance();
-		phoneWordDictionary = DefaultPhoneWordDictionary.getInstance();
+		DefaultPhoneWordDictionary dictionary = DefaultPhoneWordDictionary.getInstance();
+		dictionary.setImportProgressListener(
+				noOfWordsRead -> System.out.print(String.format(WORDS_ADDED_MESSAGE, noOfWordsRead)));
+		phoneWordDictionary = dictionary;
 	}
 
 	@Override
@@ -37,11 +45,23 @@ public class PhonewordConsoleApplication implements PhonewordApplication {
 		System.out.println("Loading the dictionary file");
 		loadDictionaryFromFile(commandInfo.getDictionaryFileName());
 
+		/*
+		 * Compile mode - write the dictionary into a binary file and stop
+		 */
+		if (commandInfo.getCompiledDictionaryFileName() != null) {
+			System.out.println("Compiling the dictionary");
+			phoneWordDictionary.compileToFile(new File(commandInfo.getCompiledDictionaryFileName()));
+			String doneMsg = String.format("Done - Please find the compiled dictionary in %s",
+					commandInfo.getCompiledDictionaryFileName());
+			System.out.println(doneMsg);
+			return;
+		}
+
 		/*
 		 * Find all possible phonewords
 		 */
 		System.out.println("Start looking up numbers");
-		List<String> allPhonewords = findAllPhonewords(commandInfo.getInputFileName());
+		List<String> allPhonewords = findAllPhonewords(commandInfo.getInputFileName(), toQueryOptions(commandInfo));
 
 		/*
 		 * Writing to file
@@ -62,11 +82,52 @@ public class PhonewordConsoleApplication implements PhonewordApplication {
 		phoneWordDictionary.importFromFile(f);
 	}
 
-	private List<String> findAllPhonewords(String inputFileName) throws IOException {
+	/**
+	 * @param commandInfo
+	 * @return the limits of the lookup of each phone number, null if there is none
+	 */
+	private QueryOptions toQueryOptions(CommandLineInfo commandInfo) {
+		if (commandInfo.getTimeBudgetMillis() == null && commandInfo.getMaxResults() == null) {
+			return null;
+		}
+		QueryOptions options = QueryOptions.UNLIMITED;
+		if (commandInfo.getTimeBudgetMillis() != null) {
+			options = options.withTimeBudget(commandInfo.getTimeBudgetMillis(), TimeUnit.MILLISECONDS);
+		}
+		if (commandInfo.getMaxResults() != null) {
+			options = options.withMaxResults(commandInfo.getMaxResults());
+		}
+		return options;
+	}
+
+	/**
+	 * @param inputFileName
+	 * @param options
+	 *            the limits of the lookup of each phone number, null if there is
+	 *            none
+	 * @return
+	 * @throws IOException
+	 */
+	private List<String> findAllPhonewords(String inputFileName, QueryOptions options) throws IOException {
 		List<String> lstNumbers = Files.readAllLines(Paths.get(inputFileName));
-		List<String> allPhonewords = lstNumbers.parallelStream().flatMap(phoneNumber -> {
-			List<String> phonewords = phoneWordDictionary.findPhonewords(phoneNumber);
-			return phonewords.stream();
+		if (options == null) {
+			// the numbers sharing a prefix share the work of their lookups
+			return phoneWordDictionary.findPhonewordsBatch(lstNumbers).stream().flatMap(List::stream)
+					.collect(Collectors.toList());
+		}
+
+		/*
+		 * Each number has its own budget, a pathological number cannot hold up the
+		 * others
+		 */
+		List<String> allPhonewords = lstNumbers.parallelStream().flatMap(number -> {
+			QueryResult result = phoneWordDictionary.findPhonewords(number, options);
+			if (result.isTruncated()) {
+				String warnMsg = String.format("Warning - The phonewords of [%s] are truncated - %s", number,
+						result.getStatus());
+				System.out.println(warnMsg);
+			}
+			return result.getPhonewords().stream();
 		}).collect(Collectors.toList());
 		return allPhonewords;
 	}
@@ -0,0 +1,22 @@
+package bgl.challenge.phoneword.models;
+
+/**
+ * Lets a caller stop the queries it handed the token to, from any thread. The
+ * queries check it while they enumerate the patterns and expand their words,
+ * and return the phonewords found so far.
+ * 
+ * @author luant
+ *
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelled;
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
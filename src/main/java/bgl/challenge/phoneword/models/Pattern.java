@@ -1,6 +1,7 @@
 package bgl.challenge.phoneword.models;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -22,78 +23,181 @@ import java.util.stream.Stream;
  * in the given dictionary, e.g. 222 is a substring of '2222 33', and is 'AAA' or 'BBB' in the
  * dictionary  
  * 
- * and a list of SubString represent a Pattern.
+ * and a set of SubString represent a Pattern.
+ * 
+ * The substrings are kept as intervals packed into ints (see pack), sorted by
+ * their start, next to a bitmask of the digits they cover: checking a new
+ * substring for a conflict is a single AND, and comparing two patterns
+ * doesn't depend on the order their substrings were added in. SubString
+ * objects are only created when asked for.
  * 
  * @formatter:on
  * @author luant
  *
  */
 public class Pattern {
+
+	/**
+	 * The longest phone number whose substrings can be packed: the start takes
+	 * the high 16 bits but must leave the sign bit clear, so that the packed
+	 * substrings compare as plain ints
+	 */
+	public static final int MAX_PHONE_NUMBER_LENGTH = 1 << 15;
+
+	private static final int[] NO_INTERVALS = new int[0];
+
+	private static final long[] NO_COVERAGE = new long[0];
+
 	private String originalPhoneNumber;
-	private List<SubString> subStrings;
+
+	/**
+	 * The packed substrings, ascending, in intervals[0] to intervals[size - 1]
+	 */
+	private int[] intervals = NO_INTERVALS;
+	private int size;
+
+	/**
+	 * Bit i is set if the digit i is covered by a substring
+	 */
+	private long[] coverage = NO_COVERAGE;
+
+	/**
+	 * Whether two of the substrings overlap
+	 */
+	private boolean overlapping;
 
 	public Pattern() {
 
 	}
 
 	public Pattern(String originalPhoneNumber, List<SubString> subStrings) {
-		this.subStrings = subStrings;
 		this.originalPhoneNumber = originalPhoneNumber;
+		setSubStrings(subStrings);
+	}
+
+	/**
+	 * @param originalPhoneNumber
+	 * @param intervals
+	 *            the substrings packed with pack(start, end), in any order; the
+	 *            array is owned by the pattern afterwards
+	 */
+	public Pattern(String originalPhoneNumber, int[] intervals) {
+		this.originalPhoneNumber = originalPhoneNumber;
+		for (int i = 1; i < intervals.length; i++) {
+			if (intervals[i - 1] >= intervals[i]) {
+				// not strictly ascending, add them one by one
+				for (int interval : intervals) {
+					add(interval);
+				}
+				return;
+			}
+		}
+		this.intervals = intervals;
+		this.size = intervals.length;
+		for (int interval : intervals) {
+			cover(interval);
+		}
+	}
+
+	/**
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            inclusive
+	 * @return the interval packed into an int, the packed intervals are ordered by
+	 *         their start then their end
+	 */
+	public static int pack(int start, int end) {
+		if (start < 0 || end < start || end >= MAX_PHONE_NUMBER_LENGTH) {
+			String errMsg = String.format("Cannot pack the substring [%d, %d]", start, end);
+			throw new IllegalArgumentException(errMsg);
+		}
+		return (start << 16) | end;
+	}
+
+	public static int startOf(int interval) {
+		return interval >>> 16;
+	}
+
+	public static int endOf(int interval) {
+		return interval & 0xFFFF;
+	}
+
+	/**
+	 * @return number of substrings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param i
+	 * @return the start of the i-th substring, in the order of their start
+	 */
+	public int getStart(int i) {
+		return startOf(intervals[i]);
+	}
+
+	/**
+	 * @param i
+	 * @return the end of the i-th substring, in the order of their start
+	 */
+	public int getEnd(int i) {
+		return endOf(intervals[i]);
 	}
 
 	public Stream<SubString> stream() {
-		return this.subStrings.stream();
+		return getSubStrings().stream();
 	}
 
 	public void add(SubString subString) {
-		if (subStrings == null) {
-			subStrings = new ArrayList<>();
-		}
-		subStrings.add(subString);
+		add(pack(subString.getStart(), subString.getEnd()));
 	}
 
 	public void addAll(Pattern subStrings2) {
-		if (subStrings == null) {
-			subStrings = new ArrayList<>();
+		for (int i = 0; i < subStrings2.size; i++) {
+			add(subStrings2.intervals[i]);
 		}
-		subStrings.addAll(subStrings2.getSubStrings());
 	}
 
+	/**
+	 * @return the substrings ordered by their start
+	 */
 	public List<SubString> getSubStrings() {
+		List<SubString> subStrings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			subStrings.add(new SubString(originalPhoneNumber, getStart(i), getEnd(i)));
+		}
 		return subStrings;
 	}
 
 	public void setSubStrings(List<SubString> subStrings) {
-		this.subStrings = subStrings;
+		this.intervals = NO_INTERVALS;
+		this.size = 0;
+		this.coverage = NO_COVERAGE;
+		this.overlapping = false;
+		if (subStrings != null) {
+			for (SubString subString : subStrings) {
+				add(subString);
+			}
+		}
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((subStrings == null) ? 0 : subStrings.hashCode());
+		for (int i = 0; i < size; i++) {
+			result = prime * result + intervals[i];
+		}
 		return result;
 	}
-	
+
+	/**
+	 * @return true if none of the substrings overlap each other
+	 */
 	public boolean isValid() {
-		boolean containsConflictedSubString = this.stream().map(subString -> {
-			boolean conflictEmerged = this.stream().map(otherSubString -> {
-				if (subString.equals(otherSubString)) {
-					// the same substring
-					return false;
-				}
-				return subString.conflictWith(otherSubString);
-			}).reduce(false, (conflictOccurredWithSubString, currentConflict) -> {
-				return conflictOccurredWithSubString | currentConflict;
-			});
-			return conflictEmerged;
-		}).reduce(false, (anyConflict, conf) -> {
-			return anyConflict | conf;
-		});
-		
-		boolean isValid = !containsConflictedSubString;
-		
-		return isValid;
+		return !overlapping;
 	}
 
 	/**
@@ -109,20 +213,30 @@ public class Pattern {
 		if (getClass() != obj.getClass())
 			return false;
 		Pattern other = (Pattern) obj;
-		if (subStrings == null) {
-			if (other.subStrings != null)
+		if (originalPhoneNumber == null) {
+			if (other.originalPhoneNumber != null)
 				return false;
-		} else if (!subStrings.equals(other.subStrings)) {
+		} else if (!originalPhoneNumber.equals(other.originalPhoneNumber)) {
 			return false;
 		}
-
-		if (this.subStrings.size() != other.subStrings.size()) {
+		if (size != other.size) {
 			return false;
 		}
+		for (int i = 0; i < size; i++) {
+			if (intervals[i] != other.intervals[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
 
-		boolean equal = this.subStrings.containsAll(other.getSubStrings());
-
-		return equal;
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Pattern [");
+		for (int i = 0; i < size; i++) {
+			sb.append(i == 0 ? "" : ", ").append('[').append(getStart(i)).append(", ").append(getEnd(i)).append(']');
+		}
+		return sb.append(']').toString();
 	}
 
 	public String getOriginalPhoneNumber() {
@@ -132,4 +246,47 @@ public class Pattern {
 	public void setOriginalPhoneNumber(String originalPhoneNumber) {
 		this.originalPhoneNumber = originalPhoneNumber;
 	}
+
+	/**
+	 * Insert a packed substring, keeping the intervals sorted; a substring which
+	 * is already in the pattern is not added again
+	 * 
+	 * @param interval
+	 */
+	private void add(int interval) {
+		int position = Arrays.binarySearch(intervals, 0, size, interval);
+		if (position >= 0) {
+			return;
+		}
+		position = -position - 1;
+		if (size == intervals.length) {
+			intervals = Arrays.copyOf(intervals, Math.max(size * 2, 4));
+		}
+		System.arraycopy(intervals, position, intervals, position + 1, size - position);
+		intervals[position] = interval;
+		size++;
+		cover(interval);
+	}
+
+	/**
+	 * Set the bits of the digits of a substring, recording whether any of them was
+	 * already set
+	 * 
+	 * @param interval
+	 */
+	private void cover(int interval) {
+		int start = startOf(interval);
+		int end = endOf(interval);
+		int lastWord = end >>> 6;
+		if (lastWord >= coverage.length) {
+			coverage = Arrays.copyOf(coverage, lastWord + 1);
+		}
+		for (int word = start >>> 6; word <= lastWord; word++) {
+			int from = word == start >>> 6 ? start & 63 : 0;
+			int to = word == lastWord ? end & 63 : 63;
+			long bits = (-1L >>> (63 - to)) & (-1L << from);
+			overlapping |= (coverage[word] & bits) != 0;
+			coverage[word] |= bits;
+		}
+	}
 }
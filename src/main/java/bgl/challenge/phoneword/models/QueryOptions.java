@@ -0,0 +1,98 @@
+package bgl.challenge.phoneword.models;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The limits of a single query: a time budget, a maximum number of results and
+ * a cancellation token. A query stops as soon as one of them is reached and
+ * flags its result as truncated (see QueryResult).
+ * 
+ * <p>
+ * The options never change once created, each with method returns a copy.
+ * </p>
+ * 
+ * @author luant
+ *
+ */
+public final class QueryOptions {
+
+	/**
+	 * No limit at all
+	 */
+	public static final QueryOptions UNLIMITED = new QueryOptions(Long.MAX_VALUE, Integer.MAX_VALUE, null);
+
+	/**
+	 * The time budget in nanoseconds, Long.MAX_VALUE for none
+	 */
+	private final long timeBudgetNanos;
+
+	private final int maxResults;
+
+	/**
+	 * null for none
+	 */
+	private final CancellationToken cancellationToken;
+
+	private QueryOptions(long timeBudgetNanos, int maxResults, CancellationToken cancellationToken) {
+		this.timeBudgetNanos = timeBudgetNanos;
+		this.maxResults = maxResults;
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * @param timeBudget
+	 *            the time a query may take, counted from its start
+	 * @param unit
+	 * @return
+	 */
+	public QueryOptions withTimeBudget(long timeBudget, TimeUnit unit) {
+		if (timeBudget < 0) {
+			String errMsg = String.format("Invalid time budget [%d]", timeBudget);
+			throw new IllegalArgumentException(errMsg);
+		}
+		return new QueryOptions(unit.toNanos(timeBudget), maxResults, cancellationToken);
+	}
+
+	/**
+	 * @param maxResults
+	 *            the maximum number of phonewords returned
+	 * @return
+	 */
+	public QueryOptions withMaxResults(int maxResults) {
+		if (maxResults < 0) {
+			String errMsg = String.format("Invalid maximum number of results [%d]", maxResults);
+			throw new IllegalArgumentException(errMsg);
+		}
+		return new QueryOptions(timeBudgetNanos, maxResults, cancellationToken);
+	}
+
+	/**
+	 * @param cancellationToken
+	 * @return
+	 */
+	public QueryOptions withCancellationToken(CancellationToken cancellationToken) {
+		return new QueryOptions(timeBudgetNanos, maxResults, cancellationToken);
+	}
+
+	/**
+	 * @return the time budget in nanoseconds, Long.MAX_VALUE if there is none
+	 */
+	public long getTimeBudgetNanos() {
+		return timeBudgetNanos;
+	}
+
+	public boolean hasTimeBudget() {
+		return timeBudgetNanos != Long.MAX_VALUE;
+	}
+
+	public int getMaxResults() {
+		return maxResults;
+	}
+
+	/**
+	 * @return null if the query cannot be cancelled
+	 */
+	public CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+}
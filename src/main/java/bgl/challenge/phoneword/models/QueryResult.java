@@ -0,0 +1,59 @@
+package bgl.challenge.phoneword.models;
+
+import java.util.List;
+
+/**
+ * The phonewords found by a query run with QueryOptions, and whether the query
+ * stopped before finding all of them
+ * 
+ * @author luant
+ *
+ */
+public class QueryResult {
+
+	public enum Status {
+		/**
+		 * Every phoneword was found
+		 */
+		COMPLETE,
+		/**
+		 * There are more phonewords than the maximum number of results
+		 */
+		MAX_RESULTS_REACHED,
+		/**
+		 * The time budget ran out
+		 */
+		DEADLINE_EXCEEDED,
+		/**
+		 * The cancellation token was cancelled
+		 */
+		CANCELLED
+	}
+
+	private final List<String> phonewords;
+
+	private final Status status;
+
+	public QueryResult(List<String> phonewords, Status status) {
+		this.phonewords = phonewords;
+		this.status = status;
+	}
+
+	/**
+	 * @return the phonewords found, in the order of findPhonewords
+	 */
+	public List<String> getPhonewords() {
+		return phonewords;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return true if the query stopped before finding all phonewords
+	 */
+	public boolean isTruncated() {
+		return status != Status.COMPLETE;
+	}
+}
@@ -13,7 +13,8 @@ public class SubString {
 	private String originalString;
 
 	/**
-	 * The value of the SubString
+	 * The value of the SubString, sliced from the original String only when it is
+	 * first needed
 	 */
 	private String value;
 
@@ -38,6 +39,20 @@ public class SubString {
 		this.end = end;
 	}
 
+	/**
+	 * A substring whose value is not copied out of the original String until it
+	 * is asked for
+	 * 
+	 * @param original
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            inclusive
+	 */
+	public SubString(String original, int start, int end) {
+		this(original, null, start, end);
+	}
+
 	public boolean conflictWith(SubString subString) {
 		int start1 = this.start;
 		int end1 = this.end;
@@ -61,6 +76,9 @@ public class SubString {
 	}
 
 	public String getValue() {
+		if (value == null && originalString != null) {
+			value = originalString.substring(start, end + 1);
+		}
 		return value;
 	}
 
@@ -91,6 +109,7 @@ public class SubString {
 		result = prime * result + end;
 		result = prime * result + ((originalString == null) ? 0 : originalString.hashCode());
 		result = prime * result + start;
+		String value = getValue();
 		result = prime * result + ((value == null) ? 0 : value.hashCode());
 		return result;
 	}
@@ -113,10 +132,11 @@ public class SubString {
 			return false;
 		if (start != other.start)
 			return false;
+		String value = getValue();
 		if (value == null) {
-			if (other.value != null)
+			if (other.getValue() != null)
 				return false;
-		} else if (!value.equals(other.value))
+		} else if (!value.equals(other.getValue()))
 			return false;
 		return true;
 	}
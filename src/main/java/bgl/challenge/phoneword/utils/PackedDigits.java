@@ -0,0 +1,101 @@
+package bgl.challenge.phoneword.utils;
+
+/**
+ * @formatter:off
+ *
+ * Packs a string of up to 15 digits into a long:
+ * - bits 60..63 hold the number of digits
+ * - bits 0..59 hold the digits, 4 bits each, the last digit in the lowest bits
+ *
+ * e.g. "0223" is packed as 0x4000_0000_0000_0223, which keeps it apart from
+ * "223" (0x3000_0000_0000_0223).
+ *
+ * @formatter:on
+ * @author luant
+ *
+ */
+public class PackedDigits {
+
+	/**
+	 * The longest string of digits which can be packed
+	 */
+	public static final int MAX_DIGITS = 15;
+
+	/**
+	 * Returned when a string cannot be packed. It never collides with a packed
+	 * value because 0xF is not a digit.
+	 */
+	public static final long NOT_PACKABLE = -1L;
+
+	private static final int LENGTH_SHIFT = 60;
+
+	private static final long DIGITS_MASK = (1L << LENGTH_SHIFT) - 1;
+
+	public static long pack(CharSequence digits) {
+		return pack(digits, 0, digits.length());
+	}
+
+	/**
+	 * @param digits
+	 * @param start
+	 *            inclusive
+	 * @param end
+	 *            exclusive
+	 * @return the packed digits or NOT_PACKABLE if the range is too long or
+	 *         contains a non digit character
+	 */
+	public static long pack(CharSequence digits, int start, int end) {
+		int length = end - start;
+		if (length > MAX_DIGITS) {
+			return NOT_PACKABLE;
+		}
+		long packed = 0;
+		for (int i = start; i < end; i++) {
+			char c = digits.charAt(i);
+			if (c < '0' || c > '9') {
+				return NOT_PACKABLE;
+			}
+			packed = (packed << 4) | (c - '0');
+		}
+		return withLength(packed, length);
+	}
+
+	/**
+	 * Combine the raw 4-bit digits, e.g. from a rolling window over a phone
+	 * number, with their length.
+	 *
+	 * @param digits
+	 * @param length
+	 * @return
+	 */
+	public static long withLength(long digits, int length) {
+		return ((long) length << LENGTH_SHIFT) | (digits & DIGITS_MASK);
+	}
+
+	/**
+	 * @param length
+	 *            number of digits in the window
+	 * @return a mask keeping the last length digits of a rolling window
+	 */
+	public static long windowMask(int length) {
+		return length >= 16 ? -1L : (1L << (4 * length)) - 1;
+	}
+
+	public static int length(long packed) {
+		return (int) (packed >>> LENGTH_SHIFT);
+	}
+
+	public static String unpack(long packed) {
+		int length = length(packed);
+		char[] digits = new char[length];
+		for (int i = length - 1; i >= 0; i--) {
+			digits[i] = (char) ('0' + (packed & 0xF));
+			packed >>>= 4;
+		}
+		return new String(digits);
+	}
+
+	public static boolean isPackable(int length) {
+		return length <= MAX_DIGITS;
+	}
+}
@@ -0,0 +1,139 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bgl.challenge.phoneword.models.SubString;
+
+public class AhoCorasickMatcherTest {
+
+	AhoCorasickMatcher matcher;
+
+	@BeforeEach
+	protected void beforeEach() {
+		matcher = new AhoCorasickMatcher();
+	}
+
+	@Test
+	void testFindAllSubStrings_GivenOverlappingNumbers_ThenReturnAllOrderedByLengthThenStart() {
+		// Given
+		matcher.add("548");
+		matcher.add("54889");
+		matcher.add("89");
+		String phoneNumber = "1548891";
+
+		// When
+		List<SubString> subStrings = matcher.findAllSubStrings(phoneNumber);
+
+		// Then
+		assertThat(subStrings).containsExactly(new SubString(phoneNumber, "89", 4, 5),
+				new SubString(phoneNumber, "548", 1, 3), new SubString(phoneNumber, "54889", 1, 5));
+	}
+
+	@Test
+	void testFindAllSubStrings_GivenNumberAddedAfterLookup_ThenRebuildAutomaton() {
+		// Given
+		matcher.add("222");
+		matcher.findAllSubStrings("2222");
+
+		// When
+		matcher.add("22");
+		List<SubString> subStrings = matcher.findAllSubStrings("2222");
+
+		// Then
+		assertThat(subStrings.size()).isEqualTo(5);
+	}
+
+	@Test
+	void testFindAllSubStrings_GivenNonDigitCharacter_ThenNoMatchAcrossIt() {
+		// Given
+		matcher.add("2222");
+
+		// When
+		List<SubString> subStrings = matcher.findAllSubStrings("22A22");
+
+		// Then
+		assertThat(subStrings).isEmpty();
+	}
+
+	@Test
+	void testFindAllSubStrings_GivenRandomNumbers_ThenMatchDigitTrie() {
+		// Given
+		Random random = new Random(7);
+		DigitTrie digitTrie = new DigitTrie();
+		for (int i = 0; i < 200; i++) {
+			String encodedNumber = randomDigits(random, 1 + random.nextInt(6));
+			matcher.add(encodedNumber);
+			digitTrie.add(encodedNumber);
+		}
+
+		for (int i = 0; i < 100; i++) {
+			String phoneNumber = randomDigits(random, 15);
+
+			// When
+			List<SubString> actual = matcher.findAllSubStrings(phoneNumber);
+
+			// Then
+			assertThat(actual).isEqualTo(digitTrie.findAllSubStrings(phoneNumber));
+		}
+	}
+
+	@Test
+	void testNewMatchCursor_GivenSortedRandomNumbers_ThenMatchFindAllSubStrings() {
+		// Given
+		Random random = new Random(11);
+		DigitTrie digitTrie = new DigitTrie();
+		for (int i = 0; i < 200; i++) {
+			String encodedNumber = randomDigits(random, 1 + random.nextInt(6));
+			matcher.add(encodedNumber);
+			digitTrie.add(encodedNumber);
+		}
+		List<String> phoneNumbers = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			phoneNumbers.add(randomDigits(random, 4 + random.nextInt(8)));
+		}
+		Collections.sort(phoneNumbers);
+		List<MatchCursor> cursors = Arrays.asList(matcher.newMatchCursor(), digitTrie.newMatchCursor(),
+				new ProbingMatchCursor(digitTrie));
+
+		String previous = "";
+		for (String phoneNumber : phoneNumbers) {
+			int common = 0;
+			while (common < Math.min(previous.length(), phoneNumber.length())
+					&& previous.charAt(common) == phoneNumber.charAt(common)) {
+				common++;
+			}
+			for (MatchCursor cursor : cursors) {
+				// When
+				/// keep the prefix shared with the previous number, push the rest
+				while (cursor.depth() > common) {
+					cursor.pop();
+				}
+				for (int k = cursor.depth(); k < phoneNumber.length(); k++) {
+					cursor.push(phoneNumber.charAt(k));
+				}
+
+				// Then
+				assertThat(cursor.getSubStrings(phoneNumber)).isEqualTo(digitTrie.findAllSubStrings(phoneNumber));
+			}
+			previous = phoneNumber;
+		}
+	}
+
+	private String randomDigits(Random random, int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			// restrict to a few digits so the numbers overlap a lot
+			builder.append((char) ('2' + random.nextInt(3)));
+		}
+		return builder.toString();
+	}
+}
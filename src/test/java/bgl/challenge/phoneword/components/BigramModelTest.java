@@ -0,0 +1,64 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BigramModelTest {
+
+	@Test
+	void testRead_GivenPairs_ThenScoreThemInUpperCase(@TempDir Path tempDir) throws Exception {
+		// Given
+		Path bigramFile = tempDir.resolve("bigrams.txt");
+		Files.write(bigramFile, Arrays.asList("call now -0.5", "CALL\tME  -1.5", "", "call now -0.25"));
+
+		// When
+		BigramModel model = BigramModel.read(bigramFile.toFile());
+
+		// Then
+		assertThat(model.size()).isEqualTo(2);
+		assertThat(model.getScore("CALL", "NOW", WordScores.EMPTY)).isEqualTo(-0.25);
+		assertThat(model.getScore("CALL", "ME", WordScores.EMPTY)).isEqualTo(-1.5);
+	}
+
+	@Test
+	void testRead_GivenMalformedLines_ThenSkipThem(@TempDir Path tempDir) throws Exception {
+		// Given
+		Path bigramFile = tempDir.resolve("bigrams.txt");
+		Files.write(bigramFile, Arrays.asList("call now", "call now often -1", "call now x", "ball game -2"));
+
+		// When
+		BigramModel model = BigramModel.read(bigramFile.toFile());
+
+		// Then
+		assertThat(model.size()).isEqualTo(1);
+		assertThat(model.getScore("BALL", "GAME", WordScores.EMPTY)).isEqualTo(-2.0);
+	}
+
+	@Test
+	void testRead_GivenMissingFile_ThenThrowException(@TempDir Path tempDir) {
+		assertThrows(FileNotFoundException.class, () -> BigramModel.read(tempDir.resolve("missing.txt").toFile()));
+	}
+
+	@Test
+	void testGetScore_GivenUnknownPair_ThenBackOffToWordScore() {
+		// Given
+		BigramModel model = BigramModel.getInstance(
+				Collections.singletonMap("CALL", Collections.singletonMap("NOW", -0.5)), -1.0);
+		WordScores wordScores = WordScores.EMPTY.with(Collections.singletonMap("MOW", -2.0));
+
+		// Then
+		assertThat(model.getScore("CALL", "NOW", wordScores)).isEqualTo(-0.5);
+		assertThat(model.getScore("BALL", "MOW", wordScores)).isEqualTo(-3.0);
+		/// the first word of a phrase scores alone
+		assertThat(model.getScore(null, "MOW", wordScores)).isEqualTo(-2.0);
+	}
+}
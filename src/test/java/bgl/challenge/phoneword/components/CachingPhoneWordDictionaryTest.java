@@ -0,0 +1,123 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
+
+public class CachingPhoneWordDictionaryTest {
+
+	DefaultPhoneWordDictionary dictionary;
+	CachingPhoneWordDictionary cachingDictionary;
+
+	@BeforeEach
+	protected void beforeEach() throws Exception {
+		dictionary = Mockito.spy(DefaultPhoneWordDictionary.getInstance());
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		cachingDictionary = CachingPhoneWordDictionary.getInstance(dictionary);
+	}
+
+	@Test
+	void testFindPhonewords_GivenSameNormalizedNumber_ThenLookUpOnce() {
+		// When
+		List<String> first = cachingDictionary.findPhonewords("222-333");
+		List<String> second = cachingDictionary.findPhonewords("222 333");
+
+		// Then
+		assertThat(first).containsExactlyInAnyOrder("AAA-DDD", "BBB-DDD");
+		assertThat(second).isSameAs(first);
+		verify(dictionary, times(1)).findPhonewords("222333");
+		assertThat(cachingDictionary.getHits()).isEqualTo(1);
+		assertThat(cachingDictionary.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void testFindPhonewords_GivenWordAdded_ThenLookUpAgain() {
+		// Given
+		cachingDictionary.findPhonewords("222333");
+
+		// When
+		dictionary.addNewWord("EEE");
+		List<String> phonewords = cachingDictionary.findPhonewords("222333");
+
+		// Then
+		assertThat(phonewords).containsExactlyInAnyOrder("AAA-DDD", "BBB-DDD", "AAA-EEE", "BBB-EEE");
+		verify(dictionary, times(2)).findPhonewords("222333");
+	}
+
+	@Test
+	void testFindPhonewords_GivenCacheFull_ThenEvictLeastRecentlyUsed() {
+		// Given
+		List<String> phonewords = dictionary.findPhonewords("222333");
+		long entryBytes = CachingPhoneWordDictionary.estimateBytes("222333", phonewords);
+		cachingDictionary = new CachingPhoneWordDictionary(dictionary, 2 * entryBytes);
+		cachingDictionary.findPhonewords("222333");
+		cachingDictionary.findPhonewords("333222");
+		cachingDictionary.findPhonewords("222333");
+
+		// When
+		cachingDictionary.findPhonewords("223333");
+
+		// Then
+		assertThat(cachingDictionary.size()).isEqualTo(2);
+		assertThat(cachingDictionary.getBytes()).isLessThanOrEqualTo(2 * entryBytes);
+		cachingDictionary.findPhonewords("222333");
+		verify(dictionary, times(1)).findPhonewords("333222");
+		assertThat(cachingDictionary.getHits()).isEqualTo(2);
+	}
+
+	@Test
+	void testFindPhonewords_GivenResultLargerThanCache_ThenDontKeepIt() {
+		// Given
+		cachingDictionary = new CachingPhoneWordDictionary(dictionary, 10);
+
+		// When
+		cachingDictionary.findPhonewords("222333");
+
+		// Then
+		assertThat(cachingDictionary.size()).isZero();
+	}
+
+	@Test
+	void testFindPhonewordsBatch_GivenSomeNumbersCached_ThenLookUpTheOthersOnly() {
+		// Given
+		List<String> cached = cachingDictionary.findPhonewords("222333");
+
+		// When
+		List<List<String>> batch = cachingDictionary.findPhonewordsBatch(Arrays.asList("333222", "222-333"));
+
+		// Then
+		assertThat(batch.get(0)).containsExactlyInAnyOrder("DDD-AAA", "DDD-BBB");
+		assertThat(batch.get(1)).isSameAs(cached);
+		verify(dictionary, times(1)).findPhonewordsBatch(Arrays.asList("333222"));
+		assertThat(cachingDictionary.size()).isEqualTo(2);
+	}
+
+	@Test
+	void testPagesAndCounts_GivenCachedNumber_ThenServeFromCache() {
+		// Given
+		List<String> phonewords = cachingDictionary.findPhonewords("222333");
+
+		// When
+		List<String> page = cachingDictionary.findPhonewords("222333", 1, 5);
+		QueryResult capped = cachingDictionary.findPhonewords("222333", QueryOptions.UNLIMITED.withMaxResults(1));
+
+		// Then
+		assertThat(page).containsExactlyElementsOf(phonewords.subList(1, 2));
+		assertThat(capped.getPhonewords()).containsExactlyElementsOf(phonewords.subList(0, 1));
+		assertThat(capped.getStatus()).isEqualTo(QueryResult.Status.MAX_RESULTS_REACHED);
+		assertThat(cachingDictionary.countPhonewords("222-333").intValue()).isEqualTo(2);
+		verify(dictionary, times(0)).countPhonewords("222-333");
+	}
+}
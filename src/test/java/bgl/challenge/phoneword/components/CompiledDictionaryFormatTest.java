@@ -0,0 +1,95 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+public class CompiledDictionaryFormatTest {
+
+	@TempDir
+	Path tempDir;
+
+	PackedWordIndex index;
+	byte[] keypadLayout;
+
+	@BeforeEach
+	protected void beforeEach() {
+		index = new PackedWordIndex();
+		index.add("4355", "HELL");
+		index.add("222", "AAA");
+		index.add("4355", "GELL");
+		index.add("26868377386588466279", "COUNTERREVOLUTIONARY");
+		keypadLayout = new PhoneWordEncoder().getKeypadLayout();
+	}
+
+	@Test
+	void testRead_GivenWrittenDictionary_ThenReturnSameWords() throws Exception {
+		// Given
+		File f = tempDir.resolve("dictionary.bin").toFile();
+		CompiledDictionaryFormat.write(f, index, 3, keypadLayout);
+
+		// When
+		CompiledDictionaryFormat.Contents contents = CompiledDictionaryFormat.read(f, keypadLayout);
+
+		// Then
+		PackedWordIndex actual = contents.getIndex();
+		assertThat(CompiledDictionaryFormat.isCompiledDictionary(f)).isTrue();
+		assertThat(contents.getShortestWordLength()).isEqualTo(3);
+		assertThat(actual.getNoOfBuckets()).isEqualTo(3);
+		assertThat(actual.getNoOfWords()).isEqualTo(4);
+		assertThat(actual.getWords(actual.findBucket(PackedDigits.pack("4355")))).containsExactly("HELL", "GELL");
+		assertThat(actual.getWords(actual.findBucket("222"))).containsExactly("AAA");
+		assertThat(actual.getWords(actual.findBucket("26868377386588466279")))
+				.containsExactly("COUNTERREVOLUTIONARY");
+	}
+
+	@Test
+	void testRead_GivenCorruptedFile_ThenThrowException() throws Exception {
+		// Given
+		File f = tempDir.resolve("dictionary.bin").toFile();
+		CompiledDictionaryFormat.write(f, index, 3, keypadLayout);
+		try (RandomAccessFile file = new RandomAccessFile(f, "rw")) {
+			file.seek(f.length() - 1);
+			file.write('X');
+		}
+
+		// Then
+		IOException exception = assertThrows(IOException.class, () -> CompiledDictionaryFormat.read(f, keypadLayout));
+		assertThat(exception.getMessage()).contains("corrupted");
+	}
+
+	@Test
+	void testRead_GivenAnotherKeypadLayout_ThenThrowException() throws Exception {
+		// Given
+		File f = tempDir.resolve("dictionary.bin").toFile();
+		CompiledDictionaryFormat.write(f, index, 3, keypadLayout);
+		byte[] otherLayout = keypadLayout.clone();
+		otherLayout[0] = 9;
+
+		// Then
+		IOException exception = assertThrows(IOException.class, () -> CompiledDictionaryFormat.read(f, otherLayout));
+		assertThat(exception.getMessage()).contains("keypad layout");
+	}
+
+	@Test
+	void testIsCompiledDictionary_GivenWordList_ThenReturnFalse() throws Exception {
+		// Given
+		Path wordList = tempDir.resolve("dictionary.txt");
+		Files.write(wordList, "KITTY\nSTAR\nWARS\nHELLO\nWORLD\nAAA\nBBB\nCCC\nDDD\nEEE\nFFF\nGGG\nHHH\nIII\nJJJ\nKKK\nLLL\nMMM"
+				.getBytes());
+
+		// Then
+		assertThat(CompiledDictionaryFormat.isCompiledDictionary(wordList.toFile())).isFalse();
+	}
+}
@@ -0,0 +1,123 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConcurrentPhoneWordDictionaryTest {
+
+	ConcurrentPhoneWordDictionary dictionary;
+
+	@BeforeEach
+	protected void beforeEach() {
+		dictionary = ConcurrentPhoneWordDictionary.getInstance();
+	}
+
+	@Test
+	void testAddNewWord_GivenManyWriterThreads_ThenFindSamePhonewordsAsSequentialDictionary() throws Exception {
+		// Given
+		// one word per number, so that the phonewords don't depend on the order of the words
+		List<String> words = Arrays.asList("AAA", "DDD", "KITTY", "STAR", "WARS", "HE", "HELL", "GDP", "MY");
+		DefaultPhoneWordDictionary sequentialDictionary = DefaultPhoneWordDictionary.getInstance();
+		words.forEach(sequentialDictionary::addNewWord);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		// When
+		List<Future<?>> futures = new ArrayList<>();
+		for (String word : words) {
+			futures.add(executor.submit(() -> dictionary.addNewWord(word)));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		dictionary.flush();
+
+		// Then
+		assertThat(dictionary.getShortestWordLength()).isEqualTo(2);
+		assertThat(dictionary.getLongestWordLength()).isEqualTo(5);
+		for (String phoneNumber : new String[] { "2223334355", "1-7827-9277", "54889", "43-43", "437-69" }) {
+			assertThat(dictionary.findPhonewords(phoneNumber))
+					.containsExactlyInAnyOrderElementsOf(sequentialDictionary.findPhonewords(phoneNumber));
+		}
+	}
+
+	@Test
+	void testFindPhonewords_GivenWordsAddedConcurrently_ThenSeeWholeBatchesOnly() throws Exception {
+		// Given
+		dictionary.addNewWord("AAA");
+		DictionarySnapshot before = dictionary.getSnapshot();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		// When
+		Future<?> writer = executor.submit(() -> {
+			for (int i = 0; i < 200; i++) {
+				dictionary.addNewWords(Arrays.asList("BBB", "CCC"));
+			}
+		});
+		Future<List<Integer>> reader = executor.submit(() -> {
+			List<Integer> sizes = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				sizes.add(dictionary.getSnapshot().findWords("222").size());
+			}
+			return sizes;
+		});
+		writer.get();
+		List<Integer> sizes = reader.get();
+		executor.shutdown();
+
+		// Then
+		assertThat(before.findWords("222")).containsExactly("AAA");
+		assertThat(sizes).allMatch(size -> size % 2 == 1);
+		assertThat(dictionary.findWords("222")).hasSize(401);
+	}
+
+	@Test
+	void testAddNewWord_GivenScores_ThenPublishedWithTheWords() throws Exception {
+		// Given
+		dictionary.addNewWord("AAA", 1.0);
+		dictionary.addNewWord("BBB", 2.0);
+		dictionary.flush();
+		dictionary.addNewWord("CCC", 3.0);
+
+		// When
+		List<String> topPhonewords = dictionary.findTopPhonewords("222", 2);
+
+		// Then
+		assertThat(topPhonewords).containsExactly("CCC", "BBB");
+		assertThat(dictionary.getSnapshot().getScore("AAA")).isEqualTo(1.0);
+	}
+
+	@Test
+	void testAddNewWord_GivenImportedWords_ThenPublishOnlyTheDelta(@TempDir Path tempDir) throws Exception {
+		// Given
+		Path dictionaryFile = tempDir.resolve("dictionary.txt");
+		Files.write(dictionaryFile, Arrays.asList("AAA", "DDD", "KITTY"));
+		dictionary.importFromFile(dictionaryFile.toFile());
+
+		// When
+		dictionary.addNewWord("BBB");
+		List<String> phonewordsAfterFirstWord = dictionary.findPhonewords("222333");
+		dictionary.addNewWords(Arrays.asList("EEE", "HE"));
+
+		// Then
+		DictionarySnapshot snapshot = dictionary.getSnapshot();
+		assertThat(phonewordsAfterFirstWord).containsExactlyInAnyOrder("AAA-DDD", "BBB-DDD");
+		assertThat(snapshot.getNoOfIndexWords()).isEqualTo(3);
+		assertThat(snapshot.getNoOfDeltaWords()).isEqualTo(3);
+		assertThat(snapshot.getShortestWordLength()).isEqualTo(2);
+		assertThat(dictionary.findPhonewords("222333")).containsExactlyInAnyOrder("AAA-DDD", "AAA-EEE", "BBB-DDD",
+				"BBB-EEE");
+	}
+}
@@ -6,18 +6,30 @@ import static org.mockito.Mockito.doReturn;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.math.BigInteger;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
+import bgl.challenge.phoneword.models.CancellationToken;
 import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.QueryOptions;
+import bgl.challenge.phoneword.models.QueryResult;
 import bgl.challenge.phoneword.models.SubString;
 
 public class DefaultPhoneWordDictionaryTest {
@@ -51,6 +63,22 @@ public class DefaultPhoneWordDictionaryTest {
 		assertThat(phonewords.get(0)).isEqualTo(expectedWord1);
 	}
 	
+	@Test
+	public void testFindPhoneWords_GivenAhoCorasickMatcher_ThenReturnSameWords() {
+		// Given
+		dictionary = new DefaultPhoneWordDictionary(wordEncoder, syntaxChecker, phonewordFormatter,
+				AhoCorasickMatcher::new);
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("DDD");
+		String input = "22223333";
+
+		// When
+		List<String> phonewords = dictionary.findPhonewords(input);
+
+		// Then
+		assertThat(phonewords).containsExactlyInAnyOrder("AAA-2-DDD-3", "2-AAA-3-DDD", "2-AAA-DDD-3");
+	}
+
 	@Test
 	public void testFindPhoneWords_4() {
 		// Given
@@ -360,6 +388,443 @@ public class DefaultPhoneWordDictionaryTest {
 		assertThat(possibleWord).isEqualTo(expectedWord);
 	}
 
+	@Test
+	public void testConstructPhonewordsPerPattern_2Encodings_EveryCombination() {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		dictionary.addNewWord("EEE");
+		String originalEncodedString = "222333";
+		Pattern pattern = new Pattern(originalEncodedString, new int[] { Pattern.pack(0, 2), Pattern.pack(3, 5) });
+
+		// when
+		List<String> possibleWords = dictionary.constructPhonewordsPerPattern(originalEncodedString, pattern);
+
+		// then
+		assertThat(possibleWords).containsExactlyInAnyOrder("AAA-DDD", "AAA-EEE", "BBB-DDD", "BBB-EEE");
+	}
+
+	@Test
+	public void testStreamPhonewordsPerPattern_DoesNotGenerateAllCombinations() {
+		// Given
+		dictionary.addNewWord("A");
+		dictionary.addNewWord("B");
+		dictionary.addNewWord("C");
+		/// 30 substrings of 3 words each, 3^30 combinations
+		int length = 30;
+		char[] digits = new char[length];
+		int[] intervals = new int[length];
+		String[] firstWord = new String[length];
+		for (int i = 0; i < length; i++) {
+			digits[i] = '2';
+			intervals[i] = Pattern.pack(i, i);
+			firstWord[i] = "A";
+		}
+		String originalEncodedString = new String(digits);
+		Pattern pattern = new Pattern(originalEncodedString, intervals);
+		String allA = String.join("-", firstWord);
+
+		// when
+		List<String> firstPhonewords = dictionary
+				.streamPhonewordsPerPattern(dictionary.getSnapshot(), originalEncodedString, pattern).limit(3)
+				.collect(Collectors.toList());
+
+		// then
+		String prefix = allA.substring(0, allA.length() - 1);
+		assertThat(firstPhonewords).containsExactly(prefix + "A", prefix + "B", prefix + "C");
+	}
+
+	@Test
+	public void testForEachPhoneword_SameAsFindPhonewords() {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		dictionary.addNewWord("EEE");
+		String input = "2224-333";
+		List<String> phonewords = new ArrayList<>();
+
+		// when
+		dictionary.forEachPhoneword(input, phoneword -> phonewords.add(phoneword.toString()));
+
+		// then
+		assertThat(phonewords).containsExactlyInAnyOrderElementsOf(dictionary.findPhonewords(input))
+				.contains("AAA-4-DDD", "BBB-4-EEE");
+	}
+
+	@Test
+	public void testFindPhonewords_InvalidPatterns_NoWordsPicked() {
+		// Given
+		dictionary.addNewWord("A");
+		dictionary.addNewWord("B");
+		dictionary.addNewWord("C");
+		String input = "2112";
+
+		// when
+		List<String> phonewords = dictionary.findPhonewords(input);
+
+		// then
+		assertThat(phonewords).isEmpty();
+		Mockito.verify(dictionary, Mockito.never()).findBucketWords(Mockito.any(DictionarySnapshot.class),
+				Mockito.anyString(), Mockito.any(Pattern.class));
+	}
+
+	@Test
+	public void testCountPhonewords_SameAsFindPhonewords() {
+		// Given
+		dictionary.addNewWord("A");
+		dictionary.addNewWord("B");
+		dictionary.addNewWord("AA");
+		dictionary.addNewWord("DD");
+		dictionary.addNewWord("EE");
+		dictionary.addNewWord("ADD");
+
+		for (String input : Arrays.asList("2", "22", "1-2", "2233", "2122-33", "223322331", "11", "2332233223")) {
+			// when
+			BigInteger count = dictionary.countPhonewords(input);
+
+			// then
+			assertThat(count).as(input).isEqualTo(BigInteger.valueOf(dictionary.findPhonewords(input).size()));
+		}
+	}
+
+	@Test
+	public void testFindPhonewordsPage_PagesMakeTheFullResult() {
+		// Given
+		dictionary.addNewWord("A");
+		dictionary.addNewWord("B");
+		dictionary.addNewWord("C");
+		dictionary.addNewWord("AD");
+		dictionary.addNewWord("BE");
+		String input = "2323-2323";
+		List<String> allPhonewords = dictionary.findPhonewords(input);
+		List<String> pages = new ArrayList<>();
+
+		// when
+		for (int offset = 0; offset < allPhonewords.size(); offset += 7) {
+			pages.addAll(dictionary.findPhonewords(input, offset, 7));
+		}
+
+		// then
+		assertThat(pages).containsExactlyElementsOf(allPhonewords);
+		assertThat(dictionary.findPhonewords(input, allPhonewords.size(), 7)).isEmpty();
+	}
+
+	@Test
+	public void testFindPhonewordsPage_SkipWholePatternsAndWithinAPattern() {
+		// Given
+		dictionary.addNewWord("A");
+		dictionary.addNewWord("B");
+		dictionary.addNewWord("C");
+		/// only the pattern covering every 2 is valid: 3^6 phonewords
+		String input = "21212121212";
+		List<String> allPhonewords = dictionary.findPhonewords(input);
+
+		// when
+		List<String> page = dictionary.findPhonewords(input, 700, 50);
+
+		// then
+		assertThat(allPhonewords).hasSize(729);
+		assertThat(page).containsExactlyElementsOf(allPhonewords.subList(700, 729));
+	}
+
+	@Test
+	public void testFindPhonewordsPage_InvalidPage_ThrowException() {
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findPhonewords("23", -1, 10));
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findPhonewords("23", 0, -1));
+	}
+
+	@Test
+	public void testFindPhonewordsWithOptions_GivenNoLimit_ThenReturnAllPhonewords() {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		String input = "2223-3322";
+
+		// when
+		QueryResult result = dictionary.findPhonewords(input, QueryOptions.UNLIMITED);
+
+		// then
+		assertThat(result.getPhonewords()).containsExactlyElementsOf(dictionary.findPhonewords(input));
+		assertThat(result.isTruncated()).isFalse();
+		assertThat(result.getStatus()).isEqualTo(QueryResult.Status.COMPLETE);
+	}
+
+	@Test
+	public void testFindPhonewordsWithOptions_GivenMaxResults_ThenReturnFirstOnesTruncated() {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		dictionary.addNewWord("EEE");
+		String input = "222333";
+		List<String> allPhonewords = dictionary.findPhonewords(input);
+
+		// when
+		QueryResult truncated = dictionary.findPhonewords(input, QueryOptions.UNLIMITED.withMaxResults(3));
+		QueryResult exact = dictionary.findPhonewords(input,
+				QueryOptions.UNLIMITED.withMaxResults(allPhonewords.size()));
+
+		// then
+		assertThat(truncated.getPhonewords()).containsExactlyElementsOf(allPhonewords.subList(0, 3));
+		assertThat(truncated.getStatus()).isEqualTo(QueryResult.Status.MAX_RESULTS_REACHED);
+		assertThat(exact.getPhonewords()).containsExactlyElementsOf(allPhonewords);
+		assertThat(exact.isTruncated()).isFalse();
+	}
+
+	@Test
+	public void testFindPhonewordsWithOptions_GivenCancelledToken_ThenReturnNothing() {
+		// Given
+		dictionary.addNewWord("AAA");
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+
+		// when
+		QueryResult result = dictionary.findPhonewords("2223",
+				QueryOptions.UNLIMITED.withCancellationToken(token));
+
+		// then
+		assertThat(result.getPhonewords()).isEmpty();
+		assertThat(result.getStatus()).isEqualTo(QueryResult.Status.CANCELLED);
+	}
+
+	@Test
+	public void testFindPhonewordsWithOptions_GivenCancelledWhileExpanding_ThenStop() {
+		// Given
+		dictionary.addNewWord("A");
+		dictionary.addNewWord("B");
+		dictionary.addNewWord("C");
+		CancellationToken token = new CancellationToken();
+		List<String> seen = new ArrayList<>();
+		/// the formatter cancels the query once it has seen 5 phonewords
+		Mockito.doAnswer(invocation -> {
+			invocation.callRealMethod();
+			seen.add(invocation.getArguments()[2].toString());
+			if (seen.size() == 5) {
+				token.cancel();
+			}
+			return null;
+		}).when(phonewordFormatter).formatTo(Mockito.any(), Mockito.any(), Mockito.any());
+
+		// when
+		QueryResult result = dictionary.findPhonewords("2222222222",
+				QueryOptions.UNLIMITED.withCancellationToken(token));
+
+		// then
+		assertThat(result.getPhonewords()).hasSize(5);
+		assertThat(result.getStatus()).isEqualTo(QueryResult.Status.CANCELLED);
+	}
+
+	@Test
+	public void testFindPhonewordsWithOptions_GivenNoTimeLeft_ThenDeadlineExceeded() {
+		// Given
+		dictionary.addNewWord("AAA");
+
+		// when
+		QueryResult result = dictionary.findPhonewords("2223",
+				QueryOptions.UNLIMITED.withTimeBudget(0, TimeUnit.MILLISECONDS));
+
+		// then
+		assertThat(result.getPhonewords()).isEmpty();
+		assertThat(result.getStatus()).isEqualTo(QueryResult.Status.DEADLINE_EXCEEDED);
+	}
+
+	@Test
+	public void testFindPhonewordsWithOptions_GivenDeadlineDuringThePatterns_ThenReturnThePhonewordsReached() {
+		// Given
+		dictionary.addNewWords(Arrays.asList("A", "B", "C", "AB", "ABC"));
+		String input = String.join("", Collections.nCopies(40, "2"));
+
+		// When
+		QueryResult result = dictionary.findPhonewords(input,
+				QueryOptions.UNLIMITED.withTimeBudget(50, TimeUnit.MILLISECONDS));
+
+		// Then
+		assertThat(result.getStatus()).isEqualTo(QueryResult.Status.DEADLINE_EXCEEDED);
+		assertThat(result.getPhonewords()).isNotEmpty();
+		assertThat(result.getPhonewords().get(0)).isEqualTo(String.join("-", Collections.nCopies(40, "A")));
+	}
+
+	@Test
+	public void testFindAllValidPatterns_GivenWordAddedAfterLookup_ThenSegmentationsAreNotStale() {
+		// Given
+		dictionary.addNewWord("DDD");
+		assertThat(dictionary.findAllValidPatterns("7222333")).hasSize(1);
+		assertThat(dictionary.segmentationCache.size()).isPositive();
+
+		// when
+		dictionary.addNewWord("AAA");
+
+		// then
+		/// {222}{333}, {222}333 and 8222{333}, not only the segmentation of 222333 seen before
+		assertThat(dictionary.findAllValidPatterns("8222333")).hasSize(3);
+		assertThat(dictionary.findPhonewords("8-222333")).containsExactly("8-AAA-DDD");
+	}
+
+	@Test
+	public void testFindPhonewordsBatch_GivenNumbersSharingPrefixes_ThenSameAsOneByOneInInputOrder() {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		dictionary.addNewWord("AD");
+		dictionary.addNewWord("BE");
+		List<String> phoneNumbers = Arrays.asList("2223-33", "222-3332", "23-222", "222 333", "2", "222333",
+				"22233", "");
+
+		// when
+		List<List<String>> batch = dictionary.findPhonewordsBatch(phoneNumbers);
+
+		// then
+		assertThat(batch).hasSize(phoneNumbers.size());
+		for (int i = 0; i < phoneNumbers.size(); i++) {
+			assertThat(batch.get(i)).containsExactlyElementsOf(dictionary.findPhonewords(phoneNumbers.get(i)));
+		}
+	}
+
+	@Test
+	public void testFindPhonewordsInRange_GivenBlock_ThenSameAsOneByOne() {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("AD");
+		dictionary.addNewWord("BE");
+		dictionary.addNewWord("DDD");
+		dictionary.addNewWord("FED");
+
+		// when
+		Map<String, List<String>> phonewordsByNumber = dictionary.findPhonewordsInRange("2229-80", "2233-35");
+
+		// then
+		Map<String, List<String>> expected = new LinkedHashMap<>();
+		for (int number = 222980; number <= 223335; number++) {
+			List<String> phonewords = dictionary.findPhonewords(Integer.toString(number));
+			if (!phonewords.isEmpty()) {
+				expected.put(Integer.toString(number), phonewords);
+			}
+		}
+		assertThat(expected).isNotEmpty();
+		assertThat(phonewordsByNumber).containsExactlyEntriesOf(expected);
+	}
+
+	@Test
+	public void testFindPhonewordsInRange_InvalidRange_ThrowException() {
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findPhonewordsInRange("2230", "2229"));
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findPhonewordsInRange("223", "2239"));
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findPhonewordsInRange("22A0", "2239"));
+	}
+
+	@Test
+	public void testFindTopPhonewords_BestScoresFirst() {
+		// Given
+		dictionary.addNewWord("AAA", 1.0);
+		dictionary.addNewWord("BBB", 3.0);
+		dictionary.addNewWord("DDD", 2.0);
+		dictionary.addNewWord("EEE", 0.5);
+
+		// when
+		List<String> topPhonewords = dictionary.findTopPhonewords("222333", 3);
+
+		// then
+		assertThat(topPhonewords).containsExactly("BBB-DDD", "BBB-EEE", "AAA-DDD");
+	}
+
+	@Test
+	public void testFindTopPhonewords_GivenCheckerNotDecidedByPattern_ThenCheckEachPhoneword() {
+		// Given
+		dictionary.addNewWord("AAA", 1.0);
+		dictionary.addNewWord("BBB", 3.0);
+		dictionary.addNewWord("DDD", 2.0);
+		doReturn(false).when(syntaxChecker).isDecidedByPattern();
+		Mockito.doAnswer(invocation -> !invocation.getArguments()[0].toString().contains("BBB"))
+				.when(syntaxChecker).isValid(Mockito.any(CharSequence.class));
+
+		// when
+		List<String> topPhonewords = dictionary.findTopPhonewords("222333", 3);
+		BigInteger count = dictionary.countPhonewords("222333");
+
+		// then
+		assertThat(topPhonewords).containsExactly("AAA-DDD");
+		assertThat(count).isEqualTo(BigInteger.ONE);
+	}
+
+	@Test
+	public void testFindTopPhonewords_AllOfThem_SameAsFindPhonewords() {
+		// Given
+		dictionary.addNewWord("A", 0.2);
+		dictionary.addNewWord("B", 0.7);
+		dictionary.addNewWord("AD", 1.0);
+		dictionary.addNewWord("BE");
+		dictionary.addNewWord("DD", -0.5);
+		dictionary.addNewWord("EE", 0.1);
+		String input = "2332-2332";
+
+		// when
+		List<String> topPhonewords = dictionary.findTopPhonewords(input, Integer.MAX_VALUE);
+
+		// then
+		assertThat(topPhonewords).containsExactlyInAnyOrderElementsOf(dictionary.findPhonewords(input));
+		assertThat(topPhonewords.get(0)).isEqualTo("AD-3-B-AD-3-B");
+	}
+
+	@Test
+	void testFindTopPhrases_GivenBigramModel_ThenMostNaturalPhraseFirst(@TempDir Path tempDir) throws Exception {
+		// Given
+		dictionary.addNewWord("BALL");
+		dictionary.addNewWord("CALL");
+		dictionary.addNewWord("MOW");
+		dictionary.addNewWord("NOW");
+		Path bigramFile = tempDir.resolve("bigrams.txt");
+		Files.write(bigramFile, Arrays.asList("call now -0.1"));
+		dictionary.importBigramModelFromFile(bigramFile.toFile());
+
+		// when
+		List<String> best = dictionary.findTopPhrases("2255-669", 1, 4);
+		List<String> all = dictionary.findTopPhrases("2255-669", 10, 4);
+
+		// then
+		assertThat(best).containsExactly("CALL-NOW");
+		assertThat(all).containsExactlyInAnyOrder("CALL-NOW", "CALL-MOW", "BALL-NOW", "BALL-MOW");
+	}
+
+	@Test
+	public void testFindTopPhrases_GivenNoBigramModel_ThenSameAsFindTopPhonewords() {
+		// Given
+		dictionary.addNewWord("AAA", 1.0);
+		dictionary.addNewWord("BBB", 3.0);
+		dictionary.addNewWord("DDD", 2.0);
+		dictionary.addNewWord("EEE", 0.5);
+
+		// when
+		List<String> topPhrases = dictionary.findTopPhrases("222333", 3, 8);
+
+		// then
+		assertThat(topPhrases).containsExactlyElementsOf(dictionary.findTopPhonewords("222333", 3));
+	}
+
+	@Test
+	void testFindTopPhrases_GivenWordsReplaced_ThenKeepBigramModel(@TempDir Path tempDir) throws Exception {
+		// Given
+		Map<String, Map<String, Double>> pairs = Collections.singletonMap("call",
+				Collections.singletonMap("now", -0.1));
+		dictionary.setBigramModel(BigramModel.getInstance(pairs, BigramModel.DEFAULT_BACKOFF_WEIGHT));
+		Path dictionaryFile = tempDir.resolve("dictionary.txt");
+		Files.write(dictionaryFile, Arrays.asList("BALL", "CALL", "MOW", "NOW"));
+
+		// when
+		dictionary.importFromFile(dictionaryFile.toFile());
+
+		// then
+		assertThat(dictionary.findTopPhrases("2255669", 1, 4)).containsExactly("CALL-NOW");
+	}
+
+	@Test
+	public void testFindTopPhrases_InvalidArguments_ThrowException() {
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findTopPhrases("23", -1, 4));
+		assertThrows(IllegalArgumentException.class, () -> dictionary.findTopPhrases("23", 1, 0));
+	}
+
 	@Test
 	public void testFindAllPossibleSubStrings() {
 		// Given
@@ -591,7 +1056,6 @@ public class DefaultPhoneWordDictionaryTest {
 		dictionary.importFromFile(f);
 
 		// Then
-		WordEncoder wordEncoder = new PhoneWordEncoder();
 		/*
 		 * assert that the dictionary contains all the encoded value of the words in
 		 * text file
@@ -599,7 +1063,7 @@ public class DefaultPhoneWordDictionaryTest {
 		try (Stream<String> stream = Files.lines(Paths.get(url.getFile()))) {
 			stream.forEach(line -> {
 				String word = line;
-				String encoded = wordEncoder.encode(word) + "";
+				String encoded = dictionary.encodesWord(word);
 				assertThat(dictionary.containsNumber(encoded)).overridingErrorMessage("Word [%s] not added", word)
 						.isTrue();
 			});
@@ -618,7 +1082,6 @@ public class DefaultPhoneWordDictionaryTest {
 		dictionary.importFromFile(f);
 
 		// Then
-		WordEncoder wordEncoder = new PhoneWordEncoder();
 		/*
 		 * assert that the dictionary contains all the encoded value of the words in
 		 * text file
@@ -626,39 +1089,105 @@ public class DefaultPhoneWordDictionaryTest {
 		try (Stream<String> stream = Files.lines(Paths.get(url.getFile()))) {
 			stream.forEach(line -> {
 				String word = line;
-				String encoded = wordEncoder.encode(word) + "";
+				String encoded = dictionary.encodesWord(word);
 				assertThat(dictionary.containsNumber(encoded)).overridingErrorMessage("Word [%s] not added", word)
 						.isTrue();
 			});
 		}
 	}
 
+	@Test
+	void testImportFromFile_GivenWordsOfTenLettersOrMore_ThenImportAllWords(@TempDir Path tempDir) throws Exception {
+		// Given
+		// 10 and 15 letters still fit a packed key, 20 letters fall back to a String key
+		List<String> words = Arrays.asList("TELEPHONES", "TELECOMMUNICATE", "COUNTERREVOLUTIONARY", "AAA");
+		Path dictionaryFile = tempDir.resolve("dictionary.txt");
+		Files.write(dictionaryFile, words);
+
+		// When
+		dictionary.importFromFile(dictionaryFile.toFile());
+
+		// Then
+		for (String word : words) {
+			assertThat(dictionary.findWords(dictionary.encodesWord(word))).containsExactly(word);
+		}
+		assertThat(dictionary.findPhonewords("1-8353746637")).containsExactly("1-TELEPHONES");
+	}
+
+	@Test
+	void testImportFromFile_GivenCompiledDictionary_ThenFindSamePhonewords(@TempDir Path tempDir) throws Exception {
+		// Given
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		File compiledFile = tempDir.resolve("dictionary.bin").toFile();
+		dictionary.compileToFile(compiledFile);
+		DefaultPhoneWordDictionary compiledDictionary = DefaultPhoneWordDictionary.getInstance();
+
+		// When
+		compiledDictionary.importFromFile(compiledFile);
+
+		// Then
+		assertThat(compiledDictionary.getShortestWordLength()).isEqualTo(3);
+		assertThat(compiledDictionary.findPhonewords("122213331"))
+				.containsExactlyInAnyOrderElementsOf(dictionary.findPhonewords("122213331"));
+	}
+
 	@Test
 	void testEncodesWord_GivenProperWord_ThenReturnCorrectEncoding_1() throws Exception {
 		// Given
 		String word = "ADG";
-		int expectedEncoded = 234;
-		doReturn(expectedEncoded).when(wordEncoder).encode(word);
+		byte[] expectedDigits = { 2, 3, 4 };
+		doReturn(expectedDigits).when(wordEncoder).encodeToDigits(word);
 
 		// When
 		String actualEncoded = dictionary.encodesWord(word);
 
 		// Then
-		assertThat(actualEncoded).isEqualTo(expectedEncoded + "");
+		assertThat(actualEncoded).isEqualTo("234");
 	}
 
 	@Test
 	void testEncodesWord_GivenProperWord_ThenReturnCorrectEncoding_2() throws Exception {
 		// Given
 		String word = "TEST";
-		int expectedEncoded = 8278;
-		doReturn(expectedEncoded).when(wordEncoder).encode(word);
+		byte[] expectedDigits = { 8, 2, 7, 8 };
+		doReturn(expectedDigits).when(wordEncoder).encodeToDigits(word);
+
+		// When
+		String actualEncoded = dictionary.encodesWord(word);
+
+		// Then
+		assertThat(actualEncoded).isEqualTo("8278");
+	}
+
+	@Test
+	void testEncodesWord_GivenWordLongerThan9Letters_ThenNoOverflow() throws Exception {
+		// Given
+		String word = "INTERNATIONALIZATION";
 
 		// When
 		String actualEncoded = dictionary.encodesWord(word);
 
 		// Then
-		assertThat(actualEncoded).isEqualTo(expectedEncoded + "");
+		assertThat(actualEncoded).isEqualTo("46837628466254928466");
+	}
+
+	@Test
+	void testFindPhonewords_GivenWordsLongerThanPackableNumbers_ThenReturnCorrectWords() {
+		// Given
+		dictionary.addNewWord("Telecommunication");
+		dictionary.addNewWord("Counterrevolutionary");
+		String input = "1-83532666864228466";
+
+		// When
+		List<String> phonewords = dictionary.findPhonewords(input);
+
+		// Then
+		assertThat(phonewords).containsExactly("1-TELECOMMUNICATION");
+		assertThat(dictionary.containsNumber("26868377386588466279")).isTrue();
+		assertThat(dictionary.findAllPossibleSubStringsWithSpecificLength("126868377386588466279", 20))
+				.containsExactly(new SubString("126868377386588466279", "26868377386588466279", 1, 20));
 	}
 
 	@Test
@@ -706,4 +1235,120 @@ public class DefaultPhoneWordDictionaryTest {
 		// Then
 		assertThat(actualFormated).isEqualTo(expectedFormatedWord);
 	}
+
+	@Test
+	void testAddNewWords_GivenSnapshotTakenBefore_ThenSnapshotIsUnchanged() throws Exception {
+		// Given
+		dictionary.addNewWord("AAA");
+		DictionarySnapshot before = dictionary.getSnapshot();
+
+		// When
+		int noOfWordsAdded = dictionary.addNewWords(Arrays.asList("BBB", "DD", "A'A"));
+
+		// Then
+		DictionarySnapshot after = dictionary.getSnapshot();
+		assertThat(noOfWordsAdded).isEqualTo(2);
+		assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+		assertThat(before.findWords("222")).containsExactly("AAA");
+		assertThat(before.containsNumber("33")).isFalse();
+		assertThat(before.getShortestWordLength()).isEqualTo(3);
+		assertThat(after.findWords("222")).containsExactly("AAA", "BBB");
+		assertThat(after.containsNumber("33")).isTrue();
+		assertThat(after.getShortestWordLength()).isEqualTo(2);
+	}
+
+	@Test
+	void testImportFromFile_GivenSnapshotTakenBefore_ThenSnapshotIsUnchanged(@TempDir Path tempDir)
+			throws Exception {
+		// Given
+		dictionary.addNewWord("AAA");
+		DictionarySnapshot before = dictionary.getSnapshot();
+		Path dictionaryFile = tempDir.resolve("dictionary.txt");
+		Files.write(dictionaryFile, Arrays.asList("DDD", "EE"));
+
+		// When
+		dictionary.importFromFile(dictionaryFile.toFile());
+
+		// Then
+		assertThat(before.findAllSubStrings("222333")).containsExactly(new SubString("222333", "222", 0, 2));
+		assertThat(dictionary.findPhonewords("2333")).containsExactlyInAnyOrder("2-DDD", "2-EE-3");
+		assertThat(dictionary.getShortestWordLength()).isEqualTo(2);
+	}
+
+	@Test
+	void testImportDeltaFromFile_GivenTextFile_ThenKeepExistingWords(@TempDir Path tempDir) throws Exception {
+		// Given
+		dictionary.addNewWord("AAA");
+		Path deltaFile = tempDir.resolve("delta.txt");
+		Files.write(deltaFile, Arrays.asList("BBB", "DDD"));
+
+		// When
+		dictionary.importDeltaFromFile(deltaFile.toFile());
+
+		// Then
+		assertThat(dictionary.findWords("222")).containsExactly("AAA", "BBB");
+		assertThat(dictionary.findPhonewords("222333")).containsExactlyInAnyOrder("AAA-DDD", "BBB-DDD");
+	}
+
+	@Test
+	void testGetSnapshot_GivenWordsOfSparseLengths_ThenRecordOnlyThoseLengths() throws Exception {
+		// Given
+		dictionary.addNewWords(Arrays.asList("AAA", "KITTY", "DDD", "COUNTERREVOLUTIONARY"));
+
+		// When
+		DictionarySnapshot snapshot = dictionary.getSnapshot();
+
+		// Then
+		assertThat(snapshot.getWordLengths()).containsExactly(3, 5, 20);
+		assertThat(snapshot.hasWordsOfLength(4)).isFalse();
+		assertThat(snapshot.getShortestWordLength()).isEqualTo(3);
+		assertThat(snapshot.getLongestWordLength()).isEqualTo(20);
+		assertThat(dictionary.findAllPossibleSubStringsWithSpecificLength("2222", 4)).isEmpty();
+		assertThat(dictionary.findAllPossibleSubStringsWithSpecificLength("2222", 3)).hasSize(2);
+	}
+
+	@Test
+	void testAddNewWord_GivenLookupsInBetween_ThenAddOnTopOfTheIndex(@TempDir Path tempDir) throws Exception {
+		// Given
+		Path dictionaryFile = tempDir.resolve("dictionary.txt");
+		Files.write(dictionaryFile, Arrays.asList("AAA", "DDD"));
+		dictionary.importFromFile(dictionaryFile.toFile());
+		assertThat(dictionary.findPhonewords("222333")).containsExactly("AAA-DDD");
+
+		// When
+		dictionary.addNewWord("BBB");
+		List<String> phonewordsAfterFirstWord = dictionary.findPhonewords("222333");
+		dictionary.addNewWord("EE", 2.0);
+		List<String> phonewordsAfterSecondWord = dictionary.findPhonewords("222333");
+
+		// Then
+		DictionarySnapshot snapshot = dictionary.getSnapshot();
+		assertThat(phonewordsAfterFirstWord).containsExactlyInAnyOrder("AAA-DDD", "BBB-DDD");
+		assertThat(phonewordsAfterSecondWord).containsExactlyInAnyOrder("AAA-DDD", "BBB-DDD", "AAA-3-EE",
+				"BBB-3-EE", "AAA-EE-3", "BBB-EE-3");
+		assertThat(snapshot.getNoOfIndexWords()).isEqualTo(2);
+		assertThat(snapshot.getNoOfDeltaWords()).isEqualTo(2);
+		assertThat(snapshot.findWords("222")).containsExactly("AAA", "BBB");
+		assertThat(snapshot.getWordScores().getScore("EE")).isEqualTo(2.0);
+		assertThat(snapshot.getShortestWordLength()).isEqualTo(2);
+		assertThat(snapshot.getIndex().getNoOfWords()).isEqualTo(4);
+	}
+
+	@Test
+	void testAddNewWord_GivenDeltaPastItsLimit_ThenMergeIntoTheIndex() throws Exception {
+		// Given
+		dictionary.addNewWord("AAA");
+		int noOfWords = DefaultPhoneWordDictionary.MIN_MAX_DELTA_WORDS;
+
+		// When
+		for (int i = 0; i < noOfWords; i++) {
+			dictionary.addNewWord("W" + (char) ('A' + i / 26) + (char) ('A' + i % 26));
+		}
+
+		// Then
+		DictionarySnapshot snapshot = dictionary.getSnapshot();
+		assertThat(snapshot.getNoOfDeltaWords()).isZero();
+		assertThat(snapshot.getNoOfIndexWords()).isEqualTo(noOfWords + 1);
+		assertThat(dictionary.findPhonewords("222")).containsExactly("AAA");
+	}
 }
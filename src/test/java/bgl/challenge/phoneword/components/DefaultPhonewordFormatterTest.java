@@ -129,4 +129,18 @@ public class DefaultPhonewordFormatterTest {
 		assertThat(actualFormated).isEqualTo(expectedFormatedWord);
 	}
 
+	@Test
+	void testFormatTo_ReusedSink() throws Exception {
+		// Given
+		String originalPhoneNumber = "2224333";
+		Pattern pattern = new Pattern(originalPhoneNumber, new int[] { Pattern.pack(0, 2), Pattern.pack(4, 6) });
+		StringBuilder sink = new StringBuilder("AAA-4-DDD");
+
+		// When
+		sink.setLength(0);
+		formatter.formatTo(new StringBuilder("BBB4EEE"), pattern, sink);
+
+		// Then
+		assertThat(sink.toString()).isEqualTo("BBB-4-EEE");
+	}
 }
@@ -0,0 +1,100 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bgl.challenge.phoneword.models.SubString;
+
+public class DigitTrieTest {
+
+	DigitTrie digitTrie;
+
+	@BeforeEach
+	protected void beforeEach() {
+		digitTrie = new DigitTrie();
+	}
+
+	@Test
+	void testAdd_GivenDuplicatedNumber_ThenReturnFalse() {
+		// Given
+		digitTrie.add("222");
+
+		// When
+		boolean added = digitTrie.add("222");
+
+		// Then
+		assertThat(added).isFalse();
+		assertThat(digitTrie.size()).isEqualTo(1);
+	}
+
+	@Test
+	void testNewMatchCursor_GivenPop_ThenForgetSubStringsEndingAtIt() {
+		// Given
+		digitTrie.add("22");
+		digitTrie.add("223");
+		MatchCursor cursor = digitTrie.newMatchCursor();
+		"2223".chars().forEach(c -> cursor.push((char) c));
+
+		// When
+		cursor.pop();
+		cursor.push('2');
+
+		// Then
+		assertThat(cursor.getSubStrings("2222")).containsExactly(new SubString("2222", "22", 0, 1),
+				new SubString("2222", "22", 1, 2), new SubString("2222", "22", 2, 3));
+		cursor.pop();
+		cursor.pop();
+		cursor.pop();
+		cursor.pop();
+		assertThrows(IllegalStateException.class, cursor::pop);
+	}
+
+	@Test
+	void testAdd_GivenNonDigit_ThenThrowException() {
+		assertThrows(IllegalArgumentException.class, () -> digitTrie.add("2A2"));
+	}
+
+	@Test
+	void testContains_GivenPrefixOfANumber_ThenReturnFalse() {
+		// Given
+		digitTrie.add("54889");
+
+		// Then
+		assertThat(digitTrie.contains("54889")).isTrue();
+		assertThat(digitTrie.contains("548")).isFalse();
+		assertThat(digitTrie.contains("548891")).isFalse();
+	}
+
+	@Test
+	void testFindAllSubStrings_GivenOverlappingNumbers_ThenReturnAllOrderedByLengthThenStart() {
+		// Given
+		digitTrie.add("548");
+		digitTrie.add("54889");
+		digitTrie.add("89");
+		String phoneNumber = "1548891";
+
+		// When
+		List<SubString> subStrings = digitTrie.findAllSubStrings(phoneNumber);
+
+		// Then
+		assertThat(subStrings).containsExactly(new SubString(phoneNumber, "89", 4, 5),
+				new SubString(phoneNumber, "548", 1, 3), new SubString(phoneNumber, "54889", 1, 5));
+	}
+
+	@Test
+	void testFindAllSubStrings_GivenNoMatchingNumber_ThenReturnEmptyList() {
+		// Given
+		digitTrie.add("222");
+
+		// When
+		List<SubString> subStrings = digitTrie.findAllSubStrings("22122");
+
+		// Then
+		assertThat(subStrings).isEmpty();
+	}
+}
@@ -0,0 +1,113 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedPhoneWordDictionaryTest {
+
+	@TempDir
+	Path tempDir;
+
+	DefaultPhoneWordDictionary heapDictionary;
+	MappedPhoneWordDictionary mappedDictionary;
+
+	@BeforeEach
+	protected void beforeEach() {
+		heapDictionary = DefaultPhoneWordDictionary.getInstance();
+		mappedDictionary = MappedPhoneWordDictionary.getInstance();
+	}
+
+	/**
+	 * @return a plain text dictionary of a few words, one per line
+	 * @throws IOException
+	 */
+	private File textDictionaryFile() throws IOException {
+		Path textFile = tempDir.resolve("dictionary.txt");
+		Files.write(textFile, Arrays.asList("KITTY", "STAR", "WARS"));
+		return textFile.toFile();
+	}
+
+	@Test
+	void testFindPhonewords_GivenMappedDictionary_ThenFindSamePhonewordsAsHeapDictionary() throws Exception {
+		// Given
+		heapDictionary.importFromFile(textDictionaryFile());
+		File compiledFile = tempDir.resolve("dictionary.bin").toFile();
+		heapDictionary.compileToFile(compiledFile);
+
+		// When
+		mappedDictionary.importFromFile(compiledFile);
+
+		// Then
+		assertThat(mappedDictionary.getShortestWordLength()).isEqualTo(heapDictionary.getShortestWordLength());
+		for (String phoneNumber : new String[] { "54889", "7827-9277", "1-7827-9277", "782792771" }) {
+			assertThat(mappedDictionary.findPhonewords(phoneNumber))
+					.containsExactlyInAnyOrderElementsOf(heapDictionary.findPhonewords(phoneNumber));
+		}
+	}
+
+	@Test
+	void testFindWords_GivenLongWord_ThenFindItInMappedDictionary() throws Exception {
+		// Given
+		heapDictionary.addNewWord("COUNTERREVOLUTIONARY");
+		heapDictionary.addNewWord("HELL");
+		heapDictionary.addNewWord("GELL");
+		File compiledFile = tempDir.resolve("dictionary.bin").toFile();
+		heapDictionary.compileToFile(compiledFile);
+
+		// When
+		mappedDictionary.importFromFile(compiledFile);
+
+		// Then
+		assertThat(mappedDictionary.findWords("4355")).containsExactly("HELL", "GELL");
+		assertThat(mappedDictionary.findWords("26868377386588466279")).containsExactly("COUNTERREVOLUTIONARY");
+		assertThat(mappedDictionary.findPhonewords("4355-26868377386588466279")).contains("HELL-COUNTERREVOLUTIONARY",
+				"GELL-COUNTERREVOLUTIONARY");
+	}
+
+	@Test
+	void testImportFromFile_GivenTextFile_ThenThrowException() throws Exception {
+		// Given
+		File textFile = textDictionaryFile();
+
+		// Then
+		assertThrows(IOException.class, () -> mappedDictionary.importFromFile(textFile));
+	}
+
+	@Test
+	void testAddNewWord_GivenMappedDictionary_ThenThrowException() throws Exception {
+		// Then
+		assertThrows(UnsupportedOperationException.class, () -> mappedDictionary.addNewWord("AAA"));
+	}
+
+	@Test
+	void testChanges_GivenMappedDictionary_ThenFailBeforeChangingAnything() throws Exception {
+		// Given
+		heapDictionary.addNewWord("HELL");
+		File compiledFile = tempDir.resolve("dictionary.bin").toFile();
+		heapDictionary.compileToFile(compiledFile);
+		mappedDictionary.importFromFile(compiledFile);
+		DictionarySnapshot before = mappedDictionary.getSnapshot();
+
+		// When
+		assertThrows(UnsupportedOperationException.class, () -> mappedDictionary.addNewWord("AAA", 1.0));
+		assertThrows(UnsupportedOperationException.class,
+				() -> mappedDictionary.addNewWords(Arrays.asList("AAA", "BBB")));
+		assertThrows(UnsupportedOperationException.class, () -> mappedDictionary.importDeltaFromFile(compiledFile));
+		assertThrows(UnsupportedOperationException.class,
+				() -> mappedDictionary.setBigramModel(BigramModel.EMPTY));
+
+		// Then
+		assertThat(mappedDictionary.getSnapshot()).isSameAs(before);
+		assertThat(before.getIndex()).isInstanceOf(MappedWordIndex.class);
+	}
+}
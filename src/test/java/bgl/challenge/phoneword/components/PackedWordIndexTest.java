@@ -0,0 +1,67 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bgl.challenge.phoneword.utils.PackedDigits;
+
+public class PackedWordIndexTest {
+
+	PackedWordIndex index;
+
+	@BeforeEach
+	protected void beforeEach() {
+		index = new PackedWordIndex();
+	}
+
+	@Test
+	void testAdd_GivenWordsOfTheSameNumber_ThenShareOneBucket() {
+		// Given
+		long key = PackedDigits.pack("222");
+
+		// When
+		boolean firstAdded = index.add(key, "AAA");
+		boolean secondAdded = index.add(key, "BBB");
+
+		// Then
+		assertThat(firstAdded).isTrue();
+		assertThat(secondAdded).isFalse();
+		int bucket = index.findBucket(key);
+		assertThat(index.getWords(bucket)).containsExactly("AAA", "BBB");
+		assertThat(index.getNoOfBuckets()).isEqualTo(1);
+		assertThat(index.getNoOfWords()).isEqualTo(2);
+	}
+
+	@Test
+	void testFindBucket_GivenUnknownNumber_ThenReturnNotFound() {
+		// Given
+		index.add(PackedDigits.pack("222"), "AAA");
+
+		// Then
+		assertThat(index.findBucket(PackedDigits.pack("223"))).isEqualTo(PackedWordIndex.NOT_FOUND);
+		assertThat(index.findBucket(PackedDigits.NOT_PACKABLE)).isEqualTo(PackedWordIndex.NOT_FOUND);
+	}
+
+	@Test
+	void testAdd_GivenInterleavedBucketsAndGrowth_ThenKeepWordsOfEachBucket() {
+		// Given
+		int noOfNumbers = 1000;
+
+		// When
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < noOfNumbers; i++) {
+				index.add(PackedDigits.pack(Integer.toString(i)), i + "-" + round);
+			}
+		}
+
+		// Then
+		assertThat(index.getNoOfBuckets()).isEqualTo(noOfNumbers);
+		for (int i = 0; i < noOfNumbers; i++) {
+			int bucket = index.findBucket(PackedDigits.pack(Integer.toString(i)));
+			assertThat(index.getWords(bucket)).containsExactly(i + "-0", i + "-1", i + "-2");
+			assertThat(index.getKey(bucket)).isEqualTo(PackedDigits.pack(Integer.toString(i)));
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParallelDictionaryImporterTest {
+
+	@TempDir
+	Path tempDir;
+
+	WordEncoder wordEncoder = new PhoneWordEncoder();
+
+	@Test
+	void testImportFromFile_GivenSmallChunks_ThenKeepWordsInFileOrder() throws Exception {
+		// Given
+		File f = writeDictionary("hell\r\nAAA\ngell\n\nCOUNTERREVOLUTIONARY\nhe'll\nbbb\nfell\nkitty");
+		ParallelDictionaryImporter importer = new ParallelDictionaryImporter(wordEncoder, new ForkJoinPool(4), 7,
+				null, 0);
+
+		// When
+		ParallelDictionaryImporter.Result result = importer.importFromFile(f);
+
+		// Then
+		PackedWordIndex index = result.getIndex();
+		assertThat(result.getShortestWordLength()).isEqualTo(3);
+		assertThat(index.getNoOfWords()).isEqualTo(7);
+		assertThat(index.getEncodedNumber(0)).isEqualTo("4355");
+		assertThat(index.getWords(index.findBucket("4355"))).containsExactly("HELL", "GELL");
+		assertThat(index.getWords(index.findBucket("222"))).containsExactly("AAA", "BBB");
+		assertThat(index.getWords(index.findBucket("3355"))).containsExactly("FELL");
+		assertThat(index.getWords(index.findBucket("54889"))).containsExactly("KITTY");
+		assertThat(index.getWords(index.findBucket("26868377386588466279"))).containsExactly("COUNTERREVOLUTIONARY");
+	}
+
+	@Test
+	void testImportFromFile_GivenScoreColumn_ThenImportScores() throws Exception {
+		// Given
+		File f = writeDictionary("hell 2.5\nAAA\t-1\nbbb\ngell x\nhell\t4\n");
+		ParallelDictionaryImporter importer = new ParallelDictionaryImporter(wordEncoder, new ForkJoinPool(2), 8,
+				null, 0);
+
+		// When
+		ParallelDictionaryImporter.Result result = importer.importFromFile(f);
+
+		// Then
+		PackedWordIndex index = result.getIndex();
+		assertThat(index.getWords(index.findBucket("4355"))).containsExactly("HELL", "HELL");
+		assertThat(index.getWords(index.findBucket("222"))).containsExactly("AAA", "BBB");
+		/// the last score of a word wins, a line with an invalid score is skipped
+		assertThat(result.getScores()).containsOnlyKeys("HELL", "AAA").containsEntry("HELL", 4.0)
+				.containsEntry("AAA", -1.0);
+	}
+
+	@Test
+	void testImportFromFile_GivenProgressListener_ThenReportAllWords() throws Exception {
+		// Given
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			content.append("word\n");
+		}
+		File f = writeDictionary(content.toString());
+		List<Long> reports = new ArrayList<>();
+		ParallelDictionaryImporter importer = new ParallelDictionaryImporter(wordEncoder, new ForkJoinPool(2), 1024,
+				reports::add, Long.MAX_VALUE / 2);
+
+		// When
+		ParallelDictionaryImporter.Result result = importer.importFromFile(f);
+
+		// Then
+		assertThat(result.getIndex().getNoOfWords()).isEqualTo(10000);
+		assertThat(reports).containsExactly(10000L);
+	}
+
+	@Test
+	void testImportFromFile_GivenEmptyFile_ThenImportNoWords() throws Exception {
+		// Given
+		File f = writeDictionary("");
+
+		// When
+		ParallelDictionaryImporter.Result result = ParallelDictionaryImporter.getInstance(wordEncoder, null)
+				.importFromFile(f);
+
+		// Then
+		assertThat(result.getIndex().getNoOfWords()).isEqualTo(0);
+		assertThat(result.getShortestWordLength()).isEqualTo(0);
+	}
+
+	@Test
+	void testImportFromFile_GivenNotExistFile_ThenThrowException() throws Exception {
+		// Then
+		assertThrows(FileNotFoundException.class, () -> ParallelDictionaryImporter.getInstance(wordEncoder, null)
+				.importFromFile(tempDir.resolve("nonExistFile").toFile()));
+	}
+
+	@Test
+	void testSplitIntoChunks_GivenLongLines_ThenEndChunksAfterLineFeeds() throws Exception {
+		// Given
+		File f = writeDictionary("aaaaaaaaaa\nbb\ncccccccccc\nd");
+		ParallelDictionaryImporter importer = new ParallelDictionaryImporter(wordEncoder, ForkJoinPool.commonPool(),
+				4, null, 0);
+
+		// When
+		List<long[]> chunks;
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			chunks = importer.splitIntoChunks(channel);
+		}
+
+		// Then
+		assertThat(chunks).hasSize(3);
+		assertThat(chunks.get(0)).containsExactly(0, 11);
+		assertThat(chunks.get(1)).containsExactly(11, 25);
+		assertThat(chunks.get(2)).containsExactly(25, 26);
+	}
+
+	private File writeDictionary(String content) throws Exception {
+		Path path = tempDir.resolve("dictionary.txt");
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		return path.toFile();
+	}
+}
@@ -0,0 +1,188 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import bgl.challenge.phoneword.models.Pattern;
+import bgl.challenge.phoneword.models.SubString;
+
+public class PatternSegmenterTest {
+
+	@Test
+	void testFindAllPatterns_GivenOverlappingSubStrings_ThenReturnEachNonOverlappingCombinationOnce() {
+		// Given
+		String phoneNumber = "2222333";
+		SubString aaa1 = new SubString(phoneNumber, "222", 0, 2);
+		SubString aaa2 = new SubString(phoneNumber, "222", 1, 3);
+		SubString ddd = new SubString(phoneNumber, "333", 4, 6);
+
+		// When
+		List<Pattern> patterns = new PatternSegmenter(phoneNumber, Arrays.asList(ddd, aaa2, aaa1)).findAllPatterns();
+
+		// Then
+		assertThat(patterns).containsExactlyInAnyOrder(pattern(phoneNumber, aaa1, ddd), pattern(phoneNumber, aaa2, ddd),
+				pattern(phoneNumber, aaa1), pattern(phoneNumber, aaa2), pattern(phoneNumber, ddd));
+		assertThat(patterns).allMatch(Pattern::isValid);
+	}
+
+	@Test
+	void testFindAllPatterns_GivenStop_ThenReturnPatternsFoundUntilThen() {
+		// Given
+		String phoneNumber = "2222333";
+		SubString aaa1 = new SubString(phoneNumber, "222", 0, 2);
+		SubString aaa2 = new SubString(phoneNumber, "222", 1, 3);
+		SubString ddd = new SubString(phoneNumber, "333", 4, 6);
+		PatternSegmenter segmenter = new PatternSegmenter(phoneNumber, Arrays.asList(ddd, aaa2, aaa1));
+		List<Pattern> allPatterns = segmenter.findAllPatterns();
+		int[] steps = { 0 };
+
+		// When
+		List<Pattern> patterns = segmenter.findAllPatterns(() -> ++steps[0] > 4);
+
+		// Then
+		assertThat(patterns).isNotEmpty();
+		assertThat(allPatterns).startsWith(patterns.toArray(new Pattern[0]));
+		assertThat(patterns.size()).isLessThan(allPatterns.size());
+		assertThat(segmenter.findAllPatterns(() -> true)).isEmpty();
+	}
+
+	@Test
+	void testFindAllPatterns_GivenNoSubString_ThenReturnNoPattern() {
+		// When
+		List<Pattern> patterns = new PatternSegmenter("1234", Collections.emptyList()).findAllPatterns();
+
+		// Then
+		assertThat(patterns).isEmpty();
+	}
+
+	@Test
+	void testFindAllPatterns_GivenManySubStrings_ThenMatchBruteForce() {
+		// Given
+		String phoneNumber = "2222222";
+		List<SubString> subStrings = new ArrayList<>();
+		for (int length = 1; length <= 2; length++) {
+			for (int start = 0; start + length <= phoneNumber.length(); start++) {
+				subStrings.add(new SubString(phoneNumber, phoneNumber.substring(start, start + length), start,
+						start + length - 1));
+			}
+		}
+
+		// When
+		List<Pattern> patterns = new PatternSegmenter(phoneNumber, subStrings).findAllPatterns();
+
+		// Then
+		Set<Set<SubString>> expected = new HashSet<>();
+		for (int mask = 1; mask < (1 << subStrings.size()); mask++) {
+			List<SubString> chosen = new ArrayList<>();
+			for (int i = 0; i < subStrings.size(); i++) {
+				if ((mask & (1 << i)) != 0) {
+					chosen.add(subStrings.get(i));
+				}
+			}
+			if (new Pattern(phoneNumber, chosen).isValid()) {
+				expected.add(new HashSet<>(chosen));
+			}
+		}
+		Set<Set<SubString>> actual = new HashSet<>();
+		for (Pattern pattern : patterns) {
+			actual.add(new HashSet<>(pattern.getSubStrings()));
+		}
+		assertThat(patterns).hasSize(expected.size());
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	void testFindAllPatternsWithCache_GivenManySubStrings_ThenSameOrderAsWalk() {
+		// Given
+		String phoneNumber = "22223222";
+		List<SubString> subStrings = new ArrayList<>();
+		for (int length = 1; length <= 3; length++) {
+			for (int start = 0; start + length <= phoneNumber.length(); start++) {
+				if (phoneNumber.substring(start, start + length).indexOf('3') < 0) {
+					subStrings.add(new SubString(phoneNumber, start, start + length - 1));
+				}
+			}
+		}
+		PatternSegmenter segmenter = new PatternSegmenter(phoneNumber, subStrings);
+
+		// When
+		List<Pattern> patterns = segmenter.findAllPatterns(SegmentationCache.getInstance(), 1, () -> false);
+
+		// Then
+		assertThat(patterns).containsExactlyElementsOf(segmenter.findAllPatterns());
+	}
+
+	@Test
+	void testFindAllPatternsWithCache_GivenSharedSuffix_ThenReuseItsSegmentations() {
+		// Given
+		SegmentationCache cache = SegmentationCache.getInstance();
+		String first = "72222333";
+		String second = "82222333";
+		new PatternSegmenter(first, subStringsOf222And333(first)).findAllPatterns(cache, 1, () -> false);
+		long missesBefore = cache.getMisses();
+
+		// When
+		List<Pattern> patterns = new PatternSegmenter(second, subStringsOf222And333(second)).findAllPatterns(cache,
+				1, () -> false);
+
+		// Then
+		/// only the suffix starting with the first digit is new
+		assertThat(cache.getMisses() - missesBefore).isEqualTo(1);
+		assertThat(patterns).containsExactlyElementsOf(
+				new PatternSegmenter(second, subStringsOf222And333(second)).findAllPatterns());
+	}
+
+	@Test
+	void testFindAllPatternsWithCache_GivenStop_ThenReturnPatternsFoundUntilThenAndKeepNoPartialTails() {
+		// Given
+		SegmentationCache cache = SegmentationCache.getInstance();
+		String phoneNumber = "72222333";
+		PatternSegmenter segmenter = new PatternSegmenter(phoneNumber, subStringsOf222And333(phoneNumber));
+		List<Pattern> allPatterns = segmenter.findAllPatterns();
+		int[] steps = { 0 };
+
+		// When
+		List<Pattern> patterns = segmenter.findAllPatterns(cache, 1, () -> ++steps[0] > 6);
+
+		// Then
+		assertThat(patterns).isNotEmpty();
+		assertThat(patterns.size()).isLessThan(allPatterns.size());
+		assertThat(allPatterns).startsWith(patterns.toArray(new Pattern[0]));
+		assertThat(cache.size()).isZero();
+		assertThat(segmenter.findAllPatterns(cache, 1, () -> false)).containsExactlyElementsOf(allPatterns);
+	}
+
+	@Test
+	void testFindAllPatternsWithCache_GivenShortSuffixes_ThenDontKeepThem() {
+		// Given
+		SegmentationCache cache = SegmentationCache.getInstance();
+		String phoneNumber = "72222333";
+		PatternSegmenter segmenter = new PatternSegmenter(phoneNumber, subStringsOf222And333(phoneNumber));
+
+		// When
+		segmenter.findAllPatterns(cache, 1, () -> false);
+
+		// Then
+		// the suffixes starting at the positions 0, 1 and 2 only
+		assertThat(cache.size()).isEqualTo(phoneNumber.length() - SegmentationCache.MIN_SUFFIX_LENGTH + 1);
+		assertThat(cache.get(1, phoneNumber.substring(2))).isNotNull();
+		assertThat(cache.get(1, phoneNumber.substring(3))).isNull();
+	}
+
+	private static List<SubString> subStringsOf222And333(String phoneNumber) {
+		return Arrays.asList(new SubString(phoneNumber, 1, 3), new SubString(phoneNumber, 2, 4),
+				new SubString(phoneNumber, 5, 7));
+	}
+
+	private static Pattern pattern(String phoneNumber, SubString... subStrings) {
+		return new Pattern(phoneNumber, Arrays.asList(subStrings));
+	}
+}
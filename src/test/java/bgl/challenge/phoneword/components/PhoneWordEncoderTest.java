@@ -1,10 +1,16 @@
 package bgl.challenge.phoneword.components;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import bgl.challenge.phoneword.exception.UnknownCharacterException;
+
 public class PhoneWordEncoderTest {
 
 	PhoneWordEncoder translator;
@@ -15,6 +21,7 @@ public class PhoneWordEncoderTest {
 	}
 
 	@Test
+	@SuppressWarnings("deprecation")
 	public void testTranslateString() {
 		// Given
 		String originalString = "KITTY";
@@ -28,6 +35,7 @@ public class PhoneWordEncoderTest {
 	}
 
 	@Test
+	@SuppressWarnings("deprecation")
 	public void testTranslateString_1() {
 		// Given
 		String originalString = "Hello";
@@ -39,4 +47,34 @@ public class PhoneWordEncoderTest {
 		// Then
 		assertThat(actualNumber).isEqualTo(expectedNumber);
 	}
+
+	@Test
+	public void testEncodeToDigits_GivenLongWord_ThenReturnAllDigits() {
+		// Given
+		String originalString = "Internationalization";
+		byte[] expectedDigits = { 4, 6, 8, 3, 7, 6, 2, 8, 4, 6, 6, 2, 5, 4, 9, 2, 8, 4, 6, 6 };
+
+		// When
+		byte[] actualDigits = translator.encodeToDigits(originalString);
+
+		// Then
+		assertThat(actualDigits).isEqualTo(expectedDigits);
+	}
+
+	@Test
+	public void testEncodeToDigits_GivenUnsupportedCharacter_ThenThrowException() {
+		assertThrows(UnknownCharacterException.class, () -> translator.encodeToDigits("O'Neil"));
+	}
+
+	@Test
+	public void testEncodeAllToDigits_GivenUnsupportedWord_ThenReturnNullForIt() {
+		// When
+		List<byte[]> actualDigits = translator.encodeAllToDigits(Arrays.asList("KITTY", "O'Neil", "Hello"));
+
+		// Then
+		assertThat(actualDigits.size()).isEqualTo(3);
+		assertThat(actualDigits.get(0)).isEqualTo(new byte[] { 5, 4, 8, 8, 9 });
+		assertThat(actualDigits.get(1)).isNull();
+		assertThat(actualDigits.get(2)).isEqualTo(new byte[] { 4, 3, 5, 5, 6 });
+	}
 }
@@ -0,0 +1,69 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import bgl.challenge.phoneword.models.SubString;
+
+public class PhonewordCounterTest {
+
+	@Test
+	void testCount_GivenNoSubString_ThenReturnZero() {
+		// When
+		BigInteger count = new PhonewordCounter("1234", Collections.emptyList(), new int[0]).count();
+
+		// Then
+		assertThat(count).isEqualTo(BigInteger.ZERO);
+	}
+
+	@Test
+	void testCount_GivenConsecutiveUncoveredDigits_ThenTheyAreNotCounted() {
+		// Given
+		String phoneNumber = "22233";
+		SubString aaa = new SubString(phoneNumber, 0, 2);
+		SubString ee = new SubString(phoneNumber, 3, 4);
+
+		// When
+		BigInteger count = new PhonewordCounter(phoneNumber, Arrays.asList(ee, aaa), new int[] { 3, 2 }).count();
+
+		// Then
+		/// only {222}{33} is valid: 2 * 3 phonewords
+		assertThat(count).isEqualTo(BigInteger.valueOf(6));
+	}
+
+	@Test
+	void testCount_GivenMoreThanALongOfPhonewords_ThenReturnTheExactCount() {
+		// Given
+		/// 50 single digit substrings of 3 words each
+		char[] digits = new char[50];
+		Arrays.fill(digits, '2');
+		String phoneNumber = new String(digits);
+		SubString[] subStrings = new SubString[digits.length];
+		int[] noOfWords = new int[digits.length];
+		for (int i = 0; i < digits.length; i++) {
+			subStrings[i] = new SubString(phoneNumber, i, i);
+			noOfWords[i] = 3;
+		}
+
+		// When
+		BigInteger count = new PhonewordCounter(phoneNumber, Arrays.asList(subStrings), noOfWords).count();
+
+		// Then
+		/// f(n) = 3 * f(n - 1) + 3 * f(n - 2): the first digit is covered, or left
+		/// uncovered with the second one covered; f(0) = 1 and f(1) = 4
+		BigInteger previous = BigInteger.ONE;
+		BigInteger current = BigInteger.valueOf(4);
+		for (int n = 2; n <= digits.length; n++) {
+			BigInteger next = current.multiply(BigInteger.valueOf(3)).add(previous.multiply(BigInteger.valueOf(3)));
+			previous = current;
+			current = next;
+		}
+		assertThat(count.bitLength()).isGreaterThan(63);
+		assertThat(count).isEqualTo(current);
+	}
+}
@@ -0,0 +1,129 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PhonewordSessionTest {
+
+	DefaultPhoneWordDictionary dictionary;
+
+	@BeforeEach
+	protected void beforeEach() throws Exception {
+		dictionary = DefaultPhoneWordDictionary.getInstance();
+		dictionary.addNewWord("AAA");
+		dictionary.addNewWord("BBB");
+		dictionary.addNewWord("DDD");
+		dictionary.addNewWord("AD");
+		dictionary.addNewWord("CALL");
+	}
+
+	@Test
+	void testPush_GivenOneDigitAtATime_ThenReturnSamePhonewordsAsFindPhonewords() {
+		// Given
+		PhonewordSession session = dictionary.newSession();
+		String input = "2223322255";
+
+		for (int i = 0; i < input.length(); i++) {
+			// When
+			session.push(input.charAt(i));
+
+			// Then
+			String typed = input.substring(0, i + 1);
+			assertThat(session.getPhoneNumber()).isEqualTo(typed);
+			assertThat(session.getPhonewords())
+					.containsExactlyInAnyOrderElementsOf(dictionary.findPhonewords(typed));
+		}
+	}
+
+	@Test
+	void testPush_GivenAhoCorasickMatcher_ThenReturnSamePhonewordsAsFindPhonewords() {
+		// Given
+		DefaultPhoneWordDictionary ahoCorasickDictionary = DefaultPhoneWordDictionary
+				.getInstance(AhoCorasickMatcher::new);
+		ahoCorasickDictionary.addNewWord("AAA");
+		ahoCorasickDictionary.addNewWord("DDD");
+		PhonewordSession session = ahoCorasickDictionary.newSession();
+
+		// When
+		session.pushAll("22223333");
+
+		// Then
+		assertThat(session.getPhonewords()).containsExactlyInAnyOrder("AAA-2-DDD-3", "2-AAA-3-DDD",
+				"2-AAA-DDD-3");
+	}
+
+	@Test
+	void testPop_GivenCorrectedDigit_ThenReturnPreviousPhonewords() {
+		// Given
+		PhonewordSession session = dictionary.newSession();
+		session.pushAll("2223");
+		List<String> before = session.getPhonewords();
+
+		// When
+		session.push('9');
+		session.pop();
+
+		// Then
+		assertThat(session.getPhoneNumber()).isEqualTo("2223");
+		assertThat(session.getPhonewords()).containsExactlyElementsOf(before);
+	}
+
+	@Test
+	void testPop_GivenNoCharacter_ThenThrowException() {
+		// Given
+		PhonewordSession session = dictionary.newSession();
+
+		// When / Then
+		assertThatThrownBy(session::pop).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void testPush_GivenSpacesAndPunctuations_ThenIgnoreThem() {
+		// Given
+		PhonewordSession session = dictionary.newSession();
+
+		// When
+		boolean pushed = session.push('-');
+		session.pushAll("222 333");
+
+		// Then
+		assertThat(pushed).isFalse();
+		assertThat(session.getPhoneNumber()).isEqualTo("222333");
+		assertThat(session.getPhonewords()).containsExactlyInAnyOrderElementsOf(dictionary.findPhonewords("222-333"));
+	}
+
+	@Test
+	void testGetPhonewords_GivenLimit_ThenReturnAtMostLimit() {
+		// Given
+		PhonewordSession session = dictionary.newSession();
+		session.pushAll("222333");
+
+		// When
+		List<String> phonewords = session.getPhonewords(1);
+
+		// Then
+		assertThat(phonewords).hasSize(1);
+		assertThat(dictionary.findPhonewords("222333")).contains(phonewords.get(0));
+	}
+
+	@Test
+	void testNewSession_GivenWordAddedAfterwards_ThenKeepWordsOfOpening() {
+		// Given
+		PhonewordSession session = dictionary.newSession();
+
+		// When
+		dictionary.addNewWord("EEE");
+		session.pushAll("333");
+
+		// Then
+		assertThat(session.getPhonewords()).containsExactly("DDD");
+		PhonewordSession newSession = dictionary.newSession();
+		newSession.pushAll("333");
+		assertThat(newSession.getPhonewords()).containsExactlyInAnyOrder("DDD", "EEE");
+	}
+}
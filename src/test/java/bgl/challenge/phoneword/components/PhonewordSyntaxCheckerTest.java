@@ -5,6 +5,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import bgl.challenge.phoneword.models.Pattern;
+
 public class PhonewordSyntaxCheckerTest {
 
 	PhonewordSyntaxChecker syntaxChecker;
@@ -65,4 +67,44 @@ public class PhonewordSyntaxCheckerTest {
 		// then
 		assertThat(actual).isEqualTo(expected);
 	}
+
+	@Test
+	public void testIsValid_CharSequence() {
+		// Given
+		StringBuilder phoneword = new StringBuilder("KITTY1");
+
+		// When
+		boolean valid = syntaxChecker.isValid(phoneword);
+		phoneword.append('2');
+		boolean invalid = syntaxChecker.isValid(phoneword);
+
+		// Then
+		assertThat(valid).isTrue();
+		assertThat(invalid).isFalse();
+	}
+
+	@Test
+	public void testIsValidPattern_UncoveredConsecutiveDigits_ReturnFalse() {
+		// Given
+		Pattern pattern = new Pattern("2223311", new int[] { Pattern.pack(0, 2), Pattern.pack(3, 4) });
+
+		// When
+		boolean actual = syntaxChecker.isValidPattern(pattern);
+
+		// Then
+		assertThat(actual).isFalse();
+	}
+
+	@Test
+	public void testIsValidPattern_UncoveredDigitsApart_ReturnTrue() {
+		// Given
+		Pattern pattern = new Pattern("1222133", new int[] { Pattern.pack(1, 3), Pattern.pack(5, 6) });
+
+		// When
+		boolean actual = syntaxChecker.isValidPattern(pattern);
+
+		// Then
+		assertThat(actual).isTrue();
+		assertThat(syntaxChecker.isDecidedByPattern()).isTrue();
+	}
 }
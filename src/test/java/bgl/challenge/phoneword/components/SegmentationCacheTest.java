@@ -0,0 +1,101 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class SegmentationCacheTest {
+
+	private static final int[][] TWO_TAILS = { { 0 }, {} };
+
+	@Test
+	void testGet_GivenNewerVersion_ThenForgetOlderTails() {
+		// Given
+		SegmentationCache cache = new SegmentationCache(100, 10);
+		cache.put(1, "222", TWO_TAILS);
+
+		// When
+		int[][] tails = cache.get(2, "222");
+
+		// Then
+		assertThat(tails).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void testGet_GivenOlderVersion_ThenBypassCache() {
+		// Given
+		SegmentationCache cache = new SegmentationCache(100, 10);
+		cache.put(2, "222", TWO_TAILS);
+
+		// When
+		cache.put(1, "333", TWO_TAILS);
+
+		// Then
+		assertThat(cache.get(1, "222")).isNull();
+		assertThat(cache.get(2, "222")).isSameAs(TWO_TAILS);
+		assertThat(cache.get(2, "333")).isNull();
+	}
+
+	@Test
+	void testPut_GivenTooManyTails_ThenEvictLeastRecentlyUsed() {
+		// Given
+		SegmentationCache cache = new SegmentationCache(4, 10);
+		cache.put(1, "2", TWO_TAILS);
+		cache.put(1, "3", TWO_TAILS);
+		cache.get(1, "2");
+
+		// When
+		cache.put(1, "4", TWO_TAILS);
+
+		// Then
+		assertThat(cache.get(1, "3")).isNull();
+		assertThat(cache.get(1, "2")).isSameAs(TWO_TAILS);
+		assertThat(cache.get(1, "4")).isSameAs(TWO_TAILS);
+	}
+
+	@Test
+	void testPut_GivenTooManyTailsForOneSuffix_ThenDontKeepIt() {
+		// Given
+		SegmentationCache cache = new SegmentationCache(100, 1);
+
+		// When
+		cache.put(1, "222", TWO_TAILS);
+
+		// Then
+		assertThat(cache.get(1, "222")).isNull();
+	}
+
+	@Test
+	void testGet_GivenSuffixOfAnotherNumber_ThenFindItWithoutCopyingIt() {
+		// Given
+		SegmentationCache cache = SegmentationCache.getInstance();
+		String first = "72222333";
+		String second = "1-82222333";
+		int[] firstHashes = SegmentationCache.suffixHashes(first);
+		int[] secondHashes = SegmentationCache.suffixHashes(second);
+		cache.put(1, first, 1, firstHashes[1], TWO_TAILS);
+
+		// When
+		int[][] tails = cache.get(1, second, 3, secondHashes[3]);
+
+		// Then
+		assertThat(tails).isSameAs(TWO_TAILS);
+		assertThat(cache.get(1, second, 2, secondHashes[2])).isNull();
+		assertThat(cache.get(1, "2222333")).isSameAs(TWO_TAILS);
+	}
+
+	@Test
+	void testSuffixHashes_ThenSameAsTheHashesOfTheSuffixes() {
+		// Given
+		String phoneNumber = "1-800-7246-837";
+
+		// When
+		int[] hashes = SegmentationCache.suffixHashes(phoneNumber);
+
+		// Then
+		for (int i = 0; i <= phoneNumber.length(); i++) {
+			assertThat(hashes[i]).as("suffix at %d", i).isEqualTo(phoneNumber.substring(i).hashCode());
+		}
+	}
+}
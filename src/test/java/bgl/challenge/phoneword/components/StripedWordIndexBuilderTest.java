@@ -0,0 +1,84 @@
+package bgl.challenge.phoneword.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class StripedWordIndexBuilderTest {
+
+	@Test
+	void testBuild_GivenWordsOfSameNumber_ThenKeepTheirOrder() {
+		// Given
+		StripedWordIndexBuilder builder = new StripedWordIndexBuilder(4);
+		builder.add("4355", "HELL");
+		builder.add("222", "AAA");
+		builder.add("4355", "GELL");
+		builder.add("26868377386588466279", "COUNTERREVOLUTIONARY");
+
+		// When
+		PackedWordIndex index = builder.build();
+
+		// Then
+		assertThat(index.getNoOfBuckets()).isEqualTo(3);
+		assertThat(index.getNoOfWords()).isEqualTo(4);
+		assertThat(index.getWords(index.findBucket("4355"))).containsExactly("HELL", "GELL");
+		assertThat(index.getWords(index.findBucket("222"))).containsExactly("AAA");
+		assertThat(index.getWords(index.findBucket("26868377386588466279"))).containsExactly("COUNTERREVOLUTIONARY");
+		assertThat(builder.getShortestWordLength()).isEqualTo(3);
+		assertThat(builder.getLongestWordLength()).isEqualTo(20);
+		assertThat(builder.getWordLengths().stream().toArray()).containsExactly(3, 4, 20);
+	}
+
+	@Test
+	void testAdd_GivenManyThreads_ThenKeepEveryWord() throws Exception {
+		// Given
+		StripedWordIndexBuilder builder = new StripedWordIndexBuilder();
+		int noOfThreads = 8;
+		int noOfWordsPerThread = 5000;
+		ExecutorService executor = Executors.newFixedThreadPool(noOfThreads);
+
+		// When
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < noOfThreads; t++) {
+			final int thread = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < noOfWordsPerThread; i++) {
+					// every thread adds words to the same numbers
+					String encodedNumber = String.valueOf(1000 + i % 1000);
+					builder.add(encodedNumber, "W" + thread + "-" + i);
+				}
+				builder.add("12", "AB");
+				builder.add("123456789012345678", "ABCDEFGHIJKLMNOPQR");
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		PackedWordIndex index = builder.build();
+
+		// Then
+		assertThat(index.getNoOfBuckets()).isEqualTo(1002);
+		assertThat(index.getNoOfWords()).isEqualTo(noOfThreads * (noOfWordsPerThread + 2));
+		assertThat(index.getBucketSize(index.findBucket("1000"))).isEqualTo(noOfThreads * noOfWordsPerThread / 1000);
+		assertThat(builder.getShortestWordLength()).isEqualTo(2);
+		assertThat(builder.getLongestWordLength()).isEqualTo(18);
+	}
+
+	@Test
+	void testGetShortestWordLength_GivenNoWord_ThenReturnZero() {
+		// Given
+		StripedWordIndexBuilder builder = new StripedWordIndexBuilder();
+
+		// Then
+		assertThat(builder.getShortestWordLength()).isEqualTo(0);
+		assertThat(builder.getLongestWordLength()).isEqualTo(0);
+		assertThat(builder.build().getNoOfWords()).isEqualTo(0);
+	}
+}
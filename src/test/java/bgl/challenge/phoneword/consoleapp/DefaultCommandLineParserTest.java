@@ -59,6 +59,85 @@ public class DefaultCommandLineParserTest {
 		assertThat(actualInfo.getDictionaryFileName()).isEqualTo(dictionaryFileName);
 	}
 
+	@Test
+	public void testParse_GivenCompileIndicator_ThenInputFileIsOptional() {
+		// Given
+		String dictionaryFileName = "dictionary.txt";
+		String compiledDictionaryFileName = "dictionary.bin";
+		String[] commandLineArgs = { DefaultCommandLineParser.DICTIONARY_FILE_INDICATOR, dictionaryFileName,
+				DefaultCommandLineParser.COMPILE_FILE_INDICATOR, compiledDictionaryFileName };
+
+		// When
+		CommandLineInfo actualInfo = parser.parse(commandLineArgs);
+
+		// Then
+		assertThat(actualInfo.getInputFileName()).isNull();
+		assertThat(actualInfo.getDictionaryFileName()).isEqualTo(dictionaryFileName);
+		assertThat(actualInfo.getCompiledDictionaryFileName()).isEqualTo(compiledDictionaryFileName);
+	}
+
+	@Test
+	public void testParse_GivenQueryLimits_ThenReturnThem() {
+		// Given
+		String[] commandLineArgs = { DefaultCommandLineParser.INPUT_FILE_INDICATOR, "input.txt",
+				DefaultCommandLineParser.DICTIONARY_FILE_INDICATOR, "dictionary.txt",
+				DefaultCommandLineParser.TIMEOUT_INDICATOR, "250", DefaultCommandLineParser.MAX_RESULTS_INDICATOR,
+				"1000" };
+
+		// When
+		CommandLineInfo actualInfo = parser.parse(commandLineArgs);
+
+		// Then
+		assertThat(actualInfo.getTimeBudgetMillis()).isEqualTo(250L);
+		assertThat(actualInfo.getMaxResults()).isEqualTo(1000);
+	}
+
+	@Test
+	public void testParse_GivenNoQueryLimits_ThenReturnNull() {
+		// Given
+		String[] commandLineArgs = { DefaultCommandLineParser.INPUT_FILE_INDICATOR, "input.txt",
+				DefaultCommandLineParser.DICTIONARY_FILE_INDICATOR, "dictionary.txt" };
+
+		// When
+		CommandLineInfo actualInfo = parser.parse(commandLineArgs);
+
+		// Then
+		assertThat(actualInfo.getTimeBudgetMillis()).isNull();
+		assertThat(actualInfo.getMaxResults()).isNull();
+	}
+
+	@Test
+	public void testExtractQueryLimits_GivenInvalidValue_ThenThrowException() {
+		// Given
+		String[] invalidTimeout = { DefaultCommandLineParser.TIMEOUT_INDICATOR, "soon" };
+		String[] negativeMax = { DefaultCommandLineParser.MAX_RESULTS_INDICATOR, "-1" };
+
+		// Then
+		assertThrows(IllegalArgumentException.class, () -> parser.extractTimeBudgetMillis(invalidTimeout));
+		assertThrows(IllegalArgumentException.class, () -> parser.extractMaxResults(negativeMax));
+	}
+
+	@Test
+	public void testExtractCompiledDictionaryFileName_GivenNoIndicator_ThenReturnNull() {
+		// Given
+		String[] commandLineArgs = { DefaultCommandLineParser.INPUT_FILE_INDICATOR, "input.txt" };
+
+		// When
+		String actualFileName = parser.extractCompiledDictionaryFileName(commandLineArgs);
+
+		// Then
+		assertThat(actualFileName).isNull();
+	}
+
+	@Test
+	public void testExtractCompiledDictionaryFileName_GivenIndicatorWithoutValue_ThenThrowException() {
+		// Given
+		String[] commandLineArgs = { DefaultCommandLineParser.COMPILE_FILE_INDICATOR };
+
+		// Then
+		assertThrows(ArgumentMissingException.class, () -> parser.extractCompiledDictionaryFileName(commandLineArgs));
+	}
+
 	@Test
 	public void testExtractInputFileName_1() {
 		// Given
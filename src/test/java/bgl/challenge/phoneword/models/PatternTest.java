@@ -1,6 +1,7 @@
 package bgl.challenge.phoneword.models;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,4 +30,82 @@ public class PatternTest {
 		assertThat(actualCheck).isEqualTo(expectedCheck);
 	}
 
+	@Test
+	void testIsValidWhenSubStringsOnlyTouch() throws Exception {
+		// Given
+		Pattern pattern = new Pattern("2222333",
+				new int[] { Pattern.pack(0, 2), Pattern.pack(3, 3), Pattern.pack(4, 6) });
+
+		// When
+		boolean actualCheck = pattern.isValid();
+
+		// Then
+		assertThat(actualCheck).isTrue();
+	}
+
+	@Test
+	void testIsValidBeyondTheFirst64Digits() throws Exception {
+		// Given
+		Pattern pattern = new Pattern();
+		pattern.add(new SubString(null, 60, 70));
+		pattern.add(new SubString(null, 70, 130));
+
+		// When
+		boolean actualCheck = pattern.isValid();
+
+		// Then
+		assertThat(actualCheck).isFalse();
+	}
+
+	@Test
+	void testEqualsRegardlessOfTheOrder() throws Exception {
+		// Given
+		String originalPhoneNumber = "2222333";
+		Pattern pattern1 = new Pattern(originalPhoneNumber, new int[] { Pattern.pack(0, 2), Pattern.pack(4, 6) });
+		Pattern pattern2 = new Pattern();
+		pattern2.setOriginalPhoneNumber(originalPhoneNumber);
+		pattern2.add(new SubString(originalPhoneNumber, "333", 4, 6));
+		pattern2.add(new SubString(originalPhoneNumber, "222", 0, 2));
+
+		// Then
+		assertThat(pattern1).isEqualTo(pattern2);
+		assertThat(pattern1.hashCode()).isEqualTo(pattern2.hashCode());
+		assertThat(pattern2.getStart(0)).isEqualTo(0);
+		assertThat(pattern2.getEnd(1)).isEqualTo(6);
+	}
+
+	@Test
+	void testAddTheSameSubStringTwice() throws Exception {
+		// Given
+		String originalPhoneNumber = "2222";
+		Pattern pattern = new Pattern();
+		pattern.setOriginalPhoneNumber(originalPhoneNumber);
+
+		// When
+		pattern.add(new SubString(originalPhoneNumber, "222", 0, 2));
+		pattern.add(new SubString(originalPhoneNumber, "222", 0, 2));
+
+		// Then
+		assertThat(pattern.size()).isEqualTo(1);
+		assertThat(pattern.isValid()).isTrue();
+		assertThat(pattern.getSubStrings()).containsExactly(new SubString(originalPhoneNumber, "222", 0, 2));
+	}
+
+	@Test
+	void testPack_GivenStartsOfTheLongestPhoneNumber_ThenKeepTheirOrder() throws Exception {
+		// Given
+		int last = Pattern.MAX_PHONE_NUMBER_LENGTH - 1;
+
+		// When
+		int first = Pattern.pack(0, last);
+		int middle = Pattern.pack(1 << 14, last);
+		int end = Pattern.pack(last, last);
+
+		// Then
+		assertThat(first).isLessThan(middle).isLessThan(end);
+		assertThat(end).isPositive();
+		assertThat(Pattern.startOf(end)).isEqualTo(last);
+		assertThat(Pattern.endOf(end)).isEqualTo(last);
+		assertThrows(IllegalArgumentException.class, () -> Pattern.pack(0, Pattern.MAX_PHONE_NUMBER_LENGTH));
+	}
 }
@@ -0,0 +1,56 @@
+package bgl.challenge.phoneword.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class PackedDigitsTest {
+
+	@Test
+	void testPack_GivenLeadingZero_ThenKeepItApartFromShorterNumber() throws Exception {
+		// When
+		long withLeadingZero = PackedDigits.pack("0223");
+		long withoutLeadingZero = PackedDigits.pack("223");
+
+		// Then
+		assertThat(withLeadingZero).isNotEqualTo(withoutLeadingZero);
+		assertThat(PackedDigits.unpack(withLeadingZero)).isEqualTo("0223");
+		assertThat(PackedDigits.length(withLeadingZero)).isEqualTo(4);
+	}
+
+	@Test
+	void testPack_GivenMaxDigits_ThenUnpackSameDigits() throws Exception {
+		// Given
+		String digits = "987654321098765";
+
+		// When
+		long packed = PackedDigits.pack(digits);
+
+		// Then
+		assertThat(packed).isNotEqualTo(PackedDigits.NOT_PACKABLE);
+		assertThat(PackedDigits.unpack(packed)).isEqualTo(digits);
+	}
+
+	@Test
+	void testPack_GivenTooLongOrNonDigit_ThenNotPackable() throws Exception {
+		assertThat(PackedDigits.pack("9876543210987654")).isEqualTo(PackedDigits.NOT_PACKABLE);
+		assertThat(PackedDigits.pack("12A4")).isEqualTo(PackedDigits.NOT_PACKABLE);
+	}
+
+	@Test
+	void testWithLength_GivenRollingWindow_ThenEqualToPackedSubString() throws Exception {
+		// Given
+		String number = "4355611154889";
+		int length = 5;
+		long mask = PackedDigits.windowMask(length);
+
+		// When
+		long window = 0;
+		for (int i = 0; i < number.length(); i++) {
+			window = ((window << 4) | (number.charAt(i) - '0')) & mask;
+		}
+
+		// Then
+		assertThat(PackedDigits.withLength(window, length)).isEqualTo(PackedDigits.pack("54889"));
+	}
+}